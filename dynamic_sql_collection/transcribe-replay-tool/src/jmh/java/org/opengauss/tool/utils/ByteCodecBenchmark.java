@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Per packet cost of the integer decoding of the capture path, the hex string round trip
+ * which was used before ByteCodec against ByteCodec. A packet is decoded the way the reader, the
+ * distributor and the MySQL parser do: the pcap record header, the IPv4 and TCP header fields and the
+ * MySQL packet header. Run it by mvn -Pjmh test-compile exec:exec, the benchmarks to run are chosen by
+ * -Djmh.benchmarks=regexp.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/30
+ **/
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ByteCodecBenchmark {
+    private static final int RECORD_HEADER_LENGTH = 16;
+    private static final int IP_START = RECORD_HEADER_LENGTH + 14;
+    private static final int TCP_START = IP_START + 20;
+    private static final int MYSQL_START = TCP_START + 20;
+
+    private byte[] packet;
+
+    /**
+     * Build a pcap record of a MySQL COM_QUERY packet
+     */
+    @Setup
+    public void setUp() {
+        byte[] sql = "select id, name from t_user where id = 10001".getBytes(StandardCharsets.UTF_8);
+        packet = new byte[MYSQL_START + 5 + sql.length];
+        putLittleEndian(0, 1742000000, 4);
+        putLittleEndian(4, 123456, 4);
+        putLittleEndian(8, packet.length - RECORD_HEADER_LENGTH, 4);
+        putLittleEndian(12, packet.length - RECORD_HEADER_LENGTH, 4);
+        packet[IP_START] = 0x45;
+        putBigEndian(IP_START + 2, packet.length - IP_START, 2);
+        putBigEndian(IP_START + 12, 0x0a000001, 4);
+        putBigEndian(IP_START + 16, 0x0a000002, 4);
+        putBigEndian(TCP_START, 52000, 2);
+        putBigEndian(TCP_START + 2, 3306, 2);
+        putBigEndian(TCP_START + 4, 0xfedcba98L, 4);
+        packet[TCP_START + 12] = 0x50;
+        putLittleEndian(MYSQL_START, sql.length + 1, 3);
+        packet[MYSQL_START + 4] = 0x03;
+        System.arraycopy(sql, 0, packet, MYSQL_START + 5, sql.length);
+    }
+
+    private void putLittleEndian(int start, long value, int size) {
+        for (int i = 0; i < size; i++) {
+            packet[start + i] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    private void putBigEndian(int start, long value, int size) {
+        for (int i = 0; i < size; i++) {
+            packet[start + i] = (byte) (value >>> (8 * (size - 1 - i)));
+        }
+    }
+
+    /**
+     * Decode the packet by hex strings, as CommonParser did before ByteCodec
+     *
+     * @return long the folded fields
+     */
+    @Benchmark
+    public long hexStringRoundTrip() {
+        long timestamp = (long) Integer.parseInt(legacyLittleEndian(packet, 0, 4), 16) * 1000 * 1000
+                + Integer.parseInt(legacyLittleEndian(packet, 4, 8), 16);
+        int capLength = Integer.parseInt(legacyLittleEndian(packet, 12, 16), 16);
+        int totalLength = Integer.parseInt(legacyBigEndian(packet, IP_START + 2, IP_START + 4), 16);
+        long source = Long.parseLong(legacyBigEndian(packet, IP_START + 12, IP_START + 16), 16);
+        long destination = Long.parseLong(legacyBigEndian(packet, IP_START + 16, IP_START + 20), 16);
+        int sourcePort = Integer.parseInt(legacyBigEndian(packet, TCP_START, TCP_START + 2), 16);
+        int destinationPort = Integer.parseInt(legacyBigEndian(packet, TCP_START + 2, TCP_START + 4), 16);
+        long seqNum = Long.parseLong(legacyBigEndian(packet, TCP_START + 4, TCP_START + 8), 16);
+        int payloadLength = Integer.parseInt(legacyLittleEndian(packet, MYSQL_START, MYSQL_START + 3), 16);
+        int command = Integer.parseInt(String.format("%02x", packet[MYSQL_START + 4] & 0xFF), 16);
+        return timestamp + capLength + totalLength + source + destination + sourcePort + destinationPort + seqNum
+                + payloadLength + command;
+    }
+
+    /**
+     * Decode the packet by ByteCodec
+     *
+     * @return long the folded fields
+     */
+    @Benchmark
+    public long byteCodec() {
+        long timestamp = CommonParser.parseTimestamp(packet);
+        int capLength = ByteCodec.readIntByLittleEndian(packet, 12, 16);
+        int totalLength = ByteCodec.readIntByBigEndian(packet, IP_START + 2, IP_START + 4);
+        long source = ByteCodec.readLongByBigEndian(packet, IP_START + 12, IP_START + 16);
+        long destination = ByteCodec.readLongByBigEndian(packet, IP_START + 16, IP_START + 20);
+        int sourcePort = ByteCodec.readIntByBigEndian(packet, TCP_START, TCP_START + 2);
+        int destinationPort = ByteCodec.readIntByBigEndian(packet, TCP_START + 2, TCP_START + 4);
+        long seqNum = ByteCodec.readLongByBigEndian(packet, TCP_START + 4, TCP_START + 8);
+        int payloadLength = ByteCodec.readIntByLittleEndian(packet, MYSQL_START, MYSQL_START + 3);
+        int command = ByteCodec.readUnsignedByte(packet, MYSQL_START + 4);
+        return timestamp + capLength + totalLength + source + destination + sourcePort + destinationPort + seqNum
+                + payloadLength + command;
+    }
+
+    private static String legacyLittleEndian(byte[] data, int start, int end) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = end - 1; i >= start; i--) {
+            sb.append(String.format("%02x", data[i] & 0xFF));
+        }
+        return sb.toString();
+    }
+
+    private static String legacyBigEndian(byte[] data, int start, int end) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = start; i < end; i++) {
+            sb.append(String.format("%02x", data[i] & 0xFF));
+        }
+        return sb.toString();
+    }
+}
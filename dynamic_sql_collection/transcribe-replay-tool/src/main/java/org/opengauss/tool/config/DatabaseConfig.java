@@ -36,6 +36,8 @@ public class DatabaseConfig {
     private String password;
     private String tableName;
     private boolean isCluster;
+    private String writeMode = ConfigReader.SQL_STORAGE_WRITE_MODE_BATCH;
+    private int batchSize = 1000;
 
     /**
      * Load openGauss connection config
@@ -50,6 +52,9 @@ public class DatabaseConfig {
         this.password = ConfigReader.getPassword(props.getProperty(ConfigReader.SQL_DATABASE_PASSWORD),
             "Please enter Database user password for SQL storage (sql.database.password):");
         this.tableName = props.getProperty(ConfigReader.SQL_TABLE_NAME, ConfigReader.DEFAULT_SQL_TABLE);
+        this.writeMode = props.getProperty(ConfigReader.SQL_STORAGE_WRITE_MODE,
+            ConfigReader.SQL_STORAGE_WRITE_MODE_BATCH);
+        this.batchSize = Integer.parseInt(props.getProperty(ConfigReader.SQL_STORAGE_BATCH_SIZE, "1000"));
     }
 
     /**
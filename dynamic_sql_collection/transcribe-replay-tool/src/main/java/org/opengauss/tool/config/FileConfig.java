@@ -29,4 +29,8 @@ public class FileConfig {
     private int fileSize;
     private String fileName;
     private int fileCount;
+    private boolean isBinary;
+    private String compression;
+    private String fsyncPolicy;
+    private long fsyncInterval;
 }
@@ -29,4 +29,6 @@ public class ResultFileConfig {
     private String selectResultPath;
     private String resultFileName;
     private int resultFileSize;
+    private boolean isDigestOnly;
+    private String compression;
 }
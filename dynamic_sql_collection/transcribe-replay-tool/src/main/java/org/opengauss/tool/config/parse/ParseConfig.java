@@ -19,6 +19,8 @@ import lombok.Data;
 import org.opengauss.tool.config.DatabaseConfig;
 import org.opengauss.tool.config.FileConfig;
 import org.opengauss.tool.config.ResultFileConfig;
+import org.opengauss.tool.utils.BlockCodecs;
+import org.opengauss.tool.utils.ChannelFileWriter;
 import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.FileOperator;
 import org.slf4j.Logger;
@@ -45,11 +47,28 @@ public class ParseConfig {
     private String databaseServerType;
     private String databaseServerIp;
     private int databaseServerPort;
+    private int queueMemoryLimit;
     private int queueSizeLimit;
     private int packetBatchSize;
     private boolean isDropPreviousSql;
     private boolean isDropTcpdumpFile;
     private int parseMaxTime;
+    private String pcapReadMode;
+    private int pcapReadWorkerCount;
+    private String sessionMode;
+    private int sessionWorkerCount;
+    private int reorderWindowSize;
+    private long reorderGapTimeout;
+    private long sessionIdleTimeout;
+    private long metricsInterval;
+    private String clientSubnets;
+    private double sessionSampleRate;
+    private String pluginPath;
+    private String networkInterface;
+    private int captureDuration;
+    private boolean isTcpdumpTee;
+    private String tcpdumpFileName;
+    private int tcpdumpFileSize;
 
     /**
      * Load parse configure properties
@@ -62,12 +81,27 @@ public class ParseConfig {
         this.databaseServerType = props.getProperty(ConfigReader.TCPDUMP_DATABASE_TYPE);
         this.databaseServerIp = props.getProperty(ConfigReader.TCPDUMP_DATABASE_IP);
         this.databaseServerPort = Integer.parseInt(props.getProperty(ConfigReader.TCPDUMP_DATABASE_PORT));
-        this.queueSizeLimit = Integer.parseInt(props.getProperty(ConfigReader.QUEUE_SIZE_LIMIT, "10000"));
+        this.queueMemoryLimit = Integer.parseInt(props.getProperty(ConfigReader.QUEUE_MEMORY_LIMIT, "64"));
+        this.queueSizeLimit = Integer.parseInt(props.getProperty(ConfigReader.QUEUE_SIZE_LIMIT, "0"));
         this.packetBatchSize = Integer.parseInt(props.getProperty(ConfigReader.PACKET_BATCH_SIZE, "10000"));
         this.isDropTcpdumpFile = Boolean.parseBoolean(props.getProperty(ConfigReader.TCPDUMP_FILE_DROP, "false"));
         this.parseMaxTime = Integer.parseInt(props.getProperty(ConfigReader.PARSE_MAX_TIME, "0"));
+        this.pcapReadMode = props.getProperty(ConfigReader.PCAP_READ_MODE, ConfigReader.PCAP_READ_MODE_STREAM);
+        this.pcapReadWorkerCount = Integer.parseInt(props.getProperty(ConfigReader.PCAP_READ_WORKER_COUNT, "1"));
+        this.sessionMode = props.getProperty(ConfigReader.PARSE_SESSION_MODE, ConfigReader.PARSE_SESSION_MODE_THREAD);
+        this.sessionWorkerCount = Integer.parseInt(props.getProperty(ConfigReader.PARSE_SESSION_WORKER_COUNT,
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        this.reorderWindowSize = Integer.parseInt(props.getProperty(ConfigReader.PARSE_REORDER_WINDOW_SIZE, "64"));
+        this.reorderGapTimeout = Long.parseLong(props.getProperty(ConfigReader.PARSE_REORDER_GAP_TIMEOUT, "1000"));
+        this.sessionIdleTimeout = Long.parseLong(props.getProperty(ConfigReader.PARSE_SESSION_IDLE_TIMEOUT, "60"));
+        this.metricsInterval = Long.parseLong(props.getProperty(ConfigReader.PARSE_METRICS_INTERVAL, "10"));
+        this.clientSubnets = props.getProperty(ConfigReader.PARSE_FILTER_CLIENT_SUBNETS, "");
+        this.sessionSampleRate = Double.parseDouble(props.getProperty(ConfigReader.PARSE_SESSION_SAMPLE_RATE, "1"));
+        if (ConfigReader.PCAP_READ_MODE_TCPDUMP.equals(pcapReadMode)) {
+            loadTcpdumpStreamConfig(props);
+        }
         loadResultFileConfig(props);
-        if (ConfigReader.JSON.equalsIgnoreCase(storageMode)) {
+        if (!ConfigReader.DB.equalsIgnoreCase(storageMode)) {
             loadFileConfig(props);
         } else {
             this.isDropPreviousSql = Boolean.parseBoolean(props.getProperty(ConfigReader.SQL_TABLE_DROP,
@@ -87,6 +121,26 @@ public class ParseConfig {
                 FileOperator.CURRENT_PATH + ConfigReader.DEFAULT_SQL_FILES + File.separator)));
         fileConfig.setFileName(props.getProperty(ConfigReader.SQL_FILE_NAME, ConfigReader.DEFAULT_SQL_FILE));
         fileConfig.setFileSize(Integer.parseInt(props.getProperty(ConfigReader.SQL_FILE_SIZE, "10")));
+        fileConfig.setFsyncPolicy(props.getProperty(ConfigReader.SQL_FILE_FSYNC, ChannelFileWriter.FSYNC_NONE));
+        fileConfig.setFsyncInterval(Long.parseLong(props.getProperty(ConfigReader.SQL_FILE_FSYNC_INTERVAL, "1000")));
+        fileConfig.setCompression(props.getProperty(ConfigReader.PARSE_FILE_COMPRESSION, BlockCodecs.NONE));
+        fileConfig.setBinary(ConfigReader.BINARY.equalsIgnoreCase(
+                props.getProperty(ConfigReader.SQL_STORAGE_MODE, ConfigReader.JSON)));
+    }
+
+    /**
+     * Load tcpdump configure to stream packets without pcap files
+     *
+     * @param props Properties the props
+     */
+    public void loadTcpdumpStreamConfig(Properties props) {
+        this.pluginPath = FileOperator.formatFilePath(props.getProperty(ConfigReader.TCPDUMP_PLUGIN_PATH,
+                FileOperator.CURRENT_PATH + ConfigReader.PLUGIN + File.separator));
+        this.networkInterface = props.getProperty(ConfigReader.TCPDUMP_NETWORK_INTERFACE);
+        this.captureDuration = Integer.parseInt(props.getProperty(ConfigReader.TCPDUMP_CAPTURE_DURATION, "1"));
+        this.isTcpdumpTee = Boolean.parseBoolean(props.getProperty(ConfigReader.TCPDUMP_STREAM_TEE, "false"));
+        this.tcpdumpFileName = props.getProperty(ConfigReader.TCPDUMP_FILE_NAME, ConfigReader.DEFAULT_TCPDUMP_FILE);
+        this.tcpdumpFileSize = Integer.parseInt(props.getProperty(ConfigReader.TCPDUMP_FILE_SIZE, "10"));
     }
 
     /**
@@ -102,6 +156,9 @@ public class ParseConfig {
         resultFileConfig.setResultFileName(props.getProperty(ConfigReader.RESULT_FILE_NAME));
         resultFileConfig.setResultFileSize(Integer.parseInt(
                 props.getProperty(ConfigReader.RESULT_FILE_SIZE, "10")));
+        resultFileConfig.setCompression(props.getProperty(ConfigReader.PARSE_FILE_COMPRESSION, BlockCodecs.NONE));
+        resultFileConfig.setDigestOnly(ConfigReader.RESULT_CAPTURE_MODE_DIGEST.equals(
+                props.getProperty(ConfigReader.RESULT_CAPTURE_MODE, ConfigReader.RESULT_CAPTURE_MODE_DATA)));
     }
 
     /**
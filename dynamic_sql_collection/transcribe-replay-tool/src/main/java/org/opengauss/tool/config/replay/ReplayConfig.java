@@ -55,6 +55,12 @@ public class ReplayConfig {
     private DatabaseConfig targetDbConfig;
     private int replayMaxTime;
     private boolean isSourceTimeInterval;
+    private String dbReadMode;
+    private int fileBufferSize;
+    private boolean isFilePrefetch;
+    private int fileDecodeThreadCount;
+    private String timingMode;
+    private double explainSampleRate;
     private boolean isCompareResult;
     private String selectResultPath;
     private String resultFileName;
@@ -87,6 +93,17 @@ public class ReplayConfig {
         this.replayMaxTime = Integer.parseInt(props.getProperty(ConfigReader.REPLAY_MAX_TIME, "0"));
         this.isSourceTimeInterval = Boolean.parseBoolean(
             props.getProperty(ConfigReader.SOURCE_TIME_INTERVAL_REPLAY, "false"));
+        this.dbReadMode = props.getProperty(ConfigReader.SQL_REPLAY_DB_READ_MODE,
+            ConfigReader.SQL_REPLAY_DB_READ_MODE_PAGE);
+        this.fileBufferSize = Integer.parseInt(props.getProperty(ConfigReader.SQL_REPLAY_FILE_BUFFER_SIZE, "64"));
+        this.isFilePrefetch = Boolean.parseBoolean(
+            props.getProperty(ConfigReader.SQL_REPLAY_FILE_PREFETCH, "false"));
+        this.fileDecodeThreadCount = Integer.parseInt(
+            props.getProperty(ConfigReader.SQL_REPLAY_FILE_DECODE_THREAD_COUNT, "1"));
+        this.timingMode = props.getProperty(ConfigReader.SQL_REPLAY_TIMING_MODE,
+            ConfigReader.SQL_REPLAY_TIMING_MODE_EXPLAIN);
+        this.explainSampleRate = Double.parseDouble(
+            props.getProperty(ConfigReader.SQL_REPLAY_EXPLAIN_SAMPLE_RATE, "0"));
         this.isCompareResult = Boolean.parseBoolean(props.getProperty(ConfigReader.COMPARE_SELECT_RESULT, "false"));
         this.selectResultPath = props.getProperty(ConfigReader.SELECT_RESULT_PATH);
         this.resultFileName = props.getProperty(ConfigReader.RESULT_FILE_NAME);
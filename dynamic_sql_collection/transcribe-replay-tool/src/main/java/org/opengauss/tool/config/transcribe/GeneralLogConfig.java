@@ -17,6 +17,7 @@ package org.opengauss.tool.config.transcribe;
 
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.opengauss.tool.utils.ChannelFileWriter;
 import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.FileOperator;
 
@@ -59,6 +60,8 @@ public class GeneralLogConfig extends TranscribeConfig {
                 .CURRENT_PATH + ConfigReader.DEFAULT_SQL_FILES + File.separator)));
         fileConfig.setFileName(props.getProperty(ConfigReader.SQL_FILE_NAME, ConfigReader.DEFAULT_SQL_FILE));
         fileConfig.setFileSize(Integer.parseInt(props.getProperty(ConfigReader.SQL_FILE_SIZE, "10")));
+        fileConfig.setFsyncPolicy(props.getProperty(ConfigReader.SQL_FILE_FSYNC, ChannelFileWriter.FSYNC_NONE));
+        fileConfig.setFsyncInterval(Long.parseLong(props.getProperty(ConfigReader.SQL_FILE_FSYNC_INTERVAL, "1000")));
     }
 
     @Override
@@ -17,6 +17,7 @@ package org.opengauss.tool.parse;
 
 import org.opengauss.tool.parse.object.PreparedValue;
 import org.opengauss.tool.parse.object.TimestampObj;
+import org.opengauss.tool.utils.ByteCodec;
 import org.opengauss.tool.utils.CommonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -71,8 +72,7 @@ public final class DataTypeConverter {
      */
     public static PreparedValue convertIntValue(byte[] packet, int start) {
         PreparedValue preparedValue = new PreparedValue();
-        preparedValue.setValue(String.valueOf(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start,
-                start + 4), 16)));
+        preparedValue.setValue(String.valueOf(ByteCodec.readIntByLittleEndian(packet, start, start + 4)));
         preparedValue.setOffset(4);
         return preparedValue;
     }
@@ -85,8 +85,8 @@ public final class DataTypeConverter {
      * @return PreparedValue the preparedValue
      */
     public static PreparedValue convertDoubleValue(byte[] packet, int start) {
-        long hex = Long.parseLong(CommonParser.parseByLittleEndian(packet, start, start + 8), 16);
-        String value = String.valueOf(Double.longBitsToDouble(hex));
+        long bits = ByteCodec.readLongByLittleEndian(packet, start, start + 8);
+        String value = String.valueOf(Double.longBitsToDouble(bits));
         return new PreparedValue(value, 8);
     }
 
@@ -109,15 +109,15 @@ public final class DataTypeConverter {
      * @return PreparedValue the preparedValue
      */
     public static PreparedValue convertTimestampValue(byte[] packet, int start) {
-        int valueLength = Integer.parseInt(CommonParser.parseByLittleEndian(packet, start, start + 1), 16);
+        int valueLength = ByteCodec.readUnsignedByte(packet, start);
         TimestampObj timestamp = new TimestampObj();
-        timestamp.setYear(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 1, start + 3), 16));
-        timestamp.setMonth(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 3, start + 4), 16));
-        timestamp.setDay(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 4, start + 5), 16));
-        timestamp.setHour(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 5, start + 6), 16));
-        timestamp.setMinute(Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 6, start + 7), 16));
-        int second = Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 7, start + 8), 16);
-        int billionthOfSecond = Integer.parseInt(CommonParser.parseByLittleEndian(packet, start + 8, start + 12), 16);
+        timestamp.setYear(ByteCodec.readIntByLittleEndian(packet, start + 1, start + 3));
+        timestamp.setMonth(ByteCodec.readUnsignedByte(packet, start + 3));
+        timestamp.setDay(ByteCodec.readUnsignedByte(packet, start + 4));
+        timestamp.setHour(ByteCodec.readUnsignedByte(packet, start + 5));
+        timestamp.setMinute(ByteCodec.readUnsignedByte(packet, start + 6));
+        int second = ByteCodec.readUnsignedByte(packet, start + 7);
+        int billionthOfSecond = ByteCodec.readIntByLittleEndian(packet, start + 8, start + 12);
         timestamp.setSecond(second, billionthOfSecond);
         return new PreparedValue(timestamp.toString(), valueLength + 1);
     }
@@ -130,31 +130,18 @@ public final class DataTypeConverter {
      * @return PreparedValue the preparedValue
      */
     public static PreparedValue convertStringValue(byte[] packet, int start) {
-        int flag = packet[start] & 0xff;
-        int index = start;
-        int intLen;
-        int offset;
-        if (flag == 0xfc) {
-            intLen = 2;
-            offset = 3;
-            index++;
-        } else if (flag == 0xfd) {
-            intLen = 3;
-            offset = 4;
-            index++;
-        } else {
-            intLen = 1;
-            offset = 1;
+        int offset = ByteCodec.getLengthEncodedIntSize(packet, start);
+        int valueLength = (int) ByteCodec.readLengthEncodedInt(packet, start);
+        if (valueLength == ByteCodec.NULL_LENGTH) {
+            return new PreparedValue(null, offset);
         }
-        int valueLength = Integer.parseInt(CommonParser.parseByLittleEndian(packet, index, index + intLen), 16);
-        String value = CommonParser.parseByteToString(packet, index + intLen, index + intLen + valueLength);
+        String value = CommonParser.parseByteToString(packet, start + offset, start + offset + valueLength);
         return new PreparedValue(value, valueLength + offset);
     }
 
     private static PreparedValue convertLongLongValue(byte[] packet, int start) {
         PreparedValue preparedValue = new PreparedValue();
-        preparedValue.setValue(String.valueOf(Long.parseLong(CommonParser.parseByLittleEndian(packet, start,
-            start + 8), 16)));
+        preparedValue.setValue(String.valueOf(ByteCodec.readLongByLittleEndian(packet, start, start + 8)));
         preparedValue.setOffset(8);
         return preparedValue;
     }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.ProtocolConstant;
+import org.opengauss.tool.utils.MappedBuffers;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Description: Read a finished pcap file through memory mapping, the records are walked in place
+ * and every frame is published to the packet ring buffer as a view of the mapping, it is not copied.
+ * A window is unmapped only after the distributor has consumed all of its frames. Without a ring buffer
+ * the reader is a cursor over the frames, which the caller walks by next.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/10
+ */
+public class MappedPcapReader implements Closeable {
+    /**
+     * A single mapping can not exceed 2GB, so large files are mapped window by window
+     */
+    private static final long MAPPING_WINDOW_SIZE = 1L << 30;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final long fileSize;
+    private final PacketRingBuffer ringBuffer;
+    private MappedByteBuffer window;
+    private ByteBuffer frameView;
+    private long windowStart;
+    private long position;
+    private int packetIdInFile;
+    private int frameOffset;
+    private int frameLength;
+    private long microsecondTimestamp;
+
+    /**
+     * Constructor
+     *
+     * @param file File the finished pcap file
+     * @param ringBuffer PacketRingBuffer the ring buffer which the frames are published to, null if the
+     *                   frames are only walked by next
+     * @throws IOException if the file can not be opened
+     */
+    public MappedPcapReader(File file, PacketRingBuffer ringBuffer) throws IOException {
+        this.fileName = file.getName();
+        this.ringBuffer = ringBuffer;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.position = ProtocolConstant.PCAP_HEADER_LENGTH;
+    }
+
+    /**
+     * Publish next packet to the ring buffer as a view of the mapping
+     *
+     * @return boolean false if reach the end of the file
+     * @throws IOException if the file can not be mapped
+     */
+    public boolean readNext() throws IOException {
+        if (!next()) {
+            return false;
+        }
+        ringBuffer.publishView(frameView, frameOffset, frameLength, fileName, packetIdInFile, microsecondTimestamp);
+        return true;
+    }
+
+    /**
+     * Move to next frame longer than the ethernet header, the frame is valid until the next move
+     *
+     * @return boolean false if reach the end of the file
+     * @throws IOException if the file can not be mapped
+     */
+    public boolean next() throws IOException {
+        while (position + ProtocolConstant.PACKET_HEADER_LENGTH <= fileSize) {
+            ensureMapped(position, ProtocolConstant.PACKET_HEADER_LENGTH);
+            int headerIndex = (int) (position - windowStart);
+            long seconds = window.getInt(headerIndex) & 0xFFFFFFFFL;
+            long microseconds = window.getInt(headerIndex + 4) & 0xFFFFFFFFL;
+            int capLength = window.getInt(headerIndex + 8);
+            long frameStart = position + ProtocolConstant.PACKET_HEADER_LENGTH;
+            if (capLength < 0 || frameStart + capLength > fileSize) {
+                position = fileSize;
+                return false;
+            }
+            packetIdInFile++;
+            position = frameStart + capLength;
+            if (capLength <= ProtocolConstant.ETHERNET_HEADER_LENGTH) {
+                continue;
+            }
+            ensureMapped(frameStart, capLength);
+            frameOffset = (int) (frameStart - windowStart);
+            frameLength = capLength;
+            microsecondTimestamp = seconds * 1000 * 1000 + microseconds;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get the buffer which holds the current frame, read in big endian
+     *
+     * @return ByteBuffer the buffer
+     */
+    public ByteBuffer getFrame() {
+        return frameView;
+    }
+
+    /**
+     * Get the offset of the current frame in the buffer
+     *
+     * @return int the offset
+     */
+    public int getFrameOffset() {
+        return frameOffset;
+    }
+
+    /**
+     * Get the length of the current frame
+     *
+     * @return int the length
+     */
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    /**
+     * Get the packet id in file of the current frame, the record number as the stream reader counts it
+     *
+     * @return int the packet id in file
+     */
+    public int getPacketIdInFile() {
+        return packetIdInFile;
+    }
+
+    /**
+     * Get the microsecond timestamp of the current frame
+     *
+     * @return long the microsecond timestamp
+     */
+    public long getMicrosecondTimestamp() {
+        return microsecondTimestamp;
+    }
+
+    /**
+     * Get the file name
+     *
+     * @return String the file name
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    private void ensureMapped(long start, int length) throws IOException {
+        if (window != null && start >= windowStart && start + length <= windowStart + window.capacity()) {
+            return;
+        }
+        // the previous window is released once its frames are consumed, a dropped file frees its space
+        // when it is deleted
+        releaseWindow();
+        windowStart = start;
+        long size = Math.min(MAPPING_WINDOW_SIZE, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+        window.order(ByteOrder.LITTLE_ENDIAN);
+        // the headers of the frames are read in network order
+        frameView = window.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private void releaseWindow() {
+        if (window == null) {
+            return;
+        }
+        if (ringBuffer != null) {
+            ringBuffer.awaitConsumed();
+        }
+        MappedBuffers.unmap(window);
+        window = null;
+        frameView = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        releaseWindow();
+        channel.close();
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.PacketData;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+import org.opengauss.tool.utils.ByteCodec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Description: Decode the Ethernet, IP and TCP headers of a captured frame, find the client of the
+ * database session and the direction of the packet, and copy the TCP payload. The client of the last
+ * decoded frame is kept in the decoder, so each thread which decodes frames uses its own decoder.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PacketDecoder {
+    private static final int IP_VERSION_INDEX = 14;
+    private static final int IPV6_VERSION_FLAG = 0x60;
+    private static final int TCP_HEADER_LENGTH = 20;
+    private static final int MIN_IPV4_FRAME_LENGTH = ProtocolConstant.ETHERNET_HEADER_LENGTH
+            + ProtocolConstant.IPV4_HEADER_LENGTH + TCP_HEADER_LENGTH;
+    private static final int MIN_IPV6_FRAME_LENGTH = ProtocolConstant.ETHERNET_HEADER_LENGTH
+            + ProtocolConstant.IPV6_HEADER_LENGTH + TCP_HEADER_LENGTH;
+
+    private final long serverAddressHigh;
+    private final long serverAddressLow;
+    private final int serverPort;
+    private final PacketFilter packetFilter;
+    private boolean isIpv4;
+    private long clientHigh;
+    private long clientLow;
+    private int clientPort;
+
+    /**
+     * Constructor
+     *
+     * @param serverAddressHigh long the high long of the database server address
+     * @param serverAddressLow long the low long of the database server address, IPv4 in its IPv4-mapped form
+     * @param serverPort int the database server port
+     * @param packetFilter PacketFilter the filter of the clients
+     */
+    public PacketDecoder(long serverAddressHigh, long serverAddressLow, int serverPort, PacketFilter packetFilter) {
+        this.serverAddressHigh = serverAddressHigh;
+        this.serverAddressLow = serverAddressLow;
+        this.serverPort = serverPort;
+        this.packetFilter = packetFilter;
+    }
+
+    /**
+     * Decode a frame, the packet id and the origin information are left to the caller
+     *
+     * @param packet ByteBuffer the buffer which holds the frame, read in big endian
+     * @param base int the frame offset in the buffer
+     * @param frameLength int the frame length
+     * @return PacketData the packet with its payload and sequence number, null if the frame is filtered
+     */
+    public PacketData decode(ByteBuffer packet, int base, int frameLength) {
+        int skipLength;
+        int payloadEnd;
+        int portStart;
+        long sourceHigh;
+        long sourceLow;
+        long destinationHigh;
+        long destinationLow;
+        isIpv4 = (packet.get(base + IP_VERSION_INDEX) & 0xFF) != IPV6_VERSION_FLAG;
+        // a frame without a whole tcp header carries no payload, and its headers may end with the mapping
+        if (frameLength <= (isIpv4 ? MIN_IPV4_FRAME_LENGTH : MIN_IPV6_FRAME_LENGTH)) {
+            return null;
+        }
+        if (isIpv4) {
+            int headerLength = (packet.get(base + 46) & 0xFF) / 4;
+            skipLength = base + ProtocolConstant.ETHERNET_HEADER_LENGTH + ProtocolConstant.IPV4_HEADER_LENGTH
+                    + headerLength;
+            payloadEnd = getPayloadEnd(base, frameLength, ProtocolConstant.ETHERNET_HEADER_LENGTH,
+                    packet.getShort(base + 16) & 0xFFFF);
+            if (payloadEnd <= skipLength) {
+                return null;
+            }
+            sourceHigh = 0L;
+            sourceLow = SessionTable.mapIpv4Address(packet.getInt(base + 26));
+            destinationHigh = 0L;
+            destinationLow = SessionTable.mapIpv4Address(packet.getInt(base + 30));
+            portStart = base + 34;
+        } else {
+            int headerLength = (packet.get(base + 66) & 0xFF) / 4;
+            skipLength = base + ProtocolConstant.ETHERNET_HEADER_LENGTH + ProtocolConstant.IPV6_HEADER_LENGTH
+                    + headerLength;
+            payloadEnd = getPayloadEnd(base, frameLength, ProtocolConstant.ETHERNET_HEADER_LENGTH
+                    + ProtocolConstant.IPV6_HEADER_LENGTH, packet.getShort(base + 18) & 0xFFFF);
+            if (payloadEnd <= skipLength) {
+                return null;
+            }
+            sourceHigh = packet.getLong(base + 22);
+            sourceLow = packet.getLong(base + 30);
+            destinationHigh = packet.getLong(base + 38);
+            destinationLow = packet.getLong(base + 46);
+            portStart = base + 54;
+        }
+        int sourcePort = packet.getShort(portStart) & 0xFFFF;
+        int destinationPort = packet.getShort(portStart + 2) & 0xFFFF;
+        boolean isResponse;
+        if (isDatabaseServer(sourceHigh, sourceLow, sourcePort)) {
+            isResponse = true;
+            clientHigh = destinationHigh;
+            clientLow = destinationLow;
+            clientPort = destinationPort;
+        } else if (isDatabaseServer(destinationHigh, destinationLow, destinationPort)) {
+            isResponse = false;
+            clientHigh = sourceHigh;
+            clientLow = sourceLow;
+            clientPort = sourcePort;
+        } else {
+            return null;
+        }
+        if (!packetFilter.accept(clientHigh, clientLow, clientPort)) {
+            return null;
+        }
+        PacketData packetData = new PacketData(0L, isResponse ? ProtocolConstant.RESPONSE : ProtocolConstant.REQUEST);
+        packetData.clonePacketData(packet, skipLength, payloadEnd);
+        // sequence number
+        packetData.setSeqNum(packet.getInt(portStart + 4) & 0xFFFFFFFFL);
+        return packetData;
+    }
+
+    /**
+     * Whether the last decoded frame is an IPv4 frame
+     *
+     * @return boolean true if it is an IPv4 frame
+     */
+    public boolean isIpv4() {
+        return isIpv4;
+    }
+
+    /**
+     * Get the high long of the client address of the last decoded packet
+     *
+     * @return long the high long of the address
+     */
+    public long getClientHigh() {
+        return clientHigh;
+    }
+
+    /**
+     * Get the low long of the client address of the last decoded packet
+     *
+     * @return long the low long of the address, IPv4 in its IPv4-mapped form
+     */
+    public long getClientLow() {
+        return clientLow;
+    }
+
+    /**
+     * Get the client port of the last decoded packet
+     *
+     * @return int the port
+     */
+    public int getClientPort() {
+        return clientPort;
+    }
+
+    /**
+     * Format the client id of a session, ip:port
+     *
+     * @param isIpv4 boolean whether the client address is an IPv4 address
+     * @param addressHigh long the high long of the client address
+     * @param addressLow long the low long of the client address, IPv4 in its IPv4-mapped form
+     * @param port int the client port
+     * @return String the client id
+     */
+    public static String formatClientId(boolean isIpv4, long addressHigh, long addressLow, int port) {
+        StringBuilder sb = new StringBuilder();
+        if (isIpv4) {
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                sb.append((addressLow >>> shift) & 0xFF).append(".");
+            }
+        } else {
+            appendIpv6Groups(sb, addressHigh);
+            appendIpv6Groups(sb, addressLow);
+        }
+        sb.setLength(sb.length() - 1);
+        return sb.append(":").append(port).toString();
+    }
+
+    private static void appendIpv6Groups(StringBuilder sb, long address) {
+        for (int shift = 56; shift >= 0; shift -= 16) {
+            ByteCodec.appendHex(sb, (byte) (address >>> shift));
+            ByteCodec.appendHex(sb, (byte) (address >>> (shift - 8)));
+            sb.append(":");
+        }
+    }
+
+    private boolean isDatabaseServer(long addressHigh, long addressLow, int port) {
+        return port == serverPort && addressLow == serverAddressLow && addressHigh == serverAddressHigh;
+    }
+
+    private static int getPayloadEnd(int base, int frameLength, int lengthBase, int length) {
+        // the ethernet padding of short frames is not part of the tcp payload, the length is 0 under tso
+        if (length == 0 || lengthBase + length > frameLength) {
+            return base + frameLength;
+        }
+        return base + lengthBase + length;
+    }
+}
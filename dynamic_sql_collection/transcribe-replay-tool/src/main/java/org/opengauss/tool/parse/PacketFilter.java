@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+
+/**
+ * Description: Prefilter of the distributor thread, applied on the client address and port of a packet
+ * before any per packet object is created. A packet passes when its client is in one of the client
+ * subnets, and its session falls into the sampled fraction of the flow key hash space. The hash depends
+ * on the client address and port only, so both directions of a session, and every run on the same
+ * capture, make the same choice and whole sessions are kept or dropped.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/27
+ */
+public class PacketFilter {
+    private static final int IPV6_PREFIX_BITS = 128;
+    private static final int IPV4_MAPPED_PREFIX_BITS = 96;
+    private static final int LONG_BITS = 64;
+    private static final double SAMPLE_SCALE = 4294967296.0;
+
+    private final long[] networkHighs;
+    private final long[] networkLows;
+    private final long[] maskHighs;
+    private final long[] maskLows;
+    private final long sampleThreshold;
+
+    /**
+     * Constructor
+     *
+     * @param clientSubnets String the comma separated client subnets, such as 10.0.0.0/8,fd00::/8, empty
+     *                      means every client
+     * @param sampleRate double the fraction of sessions kept, in (0, 1]
+     */
+    public PacketFilter(String clientSubnets, double sampleRate) {
+        String[] subnets = splitSubnets(clientSubnets);
+        this.networkHighs = new long[subnets.length];
+        this.networkLows = new long[subnets.length];
+        this.maskHighs = new long[subnets.length];
+        this.maskLows = new long[subnets.length];
+        for (int i = 0; i < subnets.length; i++) {
+            parseSubnet(subnets[i], i);
+        }
+        this.sampleThreshold = (long) (sampleRate * SAMPLE_SCALE);
+    }
+
+    /**
+     * Check the format of the client subnets
+     *
+     * @param clientSubnets String the comma separated client subnets
+     * @return boolean true if every subnet is an ip address with an optional prefix length
+     */
+    public static boolean isValidSubnets(String clientSubnets) {
+        try {
+            new PacketFilter(clientSubnets, 1.0d);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Whether the packets of the client are parsed
+     *
+     * @param addressHigh long the high long of the client address
+     * @param addressLow long the low long of the client address, IPv4 in its IPv4-mapped form
+     * @param port int the client port
+     * @return boolean true if the packet passes
+     */
+    public boolean accept(long addressHigh, long addressLow, int port) {
+        return isClientSubnet(addressHigh, addressLow) && isSampled(addressHigh, addressLow, port);
+    }
+
+    private boolean isClientSubnet(long addressHigh, long addressLow) {
+        if (networkLows.length == 0) {
+            return true;
+        }
+        for (int i = 0; i < networkLows.length; i++) {
+            if ((addressLow & maskLows[i]) == networkLows[i] && (addressHigh & maskHighs[i]) == networkHighs[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSampled(long addressHigh, long addressLow, int port) {
+        if (sampleThreshold >= (long) SAMPLE_SCALE) {
+            return true;
+        }
+        long hash = addressHigh * 31L + addressLow;
+        hash = hash * 31L + port;
+        // splitmix64 finalizer, the upper 32 bits are uniform enough to compare against the threshold
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        hash = hash ^ (hash >>> 31);
+        return (hash >>> 32) < sampleThreshold;
+    }
+
+    private static String[] splitSubnets(String clientSubnets) {
+        if (clientSubnets == null || clientSubnets.trim().isEmpty()) {
+            return new String[0];
+        }
+        return clientSubnets.trim().split("\\s*,\\s*");
+    }
+
+    private void parseSubnet(String subnet, int index) {
+        int slashIndex = subnet.indexOf('/');
+        String ip = slashIndex < 0 ? subnet : subnet.substring(0, slashIndex);
+        // only literal addresses, a host name would be resolved by getByName
+        if (ip.isEmpty() || !ip.matches("^[0-9a-fA-F:.]+$")) {
+            throw new IllegalArgumentException("Invalid client subnet: " + subnet);
+        }
+        byte[] address;
+        try {
+            address = InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid client subnet: " + subnet, e);
+        }
+        int maxPrefix = address.length == 4 ? IPV6_PREFIX_BITS - IPV4_MAPPED_PREFIX_BITS : IPV6_PREFIX_BITS;
+        int prefix = maxPrefix;
+        if (slashIndex >= 0) {
+            String prefixText = subnet.substring(slashIndex + 1);
+            if (!prefixText.matches("^[0-9]{1,3}$") || Integer.parseInt(prefixText) > maxPrefix) {
+                throw new IllegalArgumentException("Invalid client subnet: " + subnet);
+            }
+            prefix = Integer.parseInt(prefixText);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(address);
+        long high;
+        long low;
+        if (address.length == 4) {
+            high = 0L;
+            low = SessionTable.mapIpv4Address(buffer.getInt());
+            prefix += IPV4_MAPPED_PREFIX_BITS;
+        } else {
+            high = buffer.getLong();
+            low = buffer.getLong();
+        }
+        maskHighs[index] = prefixMask(Math.min(prefix, LONG_BITS));
+        maskLows[index] = prefixMask(Math.max(prefix - LONG_BITS, 0));
+        networkHighs[index] = high & maskHighs[index];
+        networkLows[index] = low & maskLows[index];
+    }
+
+    private static long prefixMask(int bits) {
+        return bits == 0 ? 0L : -1L << (LONG_BITS - bits);
+    }
+}
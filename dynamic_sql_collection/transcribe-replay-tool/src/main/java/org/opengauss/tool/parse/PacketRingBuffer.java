@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.OriginPacket;
+import org.opengauss.tool.parse.object.PacketBatch;
+import org.opengauss.tool.utils.Backoff;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Description: Single producer single consumer ring buffer between the pcap reader and the distributor.
+ * Frames are written into a pre-allocated byte arena and described by pre-allocated slots, so that the
+ * steady state ingest allocates nothing, and the capacity is bounded by the arena bytes.
+ * The producer claims arena space, fills it and publishes the slot, the consumer polls a reusable view
+ * of the slot, which is valid until the next poll. A producer which already holds the frames in memory,
+ * such as a mapped file, publishes views of its buffer instead, the slot then references the buffer
+ * and the frame is not copied. A producer which decodes the frames ahead publishes a whole batch of
+ * packets in one slot.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/18
+ */
+public class PacketRingBuffer {
+    private static final int MIN_SLOT_COUNT = 1024;
+    private static final int BYTES_PER_SLOT = 256;
+
+    private final byte[] arena;
+    private final ByteBuffer arenaBuffer;
+    private final int slotMask;
+    private final int[] frameOffsets;
+    private final int[] frameLengths;
+    private final int[] releaseBytes;
+    private final int[] packetIdsInFile;
+    private final long[] timestamps;
+    private final String[] fileNames;
+    private final ByteBuffer[] frameBuffers;
+    private final PacketBatch[] batches;
+    private final AtomicLong publishedSequence;
+    private final AtomicLong consumedSequence;
+    private final AtomicLong releasedBytes;
+    private final AtomicLong publishedBytes;
+    private final AtomicLong publishedFrames;
+
+    private long producerSequence;
+    private long writtenBytes;
+    private int writeOffset;
+    private int claimedOffset;
+    private int claimedLength;
+    private int claimedBytes;
+
+    private final OriginPacket view;
+    private long consumerSequence;
+    private boolean isViewHeld;
+
+    /**
+     * Constructor
+     *
+     * @param byteCapacity int the arena bytes
+     * @param slotLimit int the max count of frames held, 0 to derive it from the arena bytes
+     */
+    public PacketRingBuffer(int byteCapacity, int slotLimit) {
+        this.arena = new byte[byteCapacity];
+        this.arenaBuffer = ByteBuffer.wrap(arena);
+        int slotCount = slotLimit > 0 ? 1 : MIN_SLOT_COUNT;
+        int minSlotCount = slotLimit > 0 ? slotLimit : byteCapacity / BYTES_PER_SLOT;
+        while (slotCount < minSlotCount) {
+            slotCount <<= 1;
+        }
+        this.slotMask = slotCount - 1;
+        this.frameOffsets = new int[slotCount];
+        this.frameLengths = new int[slotCount];
+        this.releaseBytes = new int[slotCount];
+        this.packetIdsInFile = new int[slotCount];
+        this.timestamps = new long[slotCount];
+        this.fileNames = new String[slotCount];
+        this.frameBuffers = new ByteBuffer[slotCount];
+        this.batches = new PacketBatch[slotCount];
+        this.publishedSequence = new AtomicLong();
+        this.consumedSequence = new AtomicLong();
+        this.releasedBytes = new AtomicLong();
+        this.publishedBytes = new AtomicLong();
+        this.publishedFrames = new AtomicLong();
+        this.view = new OriginPacket(arenaBuffer);
+    }
+
+    /**
+     * Get the arena, the producer writes the claimed frame into it
+     *
+     * @return byte[] the arena
+     */
+    public byte[] array() {
+        return arena;
+    }
+
+    /**
+     * Claim arena space for a frame, waits until the consumer releases enough space
+     *
+     * @param length int the frame length
+     * @return int the offset of the claimed space in the arena, -1 if the frame is larger than the arena
+     */
+    public int claim(int length) {
+        if (length > arena.length) {
+            return -1;
+        }
+        boolean isWrapped = writeOffset + length > arena.length;
+        int padding = isWrapped ? arena.length - writeOffset : 0;
+        int round = 0;
+        while (producerSequence - consumedSequence.get() > slotMask
+                || writtenBytes + padding + length - releasedBytes.get() > arena.length) {
+            if (isWrapped && consumedSequence.get() == producerSequence) {
+                // the arena is empty, a frame longer than the space before the write offset would never
+                // fit behind the padding, so the arena starts over without it
+                isWrapped = false;
+                padding = 0;
+                writeOffset = 0;
+                continue;
+            }
+            Backoff.idle(round++);
+        }
+        claimedOffset = isWrapped ? 0 : writeOffset;
+        claimedLength = length;
+        claimedBytes = padding + length;
+        return claimedOffset;
+    }
+
+    /**
+     * Publish the claimed frame to the consumer
+     *
+     * @param fileName String the packet file name
+     * @param packetIdInFile int the packet id in it's file
+     * @param microsecondTimestamp long the microsecond timestamp
+     */
+    public void publish(String fileName, int packetIdInFile, long microsecondTimestamp) {
+        int slot = (int) (producerSequence & slotMask);
+        frameOffsets[slot] = claimedOffset;
+        frameLengths[slot] = claimedLength;
+        releaseBytes[slot] = claimedBytes;
+        packetIdsInFile[slot] = packetIdInFile;
+        timestamps[slot] = microsecondTimestamp;
+        fileNames[slot] = fileName;
+        writeOffset = claimedOffset + claimedLength;
+        writtenBytes += claimedBytes;
+        producerSequence++;
+        publishedBytes.lazySet(publishedBytes.get() + claimedLength);
+        publishedFrames.lazySet(publishedFrames.get() + 1);
+        publishedSequence.lazySet(producerSequence);
+    }
+
+    /**
+     * Publish a frame held by the producer, the slot references the buffer and the frame is not copied.
+     * The buffer must stay readable until the frame is consumed, see awaitConsumed.
+     *
+     * @param buffer ByteBuffer the buffer which holds the frame, read in big endian
+     * @param frameOffset int the frame offset in the buffer
+     * @param length int the frame length
+     * @param fileName String the packet file name
+     * @param packetIdInFile int the packet id in it's file
+     * @param microsecondTimestamp long the microsecond timestamp
+     */
+    public void publishView(ByteBuffer buffer, int frameOffset, int length, String fileName, int packetIdInFile,
+            long microsecondTimestamp) {
+        int round = 0;
+        while (producerSequence - consumedSequence.get() > slotMask) {
+            Backoff.idle(round++);
+        }
+        int slot = (int) (producerSequence & slotMask);
+        frameBuffers[slot] = buffer;
+        frameOffsets[slot] = frameOffset;
+        frameLengths[slot] = length;
+        releaseBytes[slot] = 0;
+        packetIdsInFile[slot] = packetIdInFile;
+        timestamps[slot] = microsecondTimestamp;
+        fileNames[slot] = fileName;
+        producerSequence++;
+        publishedBytes.lazySet(publishedBytes.get() + length);
+        publishedFrames.lazySet(publishedFrames.get() + 1);
+        publishedSequence.lazySet(producerSequence);
+    }
+
+    /**
+     * Publish a batch of decoded packets in one slot, the batch belongs to the consumer afterwards
+     *
+     * @param batch PacketBatch the batch
+     */
+    public void publishBatch(PacketBatch batch) {
+        int round = 0;
+        while (producerSequence - consumedSequence.get() > slotMask) {
+            Backoff.idle(round++);
+        }
+        int slot = (int) (producerSequence & slotMask);
+        batches[slot] = batch;
+        releaseBytes[slot] = 0;
+        producerSequence++;
+        publishedBytes.lazySet(publishedBytes.get() + batch.getFrameBytes());
+        publishedFrames.lazySet(publishedFrames.get() + batch.getFrameCount());
+        publishedSequence.lazySet(producerSequence);
+    }
+
+    /**
+     * Wait until the consumer has released every published frame, called by the producer before the
+     * buffer of the published views is released
+     */
+    public void awaitConsumed() {
+        int round = 0;
+        while (consumedSequence.get() != producerSequence) {
+            Backoff.idle(round++);
+        }
+    }
+
+    /**
+     * Get the count of frames published
+     *
+     * @return long the count
+     */
+    public long getPublishedCount() {
+        return publishedFrames.get();
+    }
+
+    /**
+     * Get the bytes of the frames published
+     *
+     * @return long the bytes
+     */
+    public long getPublishedBytes() {
+        return publishedBytes.get();
+    }
+
+    /**
+     * Get the count of slots published but not polled yet, a batch takes one slot
+     *
+     * @return long the count
+     */
+    public long getBacklog() {
+        return publishedSequence.get() - consumedSequence.get();
+    }
+
+    /**
+     * Poll next frame, the previous polled frame is released
+     *
+     * @return OriginPacket the reusable view of the frame, or of the batch if it is set, null if there is
+     * no published frame
+     */
+    public OriginPacket poll() {
+        releaseView();
+        if (consumerSequence == publishedSequence.get()) {
+            return null;
+        }
+        int slot = (int) (consumerSequence & slotMask);
+        view.setBatch(batches[slot]);
+        if (batches[slot] == null) {
+            view.setFrame(frameBuffers[slot] == null ? arenaBuffer : frameBuffers[slot]);
+            view.reset(fileNames[slot], packetIdsInFile[slot], frameOffsets[slot], frameLengths[slot],
+                    timestamps[slot]);
+        }
+        isViewHeld = true;
+        return view;
+    }
+
+    private void releaseView() {
+        if (!isViewHeld) {
+            return;
+        }
+        int slot = (int) (consumerSequence & slotMask);
+        frameBuffers[slot] = null;
+        batches[slot] = null;
+        releasedBytes.lazySet(releasedBytes.get() + releaseBytes[slot]);
+        consumerSequence++;
+        consumedSequence.lazySet(consumerSequence);
+        isViewHeld = false;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import com.alibaba.fastjson2.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Description: Metrics of the parse pipeline. The stages count into LongAdder counters and timers, the
+ * queue depths are read as gauges or distributions only when a snapshot is taken, so that the hot paths
+ * pay for nothing but an add. A snapshot with the totals, the per second rates since the previous
+ * snapshot, the latencies and the percentiles of the distributions is written to a json file
+ * periodically.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/25
+ */
+public class ParseMetrics {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParseMetrics.class);
+    private static final DateTimeFormatter TIME_PATTERN = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private final String filePath;
+    private final Map<String, LongSupplier> counters;
+    private final Map<String, LongSupplier> gauges;
+    private final Map<String, Timer> timers;
+    private final Map<String, Supplier<LongStream>> distributions;
+    private final Map<String, Long> previousValues;
+    private final long startTimeMillis;
+    private long previousTimeMillis;
+    private ScheduledExecutorService executorService;
+
+    /**
+     * Constructor
+     *
+     * @param filePath String the path of the metrics file
+     */
+    public ParseMetrics(String filePath) {
+        this.filePath = filePath;
+        this.counters = new LinkedHashMap<>();
+        this.gauges = new LinkedHashMap<>();
+        this.timers = new LinkedHashMap<>();
+        this.distributions = new LinkedHashMap<>();
+        this.previousValues = new HashMap<>();
+        this.startTimeMillis = System.currentTimeMillis();
+        this.previousTimeMillis = startTimeMillis;
+    }
+
+    /**
+     * Register a counter, its total and rate are reported
+     *
+     * @param name String the metric name
+     * @return LongAdder the counter
+     */
+    public LongAdder counter(String name) {
+        LongAdder adder = new LongAdder();
+        counters.put(name, adder::sum);
+        return adder;
+    }
+
+    /**
+     * Register a counter kept by a stage itself, its total and rate are reported
+     *
+     * @param name String the metric name
+     * @param value LongSupplier the increasing value
+     */
+    public void counter(String name, LongSupplier value) {
+        counters.put(name, value);
+    }
+
+    /**
+     * Register a gauge, its current value is reported
+     *
+     * @param name String the metric name
+     * @param value LongSupplier the value
+     */
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * Register a timer, its count, and the average and max latency since the previous snapshot are reported
+     *
+     * @param name String the metric name
+     * @return Timer the timer
+     */
+    public Timer timer(String name) {
+        Timer timer = new Timer();
+        timers.put(name, timer);
+        return timer;
+    }
+
+    /**
+     * Register a distribution, the count, percentiles and max of its current values are reported
+     *
+     * @param name String the metric name
+     * @param values Supplier<LongStream> the values, such as the queue depth of every session
+     */
+    public void distribution(String name, Supplier<LongStream> values) {
+        distributions.put(name, values);
+    }
+
+    /**
+     * Write a snapshot periodically, the metrics must be registered before
+     *
+     * @param periodSeconds long the seconds between two snapshots
+     */
+    public void start(long periodSeconds) {
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable
+                -> new Thread(runnable, "Parse Metrics Thread"));
+        executorService.scheduleAtFixedRate(this::write, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop the periodical snapshots and write the last one
+     */
+    public void stop() {
+        if (executorService == null) {
+            return;
+        }
+        executorService.shutdown();
+        try {
+            executorService.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        write();
+    }
+
+    private JSONObject snapshot() {
+        long currentTimeMillis = System.currentTimeMillis();
+        double intervalSeconds = Math.max(1L, currentTimeMillis - previousTimeMillis) / 1000.0;
+        JSONObject json = new JSONObject();
+        json.put("time", TIME_PATTERN.format(LocalDateTime.now()));
+        json.put("uptimeSeconds", (currentTimeMillis - startTimeMillis) / 1000);
+        counters.forEach((name, value) -> {
+            long total = value.getAsLong();
+            long previous = previousValues.getOrDefault(name, 0L);
+            previousValues.put(name, total);
+            json.put(name, new JSONObject().fluentPut("total", total)
+                    .fluentPut("perSecond", Math.round((total - previous) / intervalSeconds)));
+        });
+        gauges.forEach((name, value) -> json.put(name, value.getAsLong()));
+        timers.forEach((name, timer) -> json.put(name, timer.snapshot()));
+        distributions.forEach((name, values) -> json.put(name, percentiles(values.get())));
+        previousTimeMillis = currentTimeMillis;
+        return json;
+    }
+
+    private synchronized void write() {
+        try {
+            // readers never see a half written file
+            Path target = Paths.get(filePath);
+            Path temp = Paths.get(filePath + ".tmp");
+            Files.write(temp, snapshot().toString().getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to write parse metrics to {}, error message is: {}.", filePath, e.getMessage());
+        }
+    }
+
+    private static JSONObject percentiles(LongStream values) {
+        long[] sorted = values.toArray();
+        Arrays.sort(sorted);
+        return new JSONObject().fluentPut("count", sorted.length)
+                .fluentPut("p50", percentile(sorted, 0.5))
+                .fluentPut("p90", percentile(sorted, 0.9))
+                .fluentPut("p99", percentile(sorted, 0.99))
+                .fluentPut("max", sorted.length == 0 ? 0L : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    /**
+     * Description: Latency of a stage, recorded from many threads without locking
+     *
+     * @author : wang_zhengyuan
+     * @since : 2025/03/25
+     */
+    public static final class Timer {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+        private long previousCount;
+        private long previousTotalNanos;
+
+        /**
+         * Record the time elapsed since the start
+         *
+         * @param startNanos long the System.nanoTime() when the work started
+         */
+        public void record(long startNanos) {
+            long nanos = System.nanoTime() - startNanos;
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        private JSONObject snapshot() {
+            long currentCount = count.sum();
+            long currentTotalNanos = totalNanos.sum();
+            long intervalCount = currentCount - previousCount;
+            double averageMillis = intervalCount == 0 ? 0.0
+                    : (currentTotalNanos - previousTotalNanos) / NANOS_PER_MILLI / intervalCount;
+            previousCount = currentCount;
+            previousTotalNanos = currentTotalNanos;
+            return new JSONObject().fluentPut("count", currentCount)
+                    .fluentPut("avgMillis", Math.round(averageMillis * 1000) / 1000.0)
+                    .fluentPut("maxMillis", Math.round(maxNanos.getThenReset() / NANOS_PER_MILLI * 1000) / 1000.0);
+        }
+    }
+}
@@ -15,16 +15,18 @@
 
 package org.opengauss.tool.parse;
 
-import com.alibaba.fastjson2.JSONObject;
 import org.opengauss.tool.config.parse.ParseConfig;
 import org.opengauss.tool.dispatcher.WorkTask;
 import org.opengauss.tool.parse.object.DatabaseTypeEnum;
 import org.opengauss.tool.parse.object.OriginPacket;
+import org.opengauss.tool.parse.object.PacketBatch;
 import org.opengauss.tool.parse.object.PacketData;
 import org.opengauss.tool.parse.object.ProtocolConstant;
 import org.opengauss.tool.parse.object.SessionInfo;
 import org.opengauss.tool.parse.object.SqlInfo;
 import org.opengauss.tool.parse.object.SelectResult;
+import org.opengauss.tool.utils.Backoff;
+import org.opengauss.tool.utils.ByteCodec;
 import org.opengauss.tool.utils.CommonParser;
 import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.DatabaseOperator;
@@ -37,27 +39,37 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.BufferedWriter;
-import java.io.OutputStreamWriter;
-import java.io.FileOutputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Description: Parse packet file
@@ -70,24 +82,42 @@ public class ParseTask extends WorkTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParseTask.class);
     private static final String PCAP_SUFFIX = ".pcap";
     private static final DateTimeFormatter TIME_PATTERN = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH:mm:ss.SSS");
-    private static final BlockingQueue<SelectResult> RESULT_QUEUE = new LinkedBlockingQueue<>();
+    private static final int RESULT_QUEUE_CAPACITY = 1024;
+    private static final BlockingQueue<SelectResult> RESULT_QUEUE = new LinkedBlockingQueue<>(RESULT_QUEUE_CAPACITY);
     private static final int BYTE_CONVERSION_RATIO = 1024 * 1024;
     private static final String PROCESS_FILE_NAME = "parse-process.txt";
+    private static final String METRICS_FILE_NAME = "parse-metrics.json";
+    private static final long COMMIT_INTERVAL_MILLIS = 1000L;
 
     private final ParseConfig config;
     private final ThreadPoolExecutor threadPool;
-    private final BlockingQueue<OriginPacket> packetQueue;
+    private final PacketRingBuffer packetRingBuffer;
     private final AtomicLong packetId;
-    private final AtomicBoolean isBlock;
     private final AtomicBoolean isReadFilesFinished;
     private final AtomicBoolean isParseFinished;
     private final AtomicBoolean isCommitSqlFinished;
     private final Set<SessionInfo> sessionInfoSet;
     private final DatabaseTypeEnum databaseTypeEnum;
+    private final SessionTable sessionTable;
+    private final SqlStorageStage storageStage;
+    private final ParseMetrics metrics;
+    private final LongAdder mergedSqlCount;
+    private final ParseMetrics.Timer mergeTimer;
+    private final LongAdder storedSqlCount;
+    private final ParseMetrics.Timer storageTimer;
+    private final LongAdder filteredPacketCount;
+    private final PacketFilter packetFilter;
+    private final Set<ParseThread> heldSessions;
+    private long heldExpireTime = Long.MAX_VALUE;
+    private SessionWorkerPool sessionWorkerPool;
+    private SessionThreadFactory sessionThreadFactory;
+    private ExecutorService pcapReadPool;
+    private long serverAddressHigh;
+    private long serverAddressLow;
     private DatabaseOperator opengaussOperator;
     private FileOperator fileOperator;
+    private SelectResultSink resultSink;
     private LocalDateTime startTime;
-    private int fileId = 1;
     private String processPath;
 
     /**
@@ -99,15 +129,35 @@ public class ParseTask extends WorkTask {
         this.config = config;
         this.threadPool = new ThreadPoolExecutor(5, 5, 100, TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(5));
-        this.packetQueue = new LinkedBlockingQueue<>();
+        this.packetRingBuffer = new PacketRingBuffer(getQueueBytes(config.getQueueMemoryLimit()),
+                config.getQueueSizeLimit());
         this.packetId = new AtomicLong();
-        this.isBlock = new AtomicBoolean(false);
         this.isReadFilesFinished = new AtomicBoolean(false);
         this.isParseFinished = new AtomicBoolean(false);
         this.isCommitSqlFinished = new AtomicBoolean(false);
         this.sessionInfoSet = new HashSet<>();
         this.databaseTypeEnum = DatabaseTypeEnum.fromTypeName(config.getDatabaseServerType());
+        this.sessionTable = new SessionTable(ParseTask::isStaleSession);
+        this.heldSessions = Collections.newSetFromMap(new IdentityHashMap<>());
+        initServerAddress();
         initStorage();
+        this.storageStage = new SqlStorageStage(this::storageSqlBatch, this::storageSession);
+        this.metrics = new ParseMetrics(FileUtils.getJarPath() + File.separator + METRICS_FILE_NAME);
+        this.mergedSqlCount = metrics.counter("sqlMerged");
+        this.mergeTimer = metrics.timer("mergeBatchLatency");
+        this.storedSqlCount = metrics.counter("sqlStored");
+        this.storageTimer = metrics.timer("storageBatchLatency");
+        this.filteredPacketCount = metrics.counter("packetsFiltered");
+        this.packetFilter = new PacketFilter(config.getClientSubnets(), config.getSessionSampleRate());
+        registerMetrics();
+    }
+
+    private static int getQueueBytes(int queueMemoryLimit) {
+        if (queueMemoryLimit <= 0 || queueMemoryLimit > ConfigReader.MAX_QUEUE_MEMORY_LIMIT) {
+            throw new IllegalArgumentException(ConfigReader.QUEUE_MEMORY_LIMIT + " must be between 1 and "
+                    + ConfigReader.MAX_QUEUE_MEMORY_LIMIT + " MB, but it is " + queueMemoryLimit);
+        }
+        return (int) ((long) queueMemoryLimit * BYTE_CONVERSION_RATIO);
     }
 
     /**
@@ -116,7 +166,42 @@ public class ParseTask extends WorkTask {
      * @param result select result
      */
     public static void addResultToQueue(SelectResult result) {
-        RESULT_QUEUE.add(result);
+        // the queue is bounded, a parser waits for the result writer instead of piling results up
+        try {
+            RESULT_QUEUE.put(result);
+        } catch (InterruptedException e) {
+            LOGGER.error("Adding select result of packet {} is interrupted.", result.getPacketId(), e);
+        }
+    }
+
+    private void registerMetrics() {
+        metrics.counter("packetsRead", packetRingBuffer::getPublishedCount);
+        metrics.counter("bytesRead", packetRingBuffer::getPublishedBytes);
+        metrics.gauge("readBacklog", packetRingBuffer::getBacklog);
+        metrics.counter("packetsDistributed", packetId::get);
+        metrics.gauge("activeSessions", THREAD_MAP::size);
+        metrics.distribution("sessionPacketQueueDepth",
+                () -> THREAD_MAP.values().stream().mapToLong(session -> session.getPacketQueue().size()));
+        metrics.distribution("sessionSqlQueueDepth",
+                () -> THREAD_MAP.values().stream().mapToLong(session -> session.getSqlQueue().size()));
+        metrics.gauge("storagePendingBatches", storageStage::getPendingCount);
+    }
+
+    private void initServerAddress() {
+        byte[] address;
+        try {
+            address = InetAddress.getByName(config.getDatabaseServerIp()).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Unknown database server ip: " + config.getDatabaseServerIp(), e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(address);
+        if (address.length == 4) {
+            serverAddressHigh = 0L;
+            serverAddressLow = SessionTable.mapIpv4Address(buffer.getInt());
+        } else {
+            serverAddressHigh = buffer.getLong();
+            serverAddressLow = buffer.getLong();
+        }
     }
 
     private void initStorage() {
@@ -133,11 +218,24 @@ public class ParseTask extends WorkTask {
 
     @Override
     public void start() {
+        if (ConfigReader.PARSE_SESSION_MODE_WORKER.equals(config.getSessionMode())) {
+            sessionWorkerPool = new SessionWorkerPool(config.getSessionWorkerCount());
+        } else {
+            sessionThreadFactory = new SessionThreadFactory(
+                ConfigReader.PARSE_SESSION_MODE_VIRTUAL.equals(config.getSessionMode()));
+        }
         threadPool.execute(this::readPcapFile);
         threadPool.execute(this::distributeData);
         threadPool.execute(this::mergeSql);
+        threadPool.execute(storageStage);
         if (config.getResultFileConfig().isParseResult()) {
-            threadPool.execute(this::saveSelectResult);
+            resultSink = new SelectResultSink(config.getResultFileConfig(), RESULT_QUEUE);
+            metrics.gauge("resultQueueDepth", resultSink::getQueueDepth);
+            metrics.counter("resultBytesWritten", resultSink::getWrittenBytes);
+            threadPool.execute(resultSink);
+        }
+        if (config.getMetricsInterval() > 0) {
+            metrics.start(config.getMetricsInterval());
         }
     }
 
@@ -146,6 +244,17 @@ public class ParseTask extends WorkTask {
         long startTimeMillis = System.currentTimeMillis();
         File dir = new File(config.getPacketFilePath());
         startTime = LocalDateTime.now();
+        if (ConfigReader.PCAP_READ_MODE_TCPDUMP.equals(config.getPcapReadMode())) {
+            readTcpdumpStream();
+            isReadFilesFinished.set(true);
+            LOGGER.info("All packets of the tcpdump stream have been loaded.");
+            return;
+        }
+        if (config.getPcapReadWorkerCount() > 1) {
+            AtomicInteger workerId = new AtomicInteger();
+            pcapReadPool = Executors.newFixedThreadPool(config.getPcapReadWorkerCount(), runnable
+                    -> new Thread(runnable, "Pcap Read Thread-" + workerId.incrementAndGet()));
+        }
         int point = 0;
         while (true) {
             List<File> files = getValidPacketFiles(dir);
@@ -182,56 +291,155 @@ public class ParseTask extends WorkTask {
                 }
             }
         }
+        if (pcapReadPool != null) {
+            pcapReadPool.shutdown();
+        }
         isReadFilesFinished.set(true);
         LOGGER.info("All packet files have been loaded.");
     }
 
     private void parseAndDeleteFile(List<File> files, int size) {
-        for (int order = 0; order < size; order++) {
-            splitPacket(files.get(order));
-            files.get(order).delete();
-        }
+        splitPackets(files.subList(0, size), true);
     }
 
     private void parseFile(List<File> files, int size, int point) {
-        for (int order = point; order < size; order++) {
-            splitPacket(files.get(order));
+        if (point < size) {
+            splitPackets(files.subList(point, size), false);
+        }
+    }
+
+    private void splitPackets(List<File> files, boolean isDelete) {
+        if (pcapReadPool == null || files.size() < 2) {
+            for (File file : files) {
+                splitPacket(file);
+                if (isDelete) {
+                    file.delete();
+                }
+            }
+            return;
+        }
+        // the files are decoded ahead by the workers, and their batches are handed off to the ring buffer
+        // in file order
+        Deque<PcapFileDecoder> pendingFiles = new ArrayDeque<>();
+        int submitted = 0;
+        for (File file : files) {
+            while (submitted < files.size() && pendingFiles.size() < config.getPcapReadWorkerCount() * 2) {
+                PcapFileDecoder fileDecoder = new PcapFileDecoder(files.get(submitted++), newPacketDecoder());
+                pcapReadPool.execute(fileDecoder);
+                pendingFiles.add(fileDecoder);
+            }
+            if (pendingFiles.poll().publishTo(packetRingBuffer)) {
+                LOGGER.info("Have read the file {} completed.", file.getName());
+            } else {
+                splitPacket(file);
+            }
+            if (isDelete) {
+                file.delete();
+            }
+        }
+    }
+
+    private PacketDecoder newPacketDecoder() {
+        return new PacketDecoder(serverAddressHigh, serverAddressLow, config.getDatabaseServerPort(), packetFilter);
+    }
+
+    private void readTcpdumpStream() {
+        try (TcpdumpStream tcpdump = new TcpdumpStream(config);
+             PcapTeeWriter tee = config.isTcpdumpTee() ? new PcapTeeWriter(FileOperator.formatFilePath(
+                     config.getPacketFilePath()), config.getTcpdumpFileName(), config.getTcpdumpFileSize()) : null) {
+            readPacketStream(tcpdump.start(), ConfigReader.TCPDUMP, tee);
+        } catch (IOException e) {
+            LOGGER.error("IOException occurred while reading the tcpdump stream, error message is: {}.",
+                    e.getMessage());
         }
     }
 
     private void splitPacket(File file) {
+        if (ConfigReader.PCAP_READ_MODE_MMAP.equals(config.getPcapReadMode()) && splitMappedPacket(file)) {
+            return;
+        }
         try (FileInputStream fis = new FileInputStream(file)) {
-            byte[] pcapHeader = new byte[ProtocolConstant.PCAP_HEADER_LENGTH];
-            fis.read(pcapHeader);
-            int id = 0;
-            while (true) {
-                if (packetQueue.size() > config.getQueueSizeLimit()) {
-                    sleep(1000);
-                    continue;
-                }
-                byte[] packetHeader = new byte[ProtocolConstant.PACKET_HEADER_LENGTH];
-                int flag = fis.read(packetHeader);
-                if (flag == -1) {
-                    break;
-                }
-                id++;
-                long timestamp = CommonParser.parseTimestamp(packetHeader);
-                String hexCap = CommonParser.parseByLittleEndian(packetHeader, 8, 12);
-                int cap = Integer.parseInt(hexCap, 16);
-                String hexLen = CommonParser.parseByLittleEndian(packetHeader, 12, 16);
-                int len = Integer.parseInt(hexLen, 16);
-                byte[] dataFlame = new byte[len];
-                fis.read(dataFlame);
-                if (len <= ProtocolConstant.ETHERNET_HEADER_LENGTH) {
-                    continue;
+            readPacketStream(fis, file.getName(), null);
+        } catch (IOException e) {
+            LOGGER.error("IOException occurred while reading the file {}, error message is: {}.",
+                    file.getName(), e.getMessage());
+        }
+        LOGGER.info("Have read the file {} completed.", file.getName());
+    }
+
+    private void readPacketStream(InputStream in, String sourceName, PcapTeeWriter tee) throws IOException {
+        byte[] pcapHeader = new byte[ProtocolConstant.PCAP_HEADER_LENGTH];
+        if (!readFully(in, pcapHeader, 0, pcapHeader.length)) {
+            return;
+        }
+        if (tee != null) {
+            tee.setFileHeader(pcapHeader);
+        }
+        byte[] packetHeader = new byte[ProtocolConstant.PACKET_HEADER_LENGTH];
+        int id = 0;
+        while (readFully(in, packetHeader, 0, packetHeader.length)) {
+            id++;
+            long timestamp = CommonParser.parseTimestamp(packetHeader);
+            int len = ByteCodec.readIntByLittleEndian(packetHeader, 12, 16);
+            int offset = len <= ProtocolConstant.ETHERNET_HEADER_LENGTH ? -1 : packetRingBuffer.claim(len);
+            if (offset < 0) {
+                skipFully(in, len);
+                continue;
+            }
+            if (!readFully(in, packetRingBuffer.array(), offset, len)) {
+                break;
+            }
+            if (tee != null) {
+                tee.write(packetHeader, packetRingBuffer.array(), offset, len);
+            }
+            packetRingBuffer.publish(sourceName, id, timestamp);
+        }
+    }
+
+    private static boolean readFully(InputStream in, byte[] buffer, int offset, int length) throws IOException {
+        int readLength = 0;
+        while (readLength < length) {
+            int count = in.read(buffer, offset + readLength, length - readLength);
+            if (count == -1) {
+                return false;
+            }
+            readLength += count;
+        }
+        return true;
+    }
+
+    private static void skipFully(InputStream in, long length) throws IOException {
+        // a pipe may skip fewer bytes than asked, or none before the data arrives
+        long remaining = length;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    return;
                 }
-                packetQueue.offer(new OriginPacket(file.getName(), id, dataFlame, timestamp));
+                skipped = 1;
+            }
+            remaining -= skipped;
+        }
+    }
+
+    private boolean splitMappedPacket(File file) {
+        int count = 0;
+        try (MappedPcapReader reader = new MappedPcapReader(file, packetRingBuffer)) {
+            while (reader.readNext()) {
+                count++;
             }
         } catch (IOException e) {
-            LOGGER.error("IOException occurred while reading the file {}, error message is: {}.",
+            if (count == 0) {
+                LOGGER.warn("Failed to map the file {}, read it by stream, error message is: {}.",
+                        file.getName(), e.getMessage());
+                return false;
+            }
+            LOGGER.error("IOException occurred while reading the mapped file {}, error message is: {}.",
                     file.getName(), e.getMessage());
         }
         LOGGER.info("Have read the file {} completed.", file.getName());
+        return true;
     }
 
     private List<File> getValidPacketFiles(File dir) {
@@ -262,81 +470,159 @@ public class ParseTask extends WorkTask {
 
     private void distributeData() {
         Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
+        PacketDecoder decoder = newPacketDecoder();
         OriginPacket originPacket;
-        byte[] packet;
-        int headerLength;
-        int sourcePort;
-        int destinationPort;
-        int skipLength;
-        String sourceIp;
-        String destinationIp;
-        long seqNum;
+        int idleRound = 0;
         while (true) {
-            if (isBlock.get()) {
-                continue;
-            }
-            originPacket = packetQueue.poll();
-            if (originPacket == null || originPacket.getOriginData().length == 0) {
-                if (isReadFilesFinished.get()) {
+            boolean isReadFinished = isReadFilesFinished.get();
+            originPacket = packetRingBuffer.poll();
+            if (originPacket == null) {
+                if (isReadFinished) {
                     break;
                 }
+                Backoff.idle(idleRound++);
+                continue;
+            }
+            idleRound = 0;
+            if (originPacket.getBatch() != null) {
+                distributeBatch(originPacket.getBatch());
                 continue;
             }
-            packet = originPacket.getOriginData();
             packetId.incrementAndGet();
-            if (ProtocolConstant.IPV4.equals(originPacket.getIpType())) {
-                headerLength = CommonParser.parseIntByLittleEndian(packet, 46, 47) / 4;
-                skipLength = ProtocolConstant.ETHERNET_HEADER_LENGTH + ProtocolConstant.IPV4_HEADER_LENGTH
-                        + headerLength;
-                if (packet.length <= skipLength) {
-                    continue;
-                }
-                sourceIp = parseIPV4Address(packet, 26, 30);
-                destinationIp = parseIPV4Address(packet, 30, 34);
-                sourcePort = CommonParser.parseIntByBigEndian(packet, 34, 36);
-                destinationPort = CommonParser.parseIntByBigEndian(packet, 36, 38);
-                // sequence number
-                seqNum = CommonParser.parseLongByBigEndian(packet, 38, 42);
-            } else {
-                headerLength = CommonParser.parseIntByLittleEndian(packet, 66, 67) / 4;
-                skipLength = ProtocolConstant.ETHERNET_HEADER_LENGTH + ProtocolConstant.IPV6_HEADER_LENGTH
-                        + headerLength;
-                if (packet.length <= skipLength) {
-                    continue;
-                }
-                sourceIp = parseIPV6Address(packet, 22, 38);
-                destinationIp = parseIPV6Address(packet, 38, 54);
-                sourcePort = CommonParser.parseIntByBigEndian(packet, 54, 56);
-                destinationPort = CommonParser.parseIntByBigEndian(packet, 56, 58);
-                // sequence number
-                seqNum = CommonParser.parseLongByBigEndian(packet, 58, 62);
-            }
-            PacketData packetData = new PacketData(packetId.get(), identifyPacketType(sourceIp, sourcePort));
+            expireHeldSegments(originPacket.getMicrosecondTimestamp());
+            PacketData packetData = decoder.decode(originPacket.getFrame(), originPacket.getFrameOffset(),
+                    originPacket.getLength());
+            if (packetData == null) {
+                filteredPacketCount.increment();
+                continue;
+            }
+            packetData.setPacketId(packetId.get());
             packetData.setOriginInfo(originPacket);
-            packetData.build(sourceIp, sourcePort, destinationIp, destinationPort);
-            packetData.clonePacketData(packet, skipLength);
-            packetData.setSeqNum(seqNum);
-            distribute(packetData);
+            route(packetData, decoder.isIpv4(), decoder.getClientHigh(), decoder.getClientLow(),
+                    decoder.getClientPort());
         }
+        LOGGER.info("Have distributed {} packets, {} packets are filtered.", packetId.get(),
+                filteredPacketCount.sum());
         stop();
     }
 
-    private void distribute(PacketData packetData) {
-        String clientId = packetData.getClientId();
-        if (THREAD_MAP.containsKey(clientId)) {
-            THREAD_MAP.get(clientId).addDataToQueue(packetData);
-        } else {
-            ParseThread parseThread = databaseTypeEnum.getSuitableProtocolParser(clientId);
-            parseThread.addDataToQueue(packetData);
-            parseThread.setFileConfig(config.getResultFileConfig());
-            parseThread.start();
-            THREAD_MAP.put(clientId, parseThread);
+    private void distributeBatch(PacketBatch batch) {
+        // the filtered frames are numbered as if they were decoded here, so the packet ids do not depend
+        // on where the frames are decoded
+        for (int i = 0; i < batch.size(); i++) {
+            skipFilteredFrames(batch.getFilteredBefore(i));
+            PacketData packetData = batch.getPacket(i);
+            packetData.setPacketId(packetId.incrementAndGet());
+            expireHeldSegments(packetData.getMicrosecondTimestamp());
+            route(packetData, batch.isIpv4(i), batch.getClientHigh(i), batch.getClientLow(i),
+                    batch.getClientPort(i));
+        }
+        skipFilteredFrames(batch.getTrailingFiltered());
+        expireHeldSegments(batch.getLastTimestamp());
+    }
+
+    private void skipFilteredFrames(int count) {
+        if (count > 0) {
+            packetId.addAndGet(count);
+            filteredPacketCount.add(count);
+        }
+    }
+
+    private void route(PacketData packetData, boolean isIpv4, long clientHigh, long clientLow, int clientPort) {
+        ParseThread session = sessionTable.get(clientHigh, clientLow, clientPort);
+        boolean isNewSession = session == null || isStaleSession(session);
+        if (isNewSession) {
+            session = createSession(PacketDecoder.formatClientId(isIpv4, clientHigh, clientLow, clientPort));
+            sessionTable.put(clientHigh, clientLow, clientPort, session);
+        }
+        packetData.setClientId(session.getSessionId());
+        distribute(session, packetData, isNewSession);
+    }
+
+    private void distribute(ParseThread session, PacketData packetData, boolean isNewSession) {
+        if (sessionWorkerPool != null) {
+            if (isNewSession) {
+                THREAD_MAP.put(session.getSessionId(), session);
+            }
+            sessionWorkerPool.dispatch(session, packetData);
+            trackHeldSegments(session);
+            return;
+        }
+        session.addDataToQueue(packetData);
+        trackHeldSegments(session);
+        if (isNewSession) {
+            THREAD_MAP.put(session.getSessionId(), session);
+        }
+        if (session.unpark()) {
+            sessionThreadFactory.start(session);
+        }
+    }
+
+    private void trackHeldSegments(ParseThread session) {
+        long expireTime = session.getHeldExpireTime();
+        if (expireTime != Long.MAX_VALUE) {
+            heldSessions.add(session);
+            heldExpireTime = Math.min(heldExpireTime, expireTime);
+        }
+    }
+
+    private void expireHeldSegments(long microsecondTimestamp) {
+        // the capture clock moves on with every frame, so a session that goes idle behind a gap
+        // still releases its held segments
+        if (microsecondTimestamp <= heldExpireTime) {
+            return;
+        }
+        heldExpireTime = Long.MAX_VALUE;
+        Iterator<ParseThread> iterator = heldSessions.iterator();
+        while (iterator.hasNext()) {
+            ParseThread session = iterator.next();
+            if (session.isParseFinished()) {
+                iterator.remove();
+                continue;
+            }
+            if (sessionWorkerPool != null) {
+                sessionWorkerPool.expire(session, microsecondTimestamp);
+            } else {
+                session.expireHeldSegments(microsecondTimestamp);
+                if (session.unpark()) {
+                    sessionThreadFactory.start(session);
+                }
+            }
+            long expireTime = session.getHeldExpireTime();
+            if (expireTime == Long.MAX_VALUE) {
+                iterator.remove();
+            } else {
+                heldExpireTime = Math.min(heldExpireTime, expireTime);
+            }
         }
     }
 
+    private static boolean isStaleSession(ParseThread session) {
+        // a finished session is replaced once it is removed by the merge, the same as looking up THREAD_MAP
+        return session.isParseFinished() && THREAD_MAP.get(session.getSessionId()) != session;
+    }
+
+    private ParseThread createSession(String clientId) {
+        ParseThread session = databaseTypeEnum.getSuitableProtocolParser(clientId);
+        session.setFileConfig(config.getResultFileConfig());
+        session.initReassembler(config.getReorderWindowSize(), config.getReorderGapTimeout());
+        if (sessionWorkerPool == null) {
+            session.setIdleTimeout(config.getSessionIdleTimeout());
+        }
+        return session;
+    }
+
     private void informSubThread() {
         for (Map.Entry<String, ParseThread> map : THREAD_MAP.entrySet()) {
-            map.getValue().setIsDistributeFinished(true);
+            ParseThread session = map.getValue();
+            session.setIsDistributeFinished(true);
+            // a parked session needs its thread back to finish
+            if (sessionWorkerPool == null && session.unpark()) {
+                sessionThreadFactory.start(session);
+            }
+        }
+        if (sessionWorkerPool != null) {
+            sessionWorkerPool.finish();
         }
         LOGGER.info("All network packets have been distributed.");
     }
@@ -376,97 +662,92 @@ public class ParseTask extends WorkTask {
 
     private void mergeSql() {
         Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
-        long flag = 0L;
-        List<SqlInfo> sqlList = new ArrayList<>();
-        BlockingQueue<ParseThread> parseThreadQueue = new LinkedBlockingQueue<>();
-        BlockingQueue<ParseThread> commitThreadQueue = new LinkedBlockingQueue<>();
+        List<SqlInfo> sqlList = storageStage.acquireBuffer();
+        PriorityQueue<ParseThread> mergeQueue = new PriorityQueue<>(
+                Comparator.comparingLong(thread -> thread.getSqlQueue().peek().getSqlId()));
+        long commitTimeMillis = System.currentTimeMillis();
+        int idleRound = 0;
         do {
-            if (packetId.get() - flag >= config.getPacketBatchSize() || isParseFinished.get()) {
-                isBlock.set(true);
-                flag = packetId.get();
-                parseThreadQueue.addAll(THREAD_MAP.values());
-                long minSqlId = Long.MAX_VALUE;
-                while (!parseThreadQueue.isEmpty()) {
-                    ParseThread thread = parseThreadQueue.poll();
-                    if (!thread.getPacketQueue().isEmpty()) {
-                        parseThreadQueue.offer(thread);
-                        continue;
-                    }
-                    commitThreadQueue.offer(thread);
-                    SqlInfo incompleteSql = thread.getIncompleteSql();
-                    if (incompleteSql == null) {
-                        continue;
-                    }
-                    if (incompleteSql.getEndTime() != 0) {
-                        thread.addSqLToQueue();
-                    } else {
-                        if (incompleteSql.getSqlId() < minSqlId) {
-                            minSqlId = incompleteSql.getSqlId();
-                        }
-                    }
-                }
-                mergeThreadSql(sqlList, commitThreadQueue, minSqlId);
-                if (sessionInfoSet.size() > config.getPacketBatchSize()) {
-                    commitSessionInformation();
-                }
-                isBlock.set(false);
-                sqlList.sort((o1, o2) -> (int) (o1.getSqlId() - o2.getSqlId()));
-                storageSql(sqlList, true);
-                sqlList.clear();
+            long mergeStartNanos = System.nanoTime();
+            int mergedCount = mergeCommittableSql(sqlList, mergeQueue);
+            if (mergedCount > 0) {
+                mergeTimer.record(mergeStartNanos);
+                mergedSqlCount.add(mergedCount);
+            }
+            removeFinishedSessions();
+            if (sessionInfoSet.size() > config.getPacketBatchSize()) {
+                commitSessionInformation();
+            }
+            long currentTimeMillis = System.currentTimeMillis();
+            if (sqlList.size() >= config.getPacketBatchSize()) {
+                sqlList = storageStage.swap(sqlList, true);
+                commitTimeMillis = currentTimeMillis;
+            } else if (!sqlList.isEmpty() && (mergedCount == 0
+                    || currentTimeMillis - commitTimeMillis >= COMMIT_INTERVAL_MILLIS)) {
+                // a partial batch only goes out when a buffer is free, otherwise it keeps growing
+                sqlList = storageStage.swap(sqlList, false);
+                commitTimeMillis = sqlList.isEmpty() ? currentTimeMillis : commitTimeMillis;
+            }
+            if (mergedCount == 0) {
+                Backoff.idle(idleRound++);
+            } else {
+                idleRound = 0;
             }
         } while (!isCommitSqlFinished.get());
+        mergeCommittableSql(sqlList, mergeQueue);
+        storageStage.swap(sqlList, true);
+        mergeFinalSession();
+        commitSessionInformation();
+        storageStage.close();
+        if (resultSink != null) {
+            resultSink.close();
+        }
         storageFinishedSql();
         addIndexToTable();
+        metrics.stop();
         LOGGER.info("All sql information have been committed.");
         stat();
         threadPool.shutdown();
     }
 
-    private void saveSelectResult() {
-        Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
-        String resultFilePath = config.getResultFileConfig().getSelectResultPath() + File.separator
-                + config.getResultFileConfig().getResultFileName() + "-" + fileId + ".json";
-        File resultFile = new File(resultFilePath);
-        if (!resultFile.exists()) {
-            try {
-                resultFile.createNewFile();
-            } catch (IOException e) {
-                LOGGER.error("IOException occurred while creating result file {}, error message is: {}.",
-                        resultFilePath, e.getMessage());
-            }
-            saveSelectResult();
-        } else if (resultFile.length() >= (long) config.getResultFileConfig().getResultFileSize()
-                * BYTE_CONVERSION_RATIO) {
-            fileId++;
-            saveSelectResult();
-        } else {
-            writeResultToFile(resultFilePath);
+    private int mergeCommittableSql(List<SqlInfo> sqlList, PriorityQueue<ParseThread> mergeQueue) {
+        // read the distributor before the sessions, the packets not distributed yet have larger ids
+        long watermark = isParseFinished.get() ? Long.MAX_VALUE : packetId.get();
+        for (ParseThread thread : THREAD_MAP.values()) {
+            // a session moves its sql to the sql queue itself, the pending sql is covered by the watermark
+            watermark = Math.min(watermark, thread.getLowWatermark());
         }
+        for (ParseThread thread : THREAD_MAP.values()) {
+            if (!thread.getSqlQueue().isEmpty()) {
+                mergeQueue.add(thread);
+            }
+        }
+        int mergedCount = 0;
+        while (!mergeQueue.isEmpty()) {
+            ParseThread thread = mergeQueue.poll();
+            BlockingQueue<SqlInfo> sqlQueue = thread.getSqlQueue();
+            if (sqlQueue.peek().getSqlId() >= watermark) {
+                break;
+            }
+            sqlList.add(sqlQueue.poll());
+            mergedCount++;
+            if (!sqlQueue.isEmpty()) {
+                mergeQueue.add(thread);
+            }
+        }
+        mergeQueue.clear();
+        return mergedCount;
     }
 
-    private void writeResultToFile(String resultFilePath) {
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(resultFilePath, true), StandardCharsets.UTF_8))) {
-            while (!RESULT_QUEUE.isEmpty() || !isParseFinished.get()) {
-                SelectResult sr = RESULT_QUEUE.poll();
-                if (sr == null) {
-                    sleep(1000);
-                    continue;
-                }
-                JSONObject json = new JSONObject();
-                json.fluentPut("sqlPacketId", sr.getPreviousSql().getPacketId())
-                        .fluentPut("sql", sr.getPreviousSql().getSql())
-                        .fluentPut("param", sr.getPreviousSql().getParameterList())
-                        .fluentPut("packetId", sr.getPacketId())
-                        .fluentPut("rowCount", sr.getRowCount())
-                        .fluentPut("data", sr.getDataList());
-                writer.write(json.toString());
-                writer.flush();
-                writer.newLine();
+    private void removeFinishedSessions() {
+        for (ParseThread thread : THREAD_MAP.values()) {
+            if (!thread.isParseFinished() || !thread.getSqlQueue().isEmpty()) {
+                continue;
             }
-        } catch (IOException e) {
-            LOGGER.error("Error occurred during write result to file, error message is: {}",
-                    e.getMessage());
+            if (thread.getSchema() != null) {
+                sessionInfoSet.add(new SessionInfo(thread.getSessionId(), thread.getUsername(), thread.getSchema()));
+            }
+            THREAD_MAP.remove(thread.getSessionId(), thread);
         }
     }
 
@@ -476,40 +757,12 @@ public class ParseTask extends WorkTask {
         endInfo.setSql("finished");
         sqlList.add(endInfo);
         storageSql(sqlList, false);
-        if (config.getStorageMode().equals(ConfigReader.JSON)) {
+        if (!config.getStorageMode().equals(ConfigReader.DB)) {
+            fileOperator.close();
             fileOperator.sendFinishedFlag();
         }
     }
 
-    private void mergeThreadSql(List<SqlInfo> sqlList, BlockingQueue<ParseThread> parseThreadQueue, long minSqlId) {
-        ParseThread parseThread;
-        while (!parseThreadQueue.isEmpty()) {
-            parseThread = parseThreadQueue.poll();
-            if (parseThread.isParseFinished()) {
-                sqlList.addAll(parseThread.getSqlQueue());
-                if (parseThread.getSchema() != null) {
-                    sessionInfoSet.add(new SessionInfo(parseThread.getSessionId(), parseThread.getUsername(),
-                            parseThread.getSchema()));
-                }
-                THREAD_MAP.remove(parseThread.getSessionId());
-            } else {
-                addSqlToList(parseThread.getSqlQueue(), sqlList, minSqlId);
-            }
-        }
-    }
-
-    private void addSqlToList(BlockingQueue<SqlInfo> sqlQueue, List<SqlInfo> sqlList, long minSqlId) {
-        while (!sqlQueue.isEmpty()) {
-            SqlInfo sql = sqlQueue.peek();
-            if (sql.getSqlId() < minSqlId) {
-                sqlList.add(sql);
-                sqlQueue.poll();
-            } else {
-                break;
-            }
-        }
-    }
-
     @Override
     public void stat() {
         LocalDateTime curr = LocalDateTime.now();
@@ -524,29 +777,11 @@ public class ParseTask extends WorkTask {
         LOGGER.info("Parse finished, the statistical results are as follows:{}{}", line, res);
     }
 
-    private String identifyPacketType(String sourceIp, int sourcePort) {
-        if (sourceIp.equals(config.getDatabaseServerIp()) && sourcePort == config.getDatabaseServerPort()) {
-            return ProtocolConstant.RESPONSE;
-        }
-        return ProtocolConstant.REQUEST;
-    }
-
-    private String parseIPV4Address(byte[] packet, int start, int end) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = start; i < end; i++) {
-            sb.append(CommonParser.parseIntByLittleEndian(packet, i, i + 1)).append(".");
-        }
-        sb.setLength(sb.length() - 1);
-        return sb.toString();
-    }
-
-    private String parseIPV6Address(byte[] packet, int start, int end) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = start; i < end; i += 2) {
-            sb.append(CommonParser.parseByBigEndian(packet, i, i + 2)).append(":");
-        }
-        sb.setLength(sb.length() - 1);
-        return sb.toString();
+    private void storageSqlBatch(List<SqlInfo> sqlList) {
+        long storageStartNanos = System.nanoTime();
+        storageSql(sqlList, true);
+        storageTimer.record(storageStartNanos);
+        storedSqlCount.add(sqlList.size());
     }
 
     private void storageSql(List<SqlInfo> sqlList, boolean shouldRefreshProcess) {
@@ -574,8 +809,6 @@ public class ParseTask extends WorkTask {
         informSubThread();
         waitParseFinish();
         waitCommitSqlFinish();
-        mergeFinalSession();
-        commitSessionInformation();
     }
 
     private void mergeFinalSession() {
@@ -591,15 +824,16 @@ public class ParseTask extends WorkTask {
     }
 
     private void commitSessionInformation() {
-        if (sessionInfoSet.isEmpty()) {
-            return;
-        }
+        storageStage.submitSessions(new HashSet<>(sessionInfoSet));
+        sessionInfoSet.clear();
+    }
+
+    private void storageSession(Set<SessionInfo> sessionSet) {
         if (opengaussOperator != null) {
-            opengaussOperator.insertSessionToDb(sessionInfoSet);
+            opengaussOperator.insertSessionToDb(sessionSet);
         } else {
-            fileOperator.writeSessionToFile(sessionInfoSet);
+            fileOperator.writeSessionToFile(sessionSet);
         }
-        sessionInfoSet.clear();
     }
 
     private void addIndexToTable() {
@@ -23,7 +23,9 @@ import org.opengauss.tool.parse.object.PreparedValue;
 import org.opengauss.tool.parse.object.ProtocolConstant;
 import org.opengauss.tool.parse.object.SqlInfo;
 import org.opengauss.tool.parse.object.SelectResult;
+import org.opengauss.tool.utils.ByteCodec;
 import org.opengauss.tool.utils.CommonParser;
+import org.opengauss.tool.utils.ResultRowSink;
 import org.opengauss.tool.utils.ThreadExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,25 +34,27 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
- * Description: Parse packet thread
+ * Description: Parse the packets of one session, runs on its own platform or virtual thread, or is
+ * stepped by a session worker
  *
  * @author : wang_zhengyuan
  * @since : 2024/05/05
  */
-@EqualsAndHashCode(callSuper = true)
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Data
-public class ParseThread extends Thread {
+public class ParseThread implements Runnable {
     private static final Logger LOGGER = LoggerFactory.getLogger(ParseThread.class);
 
     /**
@@ -58,20 +62,15 @@ public class ParseThread extends Thread {
      */
     protected static final Charset CHARSET = StandardCharsets.UTF_8;
 
-    private static final int FORMAT_NULL = 251;
-
-    private static final int FORMAT_FC = 252;
-
-    private static final int FORMAT_FD = 253;
-
-    private static final int FORMAT_FE = 254;
-
     private static final int EOF_MARK = 254;
+    private static final long PACKET_POLL_TIMEOUT_MILLIS = 100L;
+    // the default max_prepared_stmt_count of mysql, a session can not keep more statements on the server
+    private static final int MAX_PREPARED_STATEMENTS = 16382;
 
     /**
      * packet queue
      */
-    protected BlockingQueue<PacketData> packetQueue;
+    protected BlockingDeque<PacketData> packetQueue;
 
     /**
      * sql queue
@@ -101,6 +100,7 @@ public class ParseThread extends Thread {
     /**
      * session id
      */
+    @EqualsAndHashCode.Include
     protected String sessionId;
 
     /**
@@ -112,10 +112,26 @@ public class ParseThread extends Thread {
      * is parse packet finished
      */
     protected AtomicBoolean isParseFinished;
+
+    /**
+     * id of the parsed sql which has not been added to sql queue, Long.MAX_VALUE if there is no such sql
+     */
+    protected volatile long pendingSqlId = Long.MAX_VALUE;
+    private volatile long parsingPacketId = Long.MAX_VALUE;
+    private volatile long heldPacketId = Long.MAX_VALUE;
     private Map<Integer, SqlInfo> preparedSqlMap;
     private AtomicBoolean isDistributeFinished;
-    private List<Integer> preparedCloseStatements;
-    private Set<Long> selectPacketIds = new HashSet<>();
+    private long resultPacketId = Long.MIN_VALUE;
+    private List<PacketData> packetDataList = new ArrayList<>();
+    private final AtomicBoolean isRunning = new AtomicBoolean(false);
+    private long idleTimeoutMillis;
+    private volatile long queuedPacketCount;
+    private long idleQueuedCount;
+    private boolean isIdle;
+    private String lastQueuedType;
+    private boolean isQueuedTypeChanged;
+    private TcpReassembler requestReassembler;
+    private TcpReassembler responseReassembler;
 
     /**
      * Constructor
@@ -123,102 +139,384 @@ public class ParseThread extends Thread {
      * @param sessionId String the session id
      */
     public ParseThread(String sessionId) {
-        this.packetQueue = new LinkedBlockingQueue<>();
+        this.packetQueue = new LinkedBlockingDeque<>();
         this.sqlQueue = new LinkedBlockingQueue<>();
         this.sessionId = sessionId;
-        this.preparedSqlMap = new HashMap<>();
+        this.preparedSqlMap = createPreparedSqlMap();
         this.isDistributeFinished = new AtomicBoolean(false);
         this.isParseFinished = new AtomicBoolean(false);
-        this.preparedCloseStatements = new ArrayList<>();
-        setName("parse " + sessionId);
+    }
+
+    /**
+     * Create a prepared statement map, the least recently used statement is evicted when a session
+     * keeps more statements than the server allows
+     *
+     * @param <K> the statement key type
+     * @return Map<K, SqlInfo> the prepared statement map
+     */
+    protected static <K> Map<K, SqlInfo> createPreparedSqlMap() {
+        return new LinkedHashMap<K, SqlInfo>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, SqlInfo> eldest) {
+                return size() > MAX_PREPARED_STATEMENTS;
+            }
+        };
     }
 
     public void setFileConfig(ResultFileConfig config) {
         this.resultFileConfig = config;
     }
 
+    /**
+     * Init the tcp reassemblers of both directions, packets are queued as captured if not inited
+     *
+     * @param windowSize int the max count of out of order segments held per direction
+     * @param gapTimeoutMillis long the max capture time in milliseconds to wait for a missing segment
+     */
+    public void initReassembler(int windowSize, long gapTimeoutMillis) {
+        this.requestReassembler = new TcpReassembler(sessionId + " request", windowSize, gapTimeoutMillis,
+                this::queuePacket);
+        this.responseReassembler = new TcpReassembler(sessionId + " response", windowSize, gapTimeoutMillis,
+                this::queuePacket);
+    }
+
+    /**
+     * Set the time the session thread waits for packets before it is parked
+     *
+     * @param idleTimeoutSeconds long the idle timeout in seconds, 0 means never park
+     */
+    public void setIdleTimeout(long idleTimeoutSeconds) {
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+    }
+
+    /**
+     * Mark the session running, used to start the thread of a new session or to restart a parked one
+     *
+     * @return true if the caller should start a thread to run the session
+     */
+    public boolean unpark() {
+        return !isRunning.get() && isRunning.compareAndSet(false, true);
+    }
+
+    /**
+     * Get the retained state of the session
+     *
+     * @return String the state statistics
+     */
+    public String getStateStats() {
+        return String.format(Locale.ROOT, "%d prepared statements, %d queued packets, %d queued sql",
+                getPreparedStatementCount(), packetQueue.size(), sqlQueue.size());
+    }
+
+    /**
+     * Get the count of the prepared statements kept by the session
+     *
+     * @return int the count
+     */
+    protected int getPreparedStatementCount() {
+        return preparedSqlMap.size();
+    }
+
     /**
      * Add packet data to queue
      *
      * @param packetData PacketData the packet data
      */
     public void addDataToQueue(PacketData packetData) {
+        appendPacket(packetData);
+    }
+
+    /**
+     * Add packet data to queue, used when the session is driven by a session worker
+     *
+     * @param packetData PacketData the packet data
+     * @return true if the packet type differs from the previous queued packet, which means the session
+     *         may have a complete request and response exchange to parse
+     */
+    public boolean appendPacket(PacketData packetData) {
+        isQueuedTypeChanged = false;
+        if (requestReassembler == null) {
+            queuePacket(packetData);
+        } else if (ProtocolConstant.REQUEST.equals(packetData.getPacketType())) {
+            // the held response bytes are queued ahead of the request which follows them
+            responseReassembler.skipGaps("request data");
+            requestReassembler.accept(packetData);
+            refreshHeldPacketId();
+        } else {
+            requestReassembler.skipGaps("response data");
+            responseReassembler.accept(packetData);
+            refreshHeldPacketId();
+        }
+        return isQueuedTypeChanged;
+    }
+
+    /**
+     * Skip the gaps whose held segments have waited longer than the gap timeout, called by the
+     * distributor with its capture clock so that an idle session does not hold its segments, and the
+     * low watermark of the merge, until the distribution ends
+     *
+     * @param microsecondTimestamp long the capture time of the latest distributed packet
+     * @return true if the packet type differs from the previous queued packet, see appendPacket
+     */
+    public boolean expireHeldSegments(long microsecondTimestamp) {
+        isQueuedTypeChanged = false;
+        if (requestReassembler != null) {
+            requestReassembler.expire(microsecondTimestamp);
+            responseReassembler.expire(microsecondTimestamp);
+            refreshHeldPacketId();
+        }
+        return isQueuedTypeChanged;
+    }
+
+    /**
+     * Get the capture time after which the held segments of the session expire
+     *
+     * @return long the microsecond timestamp, Long.MAX_VALUE if no segment is held
+     */
+    public long getHeldExpireTime() {
+        if (requestReassembler == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.min(requestReassembler.getExpireTime(), responseReassembler.getExpireTime());
+    }
+
+    private void refreshHeldPacketId() {
+        heldPacketId = Math.min(requestReassembler.getOldestHeldPacketId(),
+                responseReassembler.getOldestHeldPacketId());
+    }
+
+    private void queuePacket(PacketData packetData) {
         this.packetQueue.add(packetData);
+        // only the distributor queues packets of a session
+        queuedPacketCount++;
+        if (!packetData.getPacketType().equals(lastQueuedType)) {
+            isQueuedTypeChanged = true;
+        }
+        lastQueuedType = packetData.getPacketType();
     }
 
     @Override
     public void run() {
         Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
-        List<PacketData> packetDataList = new ArrayList<>();
-        PacketData mergedPacket;
+        boolean hasNextMessage = true;
+        while (hasNextMessage) {
+            if ((isIdle || isIdleTimeout()) && park()) {
+                return;
+            }
+            hasNextMessage = parseNextMessage();
+        }
+        end();
+    }
+
+    private boolean isIdleTimeout() {
+        if (idleTimeoutMillis <= 0) {
+            return false;
+        }
+        long deadline = System.currentTimeMillis() + idleTimeoutMillis;
         while (true) {
-            PacketData currentPacket = pollNextPacket();
-            if (currentPacket == null) {
-                break;
+            // read the count before the queue, a packet queued after the read changes the count
+            long queuedCount = queuedPacketCount;
+            if (!packetQueue.isEmpty() || isDistributeFinished.get()) {
+                return false;
             }
-            if (ProtocolConstant.RESPONSE.equals(currentPacket.getPacketType())) {
-                if (incompleteSql != null) {
-                    setDuration(currentPacket.getMicrosecondTimestamp());
-                } else {
-                    LOGGER.debug("Parsing SQL from {}.", sessionId);
-                }
-                if (previousSql == null || !previousSql.isQuery() || !resultFileConfig.isParseResult()) {
-                    continue;
+            long remainingMillis = deadline - System.currentTimeMillis();
+            if (remainingMillis <= 0) {
+                idleQueuedCount = queuedCount;
+                isIdle = true;
+                return true;
+            }
+            try {
+                PacketData next = packetQueue.poll(Math.min(remainingMillis, PACKET_POLL_TIMEOUT_MILLIS),
+                        TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    packetQueue.offerFirst(next);
                 }
+            } catch (InterruptedException e) {
+                LOGGER.error("Waiting packet of {} is interrupted.", sessionId, e);
+            }
+        }
+    }
+
+    private boolean park() {
+        isIdle = false;
+        // no response packet has arrived for the idle timeout, so the pending sql does not hold the merge
+        // while the session is parked
+        if (incompleteSql != null && incompleteSql.getEndTime() != 0) {
+            addSqLToQueue();
+        }
+        packetDataList = new ArrayList<>();
+        LOGGER.debug("Session {} is idle and parked, {}.", sessionId, getStateStats());
+        isRunning.set(false);
+        // a packet queued before the flag is cleared has not restarted the session, take it back
+        boolean hasWork = queuedPacketCount != idleQueuedCount || isDistributeFinished.get();
+        return !hasWork || !isRunning.compareAndSet(false, true);
+    }
+
+    /**
+     * Parse next message from the packet queue
+     *
+     * @return false if there is no more message or the session quits
+     */
+    public boolean parseNextMessage() {
+        PacketData currentPacket = peekNextPacket();
+        if (currentPacket == null) {
+            return false;
+        }
+        // mark the packet before taking it, so that the low watermark always covers it
+        parsingPacketId = currentPacket.getPacketId();
+        packetQueue.poll();
+        try {
+            return parseMessage(currentPacket);
+        } finally {
+            refreshPendingSqlId();
+            parsingPacketId = Long.MAX_VALUE;
+        }
+    }
+
+    private boolean parseMessage(PacketData currentPacket) {
+        if (ProtocolConstant.RESPONSE.equals(currentPacket.getPacketType())) {
+            if (incompleteSql != null) {
+                // the sql stays incomplete while its response continues, the next request or the end of
+                // the session queues it, and the merge waits for it through the pending sql id
+                setDuration(currentPacket.getMicrosecondTimestamp());
             } else {
-                addSqLToQueue();
+                LOGGER.debug("Parsing SQL from {}.", sessionId);
             }
-            if (isQuitMessage(currentPacket)) {
+            if (!shouldParseResult()) {
+                return true;
+            }
+        } else {
+            addSqLToQueue();
+        }
+        if (isQuitMessage(currentPacket)) {
+            return false;
+        }
+        packetDataList.add(currentPacket);
+        PacketData next;
+        while (true) {
+            // a session idle after the message is parked, the message is parsed as it is
+            if (isIdleTimeout()) {
                 break;
             }
-            packetDataList.add(currentPacket);
-            PacketData next;
-            while (true) {
-                next = peekNextPacket();
-                if (next == null) {
-                    if (ProtocolConstant.REQUEST.equals(currentPacket.getPacketType())) {
-                        packetDataList.clear();
-                    }
-                    LOGGER.debug("The last packet from {} have no it's response packet, ignore it.", sessionId);
-                    break;
-                }
-                if (next.getPacketType().equals(currentPacket.getPacketType())) {
-                    PacketData nextPacket = pollNextPacket();
-                    packetDataList.add(nextPacket);
-                } else {
-                    break;
+            next = peekNextPacket();
+            if (next == null) {
+                if (ProtocolConstant.REQUEST.equals(currentPacket.getPacketType())) {
+                    packetDataList.clear();
                 }
+                LOGGER.debug("The last packet from {} have no it's response packet, ignore it.", sessionId);
+                break;
             }
-            mergedPacket = mergePacket(packetDataList);
-            packetDataList.clear();
-            if (ProtocolConstant.RESPONSE.equals(currentPacket.getPacketType())) {
-                if (!selectPacketIds.contains(previousSql.getPacketId())) {
-                    parseResponsePacket(mergedPacket);
-                    selectPacketIds.add(previousSql.getPacketId());
+            if (next.getPacketType().equals(currentPacket.getPacketType())) {
+                PacketData nextPacket = pollNextPacket();
+                if (incompleteSql != null && ProtocolConstant.RESPONSE.equals(nextPacket.getPacketType())) {
+                    setDuration(nextPacket.getMicrosecondTimestamp());
                 }
+                packetDataList.add(nextPacket);
             } else {
-                parsePacket(mergedPacket);
+                break;
             }
         }
-        end();
+        PacketData mergedPacket = mergePacket(packetDataList);
+        packetDataList.clear();
+        if (mergedPacket.isAfterGap()) {
+            LOGGER.info("Some Packet from {} are lost, ignore them.", sessionId);
+            return true;
+        }
+        if (ProtocolConstant.RESPONSE.equals(currentPacket.getPacketType())) {
+            // sql ids grow within a session, so only the last parsed result needs to be remembered
+            if (previousSql.getPacketId() > resultPacketId) {
+                parseResponsePacket(mergedPacket);
+                resultPacketId = previousSql.getPacketId();
+            }
+        } else {
+            parsePacket(mergedPacket);
+        }
+        return true;
+    }
+
+    /**
+     * Whether the queued packets contain a complete exchange, so that the next message can be parsed
+     * without waiting for more packets. A request needs its responses and the following request,
+     * a response of a query whose result is parsed needs the following request.
+     *
+     * @return true if the next message can be parsed without waiting
+     */
+    public boolean hasCompleteExchange() {
+        PacketData head = packetQueue.peek();
+        if (head == null) {
+            return false;
+        }
+        int expectTransitions;
+        if (ProtocolConstant.RESPONSE.equals(head.getPacketType())) {
+            if (!shouldParseResult()) {
+                return true;
+            }
+            expectTransitions = 1;
+        } else {
+            if (isQuitPacket(head)) {
+                return true;
+            }
+            expectTransitions = 2;
+        }
+        String type = head.getPacketType();
+        int transitions = 0;
+        for (PacketData packet : packetQueue) {
+            if (!packet.getPacketType().equals(type)) {
+                type = packet.getPacketType();
+                transitions++;
+                if (transitions == expectTransitions) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the low watermark of the session, every sql which the session will add to its sql queue later
+     * has an id not less than it. The stages are read from upstream to downstream, a packet moving on
+     * while it is read is seen by a later stage.
+     *
+     * @return long the low watermark, Long.MAX_VALUE if the session will not add any sql
+     */
+    public long getLowWatermark() {
+        if (isParseFinished.get()) {
+            return Long.MAX_VALUE;
+        }
+        long watermark = heldPacketId;
+        PacketData head = packetQueue.peek();
+        if (head != null) {
+            watermark = Math.min(watermark, head.getPacketId());
+        }
+        watermark = Math.min(watermark, parsingPacketId);
+        return Math.min(watermark, pendingSqlId);
+    }
+
+    private synchronized void refreshPendingSqlId() {
+        pendingSqlId = incompleteSql == null ? Long.MAX_VALUE : incompleteSql.getSqlId();
+    }
+
+    private boolean shouldParseResult() {
+        return previousSql != null && previousSql.isQuery() && resultFileConfig.isParseResult();
     }
 
     /**
      * End of the current parse thread
      */
-    protected void end() {
+    public void end() {
         if (incompleteSql != null && incompleteSql.getEndTime() != 0) {
             sqlQueue.add(incompleteSql.clone());
             incompleteSql = null;
         }
         isParseFinished.set(true);
-        LOGGER.debug("Packets from {} have been parsed completed.", sessionId);
+        LOGGER.debug("Packets from {} have been parsed completed, {}.", sessionId, getStateStats());
         packetQueue.clear();
-        interrupt();
     }
 
     /**
-     * Set sql execute duration
+     * Set sql execute duration, called for every packet of the response
      *
      * @param microsecondTimestamp long the microsecond timestamp
      */
@@ -233,16 +531,23 @@ public class ParseThread extends Thread {
      * @return true if current massage is quit message
      */
     protected boolean isQuitMessage(PacketData packet) {
-        if (packet.getData().length == 5) {
-            String requestType = parsePacketType(packet);
-            if (ProtocolConstant.COM_QUIT.equals(requestType)) {
-                quit(packet);
-                return true;
-            }
+        if (isQuitPacket(packet)) {
+            quit(packet);
+            return true;
         }
         return false;
     }
 
+    /**
+     * Is quit packet
+     *
+     * @param packet PacketData the packet data
+     * @return true if the packet is a quit message
+     */
+    protected boolean isQuitPacket(PacketData packet) {
+        return packet.getData().length == 5 && ProtocolConstant.COM_QUIT.equals(parsePacketType(packet));
+    }
+
     private PacketData mergePacket(List<PacketData> packetDataList) {
         if (packetDataList.isEmpty()) {
             return new PacketData();
@@ -251,23 +556,21 @@ public class ParseThread extends Thread {
         if (packetDataList.size() == 1) {
             return res;
         }
-        packetDataList.sort(Comparator.comparingLong(PacketData::getSeqNum));
         res.setMicrosecondTimestamp(packetDataList.get(packetDataList.size() - 1).getMicrosecondTimestamp());
+        // packets are queued by the reassembler in sequence order, so the payloads are contiguous
         int totalLength = 0;
         for (PacketData packetData : packetDataList) {
             totalLength += packetData.getData().length;
+            if (packetData.isAfterGap()) {
+                res.setAfterGap(true);
+            }
         }
         byte[] mergeData = Arrays.copyOf(packetDataList.get(0).getData(), totalLength);
         int offset = packetDataList.get(0).getData().length;
-        long expectNextSeqNum = packetDataList.get(0).getSeqNum() + offset;
         for (int i = 1; i < packetDataList.size(); i++) {
-            PacketData packetData = packetDataList.get(i);
-            if (packetData.getSeqNum() == expectNextSeqNum) {
-                byte[] next = packetData.getData();
-                System.arraycopy(next, 0, mergeData, offset, next.length);
-                offset += next.length;
-                expectNextSeqNum += next.length;
-            }
+            byte[] next = packetDataList.get(i).getData();
+            System.arraycopy(next, 0, mergeData, offset, next.length);
+            offset += next.length;
         }
         res.setData(mergeData);
         res.setMergeInfo(packetDataList.get(0));
@@ -275,35 +578,27 @@ public class ParseThread extends Thread {
     }
 
     private PacketData pollNextPacket() {
-        do {
-            PacketData next = packetQueue.poll();
-            if (next != null) {
-                return next;
+        PacketData next = packetQueue.poll();
+        while (next == null && !(isDistributeFinished.get() && packetQueue.isEmpty())) {
+            try {
+                next = packetQueue.poll(PACKET_POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                LOGGER.error("Waiting packet of {} is interrupted.", sessionId, e);
             }
-        } while (shouldWaitPacket());
-        return null;
+        }
+        return next;
     }
 
     private PacketData peekNextPacket() {
-        do {
-            PacketData next = packetQueue.peek();
-            if (next != null) {
-                return next;
-            }
-        } while (shouldWaitPacket());
-        return null;
-    }
-
-    private boolean shouldWaitPacket() {
-        if (isDistributeFinished.get() && packetQueue.isEmpty()) {
-            return false;
+        PacketData next = packetQueue.peek();
+        if (next != null) {
+            return next;
         }
-        try {
-            sleep(10);
-        } catch (InterruptedException e) {
-            LOGGER.error("Sleep interrupted.", e);
+        next = pollNextPacket();
+        if (next != null) {
+            packetQueue.offerFirst(next);
         }
-        return true;
+        return next;
     }
 
     /**
@@ -330,9 +625,8 @@ public class ParseThread extends Thread {
         }
         byte[] data = packet.getData();
         int dataPoint = handleField(data);
-        List<List<String>> dataList = new ArrayList<>();
-        long rowCount = parseRowPacket(data, dataPoint, dataList, packet);
-        SelectResult sr = new SelectResult(packet.getPacketId(), previousSql, rowCount, dataList);
+        SelectResult sr = new SelectResult(packet.getPacketId(), previousSql, resultFileConfig.isDigestOnly());
+        parseRowPacket(data, dataPoint, sr, packet);
         ParseTask.addResultToQueue(sr);
     }
 
@@ -346,7 +640,7 @@ public class ParseThread extends Thread {
         int point = 5;
         int fieldNumber = data[4];
         for (int i = 0; i < fieldNumber; i++) {
-            int packetLength = hexToDecimal(Arrays.copyOfRange(data, point, point + 3));
+            int packetLength = ByteCodec.readIntByLittleEndian(data, point, point + 3);
             point = point + 4 + packetLength;
         }
         return point;
@@ -357,12 +651,10 @@ public class ParseThread extends Thread {
      *
      * @param data packet data
      * @param dataPoint data row point
-     * @param dataList data row
+     * @param sink the receiver of the row values
      * @param packet packet data
-     * @return rows count
      */
-    protected long parseRowPacket(byte[] data, int dataPoint, List<List<String>> dataList, PacketData packet) {
-        long rowCount = 0L;
+    protected void parseRowPacket(byte[] data, int dataPoint, ResultRowSink sink, PacketData packet) {
         int fieldNumber = data[4];
         int point = dataPoint;
         try {
@@ -372,70 +664,25 @@ public class ParseThread extends Thread {
                     point = point + 5;
                     continue;
                 }
-                List<String> row = new ArrayList<>();
                 for (int i = 0; i < fieldNumber; i++) {
-                    int textLen;
-                    int type = data[point] & 0xFF;
-                    switch (type) {
-                        case FORMAT_NULL:
-                            textLen = -1;
-                            point = point + 1;
-                            break;
-                        case FORMAT_FC:
-                            textLen = hexToDecimal(Arrays.copyOfRange(data, point + 1, point + 3));
-                            point = point + 3;
-                            break;
-                        case FORMAT_FD:
-                            textLen = hexToDecimal(Arrays.copyOfRange(data, point + 1, point + 4));
-                            point = point + 4;
-                            break;
-                        case FORMAT_FE:
-                            textLen = hexToDecimal(Arrays.copyOfRange(data, point + 1, point + 9));
-                            point = point + 9;
-                            break;
-                        default:
-                            textLen = hexToDecimal(Arrays.copyOfRange(data, point, point + 1));
-                            point = point + 1;
-                    }
-                    if (textLen == -1) {
-                        row.add(null);
+                    int textLen = (int) ByteCodec.readLengthEncodedInt(data, point);
+                    point = point + ByteCodec.getLengthEncodedIntSize(data, point);
+                    if (textLen == ByteCodec.NULL_LENGTH) {
+                        sink.addNull();
                         continue;
                     }
-                    String text = new String(data, point, textLen, CHARSET);
-                    row.add(text);
+                    if (point + textLen > data.length) {
+                        throw new IndexOutOfBoundsException("Row value exceeds the packet, end is " + (point + textLen));
+                    }
+                    sink.addValue(data, point, textLen);
                     point = point + textLen;
                 }
-                rowCount++;
-                dataList.add(row);
+                sink.endRow();
             }
         } catch (IndexOutOfBoundsException e) {
             LOGGER.error("parse row packet error, fileName is {}, idInFile is {}, packetId is {}, sqlPacketId is {} : ",
                     packet.getLocationFile(), packet.getIdInFile(), packet.getPacketId(), previousSql.getPacketId(), e);
         }
-        return rowCount;
-    }
-
-    /**
-     * convert hex to decimal
-     *
-     * @param bytes hex bytes
-     * @return decimal
-     */
-    protected int hexToDecimal(byte[] bytes) {
-        StringBuilder hexString = new StringBuilder();
-        for (int i = bytes.length - 1; i >= 0; i--) {
-            String hex;
-            if (bytes[i] < 0) {
-                hex = Integer.toHexString(bytes[i] & 0xFF);
-            } else {
-                hex = Integer.toHexString(bytes[i]);
-            }
-            if (hex.length() == 1) {
-                hex = "0" + hex;
-            }
-            hexString.append(hex);
-        }
-        return Integer.parseInt(hexString.toString(), 16);
     }
 
     /**
@@ -497,14 +744,14 @@ public class ParseThread extends Thread {
         // login request massage，skip 36 bytes, follow is username, end with "00"
         byte[] data = packet.getData();
         int start = 36;
-        int end = getStringEndIndex(data, start);
+        int end = ByteCodec.indexOfNul(data, start);
         if (end == -1) {
             return;
         }
         username = CommonParser.parseByteToString(data, start, end);
         int passwordLen = CommonParser.parseIntByLittleEndian(data, end + 1, end + 2);
         start = end + 2 + passwordLen;
-        end = getStringEndIndex(data, start);
+        end = ByteCodec.indexOfNul(data, start);
         schema = CommonParser.parseByteToString(data, start, end);
         PacketData responseData = pollNextPacket();
         if (responseData == null) {
@@ -597,7 +844,7 @@ public class ParseThread extends Thread {
             pbeSql.getTypeList().clear();
             for (int i = start + 1; i < start + pbeSql.getParaNum() * (2 + offset) + 1; i += 2 + offset) {
                 // parameter type
-                pbeSql.getTypeList().add(CommonParser.parseByLittleEndian(data, i, i + 1));
+                pbeSql.getTypeList().add(ByteCodec.toHex(data[i]));
             }
             start += 1 + pbeSql.getParaNum() * (2 + offset);
         } else {
@@ -644,8 +891,8 @@ public class ParseThread extends Thread {
     }
 
     private void closeStatement(PacketData packet) {
-        int statementId = Integer.parseInt(CommonParser.parseByLittleEndian(packet.getData(), 5, 9), 16);
-        preparedCloseStatements.add(statementId);
+        int statementId = ByteCodec.readIntByLittleEndian(packet.getData(), 5, 9);
+        preparedSqlMap.remove(statementId);
         int len = packet.getData().length;
         // COM_STMT_CLOSE message length
         if (len > 10) {
@@ -675,6 +922,9 @@ public class ParseThread extends Thread {
     protected void skipResponsePacket() {
         PacketData next;
         while (true) {
+            if (isIdleTimeout()) {
+                return;
+            }
             next = peekNextPacket();
             if (next == null || next.getPacketType().equals(ProtocolConstant.REQUEST)) {
                 return;
@@ -692,12 +942,7 @@ public class ParseThread extends Thread {
      * @return int the string end index
      */
     protected int getStringEndIndex(byte[] flame, int start) {
-        for (int i = start; i < flame.length; i++) {
-            if (flame[i] == 0) {
-                return i;
-            }
-        }
-        return -1;
+        return ByteCodec.indexOfNul(flame, start);
     }
 
     /**
@@ -708,7 +953,7 @@ public class ParseThread extends Thread {
      * @return String the packet type
      */
     protected String parsePacketType(PacketData packet) {
-        return CommonParser.parseByLittleEndian(packet.getData(), 4, 5);
+        return ByteCodec.toHex(packet.getData()[4]);
     }
 
     /**
@@ -717,6 +962,11 @@ public class ParseThread extends Thread {
      * @param isDistributeFinished boolean the is distribution finished
      */
     public void setIsDistributeFinished(boolean isDistributeFinished) {
+        if (isDistributeFinished && requestReassembler != null) {
+            requestReassembler.flush();
+            responseReassembler.flush();
+            heldPacketId = Long.MAX_VALUE;
+        }
         this.isDistributeFinished.set(isDistributeFinished);
     }
 
@@ -730,12 +980,14 @@ public class ParseThread extends Thread {
     }
 
     /**
-     * Add sql to queue
+     * Add sql to queue, called only by the thread which parses the session, other threads read the
+     * published pendingSqlId instead of the incomplete sql
      */
-    public synchronized void addSqLToQueue() {
+    protected synchronized void addSqLToQueue() {
         if (incompleteSql != null) {
             sqlQueue.add(incompleteSql.clone());
             incompleteSql = null;
         }
+        pendingSqlId = Long.MAX_VALUE;
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.PacketBatch;
+import org.opengauss.tool.parse.object.PacketData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Description: Decode a finished pcap file on a pcap read worker. The file is mapped window by window,
+ * the frames are decoded into batches of packets, and the batches are handed to the reader thread
+ * through a bounded queue, which publishes them to the ring buffer in file order. A worker runs ahead
+ * of the reader by at most the queue capacity of batches.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PcapFileDecoder implements Runnable {
+    /**
+     * The max count of decoded batches of a file waiting for the reader thread
+     */
+    public static final int QUEUE_CAPACITY = 4;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PcapFileDecoder.class);
+    private static final PacketBatch END = new PacketBatch();
+
+    private final File file;
+    private final PacketDecoder decoder;
+    private final BlockingQueue<PacketBatch> batches;
+    private volatile IOException error;
+
+    /**
+     * Constructor
+     *
+     * @param file File the finished pcap file
+     * @param decoder PacketDecoder the decoder, used by this task only
+     */
+    public PcapFileDecoder(File file, PacketDecoder decoder) {
+        this.file = file;
+        this.decoder = decoder;
+        this.batches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    }
+
+    @Override
+    public void run() {
+        try {
+            decodeFile();
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            putEnd();
+        }
+    }
+
+    private void putEnd() {
+        // the mapping is released before the end is seen, so that the file can be deleted then
+        try {
+            batches.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void decodeFile() throws IOException, InterruptedException {
+        try (MappedPcapReader reader = new MappedPcapReader(file, null)) {
+            PacketBatch batch = new PacketBatch();
+            while (reader.next()) {
+                int length = reader.getFrameLength();
+                PacketData packetData = decoder.decode(reader.getFrame(), reader.getFrameOffset(), length);
+                if (packetData == null) {
+                    batch.addFiltered(length, reader.getMicrosecondTimestamp());
+                } else {
+                    packetData.setLocationFile(reader.getFileName());
+                    packetData.setIdInFile(reader.getPacketIdInFile());
+                    packetData.setMicrosecondTimestamp(reader.getMicrosecondTimestamp());
+                    batch.add(packetData, decoder.isIpv4(), decoder.getClientHigh(), decoder.getClientLow(),
+                            decoder.getClientPort(), length);
+                }
+                if (batch.isFull()) {
+                    batches.put(batch);
+                    batch = new PacketBatch();
+                }
+            }
+            if (batch.getFrameCount() > 0) {
+                batches.put(batch);
+            }
+        }
+    }
+
+    /**
+     * Publish the decoded batches to the ring buffer in order, until the file is decoded
+     *
+     * @param ringBuffer PacketRingBuffer the ring buffer
+     * @return boolean false if the file failed before any batch is published, so it can be read in order
+     */
+    public boolean publishTo(PacketRingBuffer ringBuffer) {
+        boolean isPublished = false;
+        try {
+            PacketBatch batch;
+            while ((batch = batches.take()) != END) {
+                ringBuffer.publishBatch(batch);
+                isPublished = true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+        if (error == null) {
+            return true;
+        }
+        if (!isPublished) {
+            LOGGER.warn("Failed to decode the file {} in parallel, read it in order, error message is: {}.",
+                    file.getName(), error.getMessage());
+            return false;
+        }
+        LOGGER.error("IOException occurred while decoding the file {}, error message is: {}.", file.getName(),
+                error.getMessage());
+        return true;
+    }
+}
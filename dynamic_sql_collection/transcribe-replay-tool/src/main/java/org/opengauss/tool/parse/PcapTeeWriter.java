@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.utils.ChannelFileWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Description: Copy the packets of a pcap stream to pcap files, named and rotated the same way as
+ * tcpdump -w name.pcap -C size does, so that the files can be parsed again later. Every file starts
+ * with the global header of the stream and holds whole packets.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/26
+ */
+public class PcapTeeWriter implements Closeable {
+    private static final String PCAP_SUFFIX = ".pcap";
+    private static final long BYTE_CONVERSION_RATIO = 1024L * 1024L;
+
+    private final String filePathPrefix;
+    private final long fileSizeLimit;
+    private byte[] fileHeader;
+    private int fileIndex;
+    private ChannelFileWriter out;
+
+    /**
+     * Constructor
+     *
+     * @param filePath String the directory of the pcap files
+     * @param fileName String the pcap file name without suffix
+     * @param fileSize int the size limit of a pcap file in MB
+     */
+    public PcapTeeWriter(String filePath, String fileName, int fileSize) {
+        this.filePathPrefix = filePath + fileName + PCAP_SUFFIX;
+        this.fileSizeLimit = fileSize * BYTE_CONVERSION_RATIO;
+    }
+
+    /**
+     * Set the global header of the stream, every pcap file starts with it
+     *
+     * @param header byte[] the global header
+     */
+    public void setFileHeader(byte[] header) {
+        this.fileHeader = header.clone();
+    }
+
+    /**
+     * Write a packet, a new file is started when the current one is full
+     *
+     * @param packetHeader byte[] the packet header
+     * @param frame byte[] the array holding the frame
+     * @param offset int the offset of the frame
+     * @param length int the frame length
+     * @throws IOException if the packet can not be written
+     */
+    public void write(byte[] packetHeader, byte[] frame, int offset, int length) throws IOException {
+        if (out == null || out.getSize() >= fileSizeLimit) {
+            rollOver();
+        }
+        out.write(packetHeader);
+        out.write(frame, offset, length);
+    }
+
+    private void rollOver() throws IOException {
+        close();
+        // name.pcap, name.pcap1, name.pcap2, ...
+        String filePath = fileIndex == 0 ? filePathPrefix : filePathPrefix + fileIndex;
+        fileIndex++;
+        Files.deleteIfExists(Paths.get(filePath));
+        out = new ChannelFileWriter(filePath, ChannelFileWriter.FSYNC_NONE, 0L);
+        out.write(fileHeader);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import com.alibaba.fastjson2.JSONWriter;
+import org.opengauss.tool.config.ResultFileConfig;
+import org.opengauss.tool.parse.object.SelectResult;
+import org.opengauss.tool.parse.object.SqlInfo;
+import org.opengauss.tool.utils.BlockCodec;
+import org.opengauss.tool.utils.BlockCodecs;
+import org.opengauss.tool.utils.ChannelFileWriter;
+import org.opengauss.tool.utils.LineFileWriter;
+import org.opengauss.tool.utils.ThreadExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: Dedicated writer of the select result files. The results are drained from the bounded
+ * result queue in batches, serialized by one reusable json writer, and the file is flushed once enough
+ * bytes are pending or the flush interval has passed. A new file is started when the size counted in
+ * memory reaches the result file size. After a write error the file is closed and the results are
+ * dropped for the retry interval, then the writing goes on with the next file. The queue depth and the
+ * write throughput are reported.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/24
+ */
+public class SelectResultSink implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SelectResultSink.class);
+    private static final int DRAIN_BATCH_SIZE = 256;
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+    private static final long FLUSH_BYTES = 1024L * 1024L;
+    private static final long FLUSH_INTERVAL_MILLIS = 1000L;
+    private static final long BYTE_CONVERSION_RATIO = 1024L * 1024L;
+    private static final long RETRY_INTERVAL_MILLIS = 1000L;
+
+    private final ResultFileConfig config;
+    private final BlockingQueue<SelectResult> resultQueue;
+    private final BlockCodec codec;
+    private final List<SelectResult> batch;
+    private final LineBuffer lineBuffer;
+    private final CountDownLatch finishedLatch;
+    private final long startTimeMillis;
+    private volatile boolean isClosed;
+    private volatile long writtenBytes;
+    private int fileId = 1;
+    private int fileCount;
+    private ChannelFileWriter fileOut;
+    private LineFileWriter writer;
+    private long writtenCount;
+    private long droppedCount;
+    private long retryTimeMillis;
+    private long unflushedBytes;
+    private long flushTimeMillis;
+    private int maxQueueDepth;
+
+    /**
+     * Constructor
+     *
+     * @param config ResultFileConfig the result file config
+     * @param resultQueue BlockingQueue<SelectResult> the bounded queue the parsers put the results into
+     */
+    public SelectResultSink(ResultFileConfig config, BlockingQueue<SelectResult> resultQueue) {
+        this.config = config;
+        this.resultQueue = resultQueue;
+        this.codec = BlockCodecs.forName(config.getCompression());
+        this.batch = new ArrayList<>(DRAIN_BATCH_SIZE);
+        this.lineBuffer = new LineBuffer();
+        this.finishedLatch = new CountDownLatch(1);
+        this.startTimeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the count of results waiting in the queue
+     *
+     * @return int the queue depth
+     */
+    public int getQueueDepth() {
+        return resultQueue.size();
+    }
+
+    /**
+     * Get the count of json bytes written
+     *
+     * @return long the bytes
+     */
+    public long getWrittenBytes() {
+        return writtenBytes;
+    }
+
+    /**
+     * Get the average count of json bytes written per second
+     *
+     * @return long the bytes per second
+     */
+    public long getBytesPerSecond() {
+        long elapsedMillis = Math.max(1L, System.currentTimeMillis() - startTimeMillis);
+        return writtenBytes * 1000L / elapsedMillis;
+    }
+
+    /**
+     * Stop once the queued results are written, and wait until the last file is closed
+     */
+    public void close() {
+        isClosed = true;
+        try {
+            finishedLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Select result sink wrote {} results, {} bytes into {} files, {} bytes per second, "
+                + "max queue depth is {}, dropped {} results.", writtenCount, writtenBytes, fileCount,
+                getBytesPerSecond(), maxQueueDepth, droppedCount);
+    }
+
+    @Override
+    public void run() {
+        Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
+        flushTimeMillis = System.currentTimeMillis();
+        try (JSONWriter jsonWriter = JSONWriter.ofUTF8()) {
+            while (!isClosed || !resultQueue.isEmpty()) {
+                maxQueueDepth = Math.max(maxQueueDepth, resultQueue.size());
+                if (resultQueue.drainTo(batch, DRAIN_BATCH_SIZE) == 0) {
+                    SelectResult result = resultQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (result != null) {
+                        batch.add(result);
+                    }
+                }
+                write(jsonWriter);
+                batch.clear();
+            }
+            closeFile();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finishedLatch.countDown();
+        }
+    }
+
+    private void write(JSONWriter jsonWriter) {
+        // after a write error the results are still drained, so that the parsers never block on the queue
+        if (System.currentTimeMillis() < retryTimeMillis) {
+            if (!batch.isEmpty()) {
+                drop(batch.size());
+            }
+            return;
+        }
+        int batchWrittenCount = 0;
+        try {
+            for (SelectResult result : batch) {
+                if (writer == null || fileOut.getSize() >= getFileSizeLimit()) {
+                    openNextFile();
+                }
+                serialize(jsonWriter, result);
+                jsonWriter.flushTo(lineBuffer);
+                writer.writeLine(lineBuffer.getBuffer(), 0, lineBuffer.size());
+                unflushedBytes += lineBuffer.size() + 1;
+                writtenBytes += lineBuffer.size() + 1;
+                writtenCount++;
+                batchWrittenCount++;
+                lineBuffer.reset();
+            }
+            flushIfDue();
+        } catch (IOException e) {
+            LOGGER.error("Error occurred during write result to file, retry in {} ms, error message is: {}",
+                    RETRY_INTERVAL_MILLIS, e.getMessage());
+            retryTimeMillis = System.currentTimeMillis() + RETRY_INTERVAL_MILLIS;
+            lineBuffer.reset();
+            // a damaged block ends the file, the writing goes on with the next one
+            boolean isFileStarted = fileOut != null;
+            closeFile();
+            if (isFileStarted) {
+                fileId++;
+            }
+            drop(batch.size() - batchWrittenCount);
+        }
+    }
+
+    private void drop(int count) {
+        droppedCount += count;
+        LOGGER.error("Dropped {} select results because of the write error, {} results are dropped in total.",
+                count, droppedCount);
+    }
+
+    private static void serialize(JSONWriter jsonWriter, SelectResult result) {
+        SqlInfo sql = result.getPreviousSql();
+        jsonWriter.startObject();
+        jsonWriter.writeName("sqlPacketId");
+        jsonWriter.writeColon();
+        jsonWriter.writeInt64(sql.getPacketId());
+        writeField(jsonWriter, "sql", sql.getSql());
+        writeField(jsonWriter, "param", sql.getParameterList());
+        jsonWriter.writeName("packetId");
+        jsonWriter.writeColon();
+        jsonWriter.writeInt64(result.getPacketId());
+        jsonWriter.writeName("rowCount");
+        jsonWriter.writeColon();
+        jsonWriter.writeInt64(result.getRowCount());
+        if (result.getDigest() != null) {
+            writeField(jsonWriter, "orderedDigest", result.getDigest().getOrderedDigest());
+            writeField(jsonWriter, "unorderedDigest", result.getDigest().getUnorderedDigest());
+        } else {
+            writeField(jsonWriter, "data", result.getDataList());
+        }
+        jsonWriter.endObject();
+    }
+
+    private static void writeField(JSONWriter jsonWriter, String name, Object value) {
+        // null fields are left out, the same as a JSONObject prints them
+        if (value == null) {
+            return;
+        }
+        jsonWriter.writeName(name);
+        jsonWriter.writeColon();
+        jsonWriter.writeAny(value);
+    }
+
+    private void flushIfDue() throws IOException {
+        long currentTimeMillis = System.currentTimeMillis();
+        if (unflushedBytes >= FLUSH_BYTES
+                || (unflushedBytes > 0 && currentTimeMillis - flushTimeMillis >= FLUSH_INTERVAL_MILLIS)) {
+            writer.flush();
+            LOGGER.debug("Flushed {} bytes of select results, queue depth is {}, {} bytes per second.",
+                    unflushedBytes, resultQueue.size(), getBytesPerSecond());
+            unflushedBytes = 0L;
+            flushTimeMillis = currentTimeMillis;
+        }
+    }
+
+    private void openNextFile() throws IOException {
+        if (writer != null) {
+            writer.close();
+            fileId++;
+        }
+        writer = null;
+        fileOut = new ChannelFileWriter(getFilePath(), ChannelFileWriter.FSYNC_NONE, 0L);
+        // the files left full by a previous parse are skipped
+        while (fileOut.getSize() >= getFileSizeLimit()) {
+            fileOut.close();
+            fileId++;
+            fileOut = new ChannelFileWriter(getFilePath(), ChannelFileWriter.FSYNC_NONE, 0L);
+        }
+        writer = new LineFileWriter(fileOut, codec, fileOut.getSize() == 0);
+        fileCount++;
+    }
+
+    private void closeFile() {
+        try {
+            if (writer != null) {
+                writer.close();
+            } else if (fileOut != null) {
+                fileOut.close();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error occurred during closing result file, error message is: {}", e.getMessage());
+        }
+        writer = null;
+        fileOut = null;
+        unflushedBytes = 0L;
+    }
+
+    private String getFilePath() {
+        return config.getSelectResultPath() + File.separator + config.getResultFileName() + "-" + fileId + ".json";
+    }
+
+    private long getFileSizeLimit() {
+        return config.getResultFileSize() * BYTE_CONVERSION_RATIO;
+    }
+
+    private static final class LineBuffer extends ByteArrayOutputStream {
+        private byte[] getBuffer() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import java.util.function.Predicate;
+
+/**
+ * Description: Open addressing session table keyed by the client address and port, used by the
+ * distributor thread only. The address is stored as two longs, an IPv4 address is stored in its
+ * IPv4-mapped IPv6 form. Stale sessions are purged when the table is rebuilt.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/17
+ */
+public class SessionTable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFFL << 32;
+
+    private final Predicate<ParseThread> isStale;
+    private long[] addressHighs;
+    private long[] addressLows;
+    private int[] ports;
+    private ParseThread[] sessions;
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param isStale Predicate<ParseThread> whether a session can be purged from the table
+     */
+    public SessionTable(Predicate<ParseThread> isStale) {
+        this.isStale = isStale;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Get the low long of an IPv4 address in its IPv4-mapped IPv6 form, the high long is 0
+     *
+     * @param ipv4Address int the IPv4 address
+     * @return long the low long of the address
+     */
+    public static long mapIpv4Address(int ipv4Address) {
+        return IPV4_MAPPED_PREFIX | (ipv4Address & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the session of the client
+     *
+     * @param addressHigh long the high long of the client address
+     * @param addressLow long the low long of the client address
+     * @param port int the client port
+     * @return ParseThread the session, null if not exists
+     */
+    public ParseThread get(long addressHigh, long addressLow, int port) {
+        int mask = sessions.length - 1;
+        for (int i = hash(addressHigh, addressLow, port) & mask; sessions[i] != null; i = (i + 1) & mask) {
+            if (addressLows[i] == addressLow && ports[i] == port && addressHighs[i] == addressHigh) {
+                return sessions[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put the session of the client, the previous session of the client is replaced
+     *
+     * @param addressHigh long the high long of the client address
+     * @param addressLow long the low long of the client address
+     * @param port int the client port
+     * @param session ParseThread the session
+     */
+    public void put(long addressHigh, long addressLow, int port, ParseThread session) {
+        if ((size + 1) * 2 > sessions.length) {
+            rebuild();
+        }
+        int mask = sessions.length - 1;
+        int i = hash(addressHigh, addressLow, port) & mask;
+        while (sessions[i] != null) {
+            if (addressLows[i] == addressLow && ports[i] == port && addressHighs[i] == addressHigh) {
+                sessions[i] = session;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        addressHighs[i] = addressHigh;
+        addressLows[i] = addressLow;
+        ports[i] = port;
+        sessions[i] = session;
+        size++;
+    }
+
+    private void rebuild() {
+        long[] oldHighs = addressHighs;
+        long[] oldLows = addressLows;
+        int[] oldPorts = ports;
+        ParseThread[] oldSessions = sessions;
+        int liveCount = 0;
+        for (ParseThread session : oldSessions) {
+            if (session != null && !isStale.test(session)) {
+                liveCount++;
+            }
+        }
+        int capacity = oldSessions.length;
+        while ((liveCount + 1) * 4 > capacity) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        for (int i = 0; i < oldSessions.length; i++) {
+            if (oldSessions[i] != null && !isStale.test(oldSessions[i])) {
+                put(oldHighs[i], oldLows[i], oldPorts[i], oldSessions[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        this.addressHighs = new long[capacity];
+        this.addressLows = new long[capacity];
+        this.ports = new int[capacity];
+        this.sessions = new ParseThread[capacity];
+        this.size = 0;
+    }
+
+    private static int hash(long addressHigh, long addressLow, int port) {
+        long hash = (addressHigh * HASH_SEED + addressLow) * HASH_SEED + port;
+        hash *= HASH_SEED;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Description: Create the threads which run the session parsers. Virtual threads are used when
+ * they are required and the running JVM supports them, the tool is built for Java 8, so they are
+ * looked up by reflection and platform threads are used otherwise.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/15
+ */
+public class SessionThreadFactory implements ThreadFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionThreadFactory.class);
+    private static final String THREAD_NAME_PREFIX = "parse ";
+
+    private final ThreadFactory virtualThreadFactory;
+
+    /**
+     * Constructor
+     *
+     * @param isVirtual boolean whether to run session parsers on virtual threads
+     */
+    public SessionThreadFactory(boolean isVirtual) {
+        this.virtualThreadFactory = isVirtual ? createVirtualThreadFactory() : null;
+    }
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+        if (virtualThreadFactory != null) {
+            return virtualThreadFactory.newThread(runnable);
+        }
+        return new Thread(runnable);
+    }
+
+    /**
+     * Create and start the thread which runs the session parser
+     *
+     * @param session ParseThread the session parser
+     */
+    public void start(ParseThread session) {
+        Thread thread = newThread(session);
+        thread.setName(THREAD_NAME_PREFIX + session.getSessionId());
+        thread.start();
+    }
+
+    /**
+     * Whether the session parsers run on virtual threads
+     *
+     * @return boolean true if virtual threads are used
+     */
+    public boolean isVirtual() {
+        return virtualThreadFactory != null;
+    }
+
+    private static ThreadFactory createVirtualThreadFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+            LOGGER.info("Session parsers run on virtual threads.");
+            return threadFactory;
+        } catch (NoSuchMethodException | ClassNotFoundException | IllegalAccessException
+                | InvocationTargetException e) {
+            LOGGER.warn("Virtual thread is not supported by the current JVM {}, session parsers run on "
+                    + "platform threads.", System.getProperty("java.version"));
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.PacketData;
+import org.opengauss.tool.utils.ThreadExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: A fixed set of workers which drive the session parsers, sessions are sharded to
+ * workers by the hash of the client id, so every session is always parsed by the same worker and
+ * the thread count follows the worker count instead of the connection count.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/14
+ */
+public class SessionWorkerPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SessionWorkerPool.class);
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final SessionWorker[] workers;
+
+    /**
+     * Constructor
+     *
+     * @param workerCount int the worker count
+     */
+    public SessionWorkerPool(int workerCount) {
+        this.workers = new SessionWorker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new SessionWorker(i);
+            workers[i].start();
+        }
+        LOGGER.info("Session worker pool started with {} workers.", workerCount);
+    }
+
+    /**
+     * Skip the expired gaps of the session, the owner worker is woken up when the session may be parsable
+     *
+     * @param session ParseThread the session parser
+     * @param microsecondTimestamp long the capture time of the latest distributed packet
+     */
+    public void expire(ParseThread session, long microsecondTimestamp) {
+        if (session.expireHeldSegments(microsecondTimestamp)) {
+            getWorker(session).wake(session);
+        }
+    }
+
+    /**
+     * Dispatch packet to the session, the owner worker is woken up when the session may be parsable
+     *
+     * @param session ParseThread the session parser
+     * @param packetData PacketData the packet data
+     */
+    public void dispatch(ParseThread session, PacketData packetData) {
+        if (session.appendPacket(packetData)) {
+            getWorker(session).wake(session);
+        }
+    }
+
+    /**
+     * Inform workers that all packets have been distributed, the workers parse the remaining packets
+     * of their sessions and then exit
+     */
+    public void finish() {
+        for (SessionWorker worker : workers) {
+            worker.isDistributeFinished = true;
+        }
+    }
+
+    private SessionWorker getWorker(ParseThread session) {
+        return workers[(session.getSessionId().hashCode() & Integer.MAX_VALUE) % workers.length];
+    }
+
+    private static final class SessionWorker extends Thread {
+        private final BlockingQueue<ParseThread> wakeQueue;
+        private final Set<ParseThread> sessions;
+        private volatile boolean isDistributeFinished;
+
+        private SessionWorker(int index) {
+            this.wakeQueue = new LinkedBlockingQueue<>();
+            this.sessions = Collections.newSetFromMap(new IdentityHashMap<>());
+            setName("session worker " + index);
+        }
+
+        private void wake(ParseThread session) {
+            wakeQueue.add(session);
+        }
+
+        @Override
+        public void run() {
+            Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
+            while (true) {
+                ParseThread session;
+                try {
+                    session = wakeQueue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    LOGGER.error("Session worker {} is interrupted.", getName());
+                    break;
+                }
+                if (session == null) {
+                    if (isDistributeFinished) {
+                        break;
+                    }
+                    continue;
+                }
+                parseCompleteExchanges(session);
+            }
+            parseRemainingPackets();
+        }
+
+        private void parseCompleteExchanges(ParseThread session) {
+            if (session.isParseFinished()) {
+                session.getPacketQueue().clear();
+                sessions.remove(session);
+                return;
+            }
+            sessions.add(session);
+            while (session.hasCompleteExchange()) {
+                if (!session.parseNextMessage()) {
+                    session.end();
+                    sessions.remove(session);
+                    return;
+                }
+            }
+        }
+
+        private void parseRemainingPackets() {
+            for (ParseThread session : sessions) {
+                if (session.isParseFinished()) {
+                    continue;
+                }
+                boolean hasNextMessage = true;
+                while (hasNextMessage) {
+                    hasNextMessage = session.parseNextMessage();
+                }
+                session.end();
+            }
+            sessions.clear();
+            LOGGER.info("Session worker {} has parsed all sessions.", getName());
+        }
+    }
+}
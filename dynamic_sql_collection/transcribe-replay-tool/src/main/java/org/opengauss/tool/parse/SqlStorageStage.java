@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.SessionInfo;
+import org.opengauss.tool.parse.object.SqlInfo;
+import org.opengauss.tool.utils.ThreadExceptionHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Description: Dedicated storage stage behind the sql merge. The merge fills one of two sql buffers
+ * while the stage writes the other, the filled buffers and the session batches are written in the
+ * order they are submitted, so that the merge does not wait for the storage latency unless it is a
+ * whole batch ahead. The storage lag and the count of pending batches are reported.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/20
+ */
+public class SqlStorageStage implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlStorageStage.class);
+    private static final int BUFFER_COUNT = 2;
+    private static final long POLL_TIMEOUT_MILLIS = 100L;
+
+    private final Consumer<List<SqlInfo>> sqlWriter;
+    private final Consumer<Set<SessionInfo>> sessionWriter;
+    private final BlockingQueue<List<SqlInfo>> freeBuffers;
+    private final BlockingQueue<StorageBatch> pendingBatches;
+    private final CountDownLatch finishedLatch;
+    private volatile boolean isClosed;
+    private long storedBatchCount;
+    private long totalLagMillis;
+    private long maxLagMillis;
+    private int maxPendingCount;
+
+    /**
+     * Constructor
+     *
+     * @param sqlWriter Consumer<List<SqlInfo>> writes a batch of sql to the storage
+     * @param sessionWriter Consumer<Set<SessionInfo>> writes a batch of session information to the storage
+     */
+    public SqlStorageStage(Consumer<List<SqlInfo>> sqlWriter, Consumer<Set<SessionInfo>> sessionWriter) {
+        this.sqlWriter = sqlWriter;
+        this.sessionWriter = sessionWriter;
+        this.freeBuffers = new ArrayBlockingQueue<>(BUFFER_COUNT);
+        this.pendingBatches = new ArrayBlockingQueue<>(BUFFER_COUNT * 2);
+        this.finishedLatch = new CountDownLatch(1);
+        for (int i = 0; i < BUFFER_COUNT; i++) {
+            freeBuffers.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Take a free sql buffer, waits until the stage has written one
+     *
+     * @return List<SqlInfo> the empty buffer
+     */
+    public List<SqlInfo> acquireBuffer() {
+        try {
+            List<SqlInfo> buffer;
+            while ((buffer = freeBuffers.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                if (finishedLatch.getCount() == 0) {
+                    throw new IllegalStateException("The sql storage stage has stopped.");
+                }
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a free sql buffer.", e);
+        }
+    }
+
+    /**
+     * Hand a filled sql buffer to the stage in exchange for a free one
+     *
+     * @param buffer List<SqlInfo> the filled buffer
+     * @param isBlocking boolean whether to wait for a free buffer when both buffers are in use
+     * @return List<SqlInfo> the free buffer, or the given buffer to keep filling if no buffer is free
+     */
+    public List<SqlInfo> swap(List<SqlInfo> buffer, boolean isBlocking) {
+        if (buffer.isEmpty()) {
+            return buffer;
+        }
+        List<SqlInfo> freeBuffer = isBlocking ? acquireBuffer() : freeBuffers.poll();
+        if (freeBuffer == null) {
+            return buffer;
+        }
+        submit(new StorageBatch(buffer, null));
+        return freeBuffer;
+    }
+
+    /**
+     * Queue a batch of session information, it is written after the sql submitted before it
+     *
+     * @param sessionSet Set<SessionInfo> the session information, owned by the stage from now on
+     */
+    public void submitSessions(Set<SessionInfo> sessionSet) {
+        if (!sessionSet.isEmpty()) {
+            submit(new StorageBatch(null, sessionSet));
+        }
+    }
+
+    /**
+     * Get the count of batches waiting to be written
+     *
+     * @return int the count
+     */
+    public int getPendingCount() {
+        return pendingBatches.size();
+    }
+
+    /**
+     * Stop accepting batches and wait until the pending ones are written
+     */
+    public void close() {
+        isClosed = true;
+        try {
+            finishedLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info("Sql storage stage wrote {} batches, average lag is {} ms, max lag is {} ms, "
+                + "max pending batch count is {}.", storedBatchCount,
+                storedBatchCount == 0 ? 0 : totalLagMillis / storedBatchCount, maxLagMillis, maxPendingCount);
+    }
+
+    @Override
+    public void run() {
+        Thread.currentThread().setUncaughtExceptionHandler(new ThreadExceptionHandler());
+        try {
+            while (!isClosed || !pendingBatches.isEmpty()) {
+                StorageBatch batch = pendingBatches.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    store(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finishedLatch.countDown();
+        }
+    }
+
+    private void submit(StorageBatch batch) {
+        try {
+            pendingBatches.put(batch);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting a storage batch.", e);
+        }
+        maxPendingCount = Math.max(maxPendingCount, pendingBatches.size());
+    }
+
+    private void store(StorageBatch batch) {
+        if (batch.sqlList != null) {
+            sqlWriter.accept(batch.sqlList);
+            int sqlCount = batch.sqlList.size();
+            batch.sqlList.clear();
+            freeBuffers.add(batch.sqlList);
+            long lagMillis = System.currentTimeMillis() - batch.submitTimeMillis;
+            storedBatchCount++;
+            totalLagMillis += lagMillis;
+            maxLagMillis = Math.max(maxLagMillis, lagMillis);
+            LOGGER.debug("Stored {} sql, storage lag is {} ms, {} batches are pending.", sqlCount, lagMillis,
+                    pendingBatches.size());
+        } else {
+            sessionWriter.accept(batch.sessionSet);
+        }
+    }
+
+    private static final class StorageBatch {
+        private final List<SqlInfo> sqlList;
+        private final Set<SessionInfo> sessionSet;
+        private final long submitTimeMillis;
+
+        private StorageBatch(List<SqlInfo> sqlList, Set<SessionInfo> sessionSet) {
+            this.sqlList = sqlList;
+            this.sessionSet = sessionSet;
+            this.submitTimeMillis = System.currentTimeMillis();
+        }
+    }
+}
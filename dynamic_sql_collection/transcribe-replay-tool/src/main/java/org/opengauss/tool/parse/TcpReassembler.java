@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.parse.object.PacketData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Description: Reassemble the TCP segments of one direction of a session, segments are released to
+ * the sink in sequence order, retransmitted bytes are trimmed and out of order segments are held in
+ * a bounded reorder buffer. A gap is skipped when the buffer is full, when the oldest held segment
+ * waits longer than the gap timeout by the capture clock, when the opposite direction sends data,
+ * or when the stream is flushed, the first segment after a skipped gap is marked so that the parser
+ * can drop the damaged message.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/16
+ */
+public class TcpReassembler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpReassembler.class);
+    private static final long SEQUENCE_MASK = 0xFFFFFFFFL;
+
+    private final String flowId;
+    private final int windowSize;
+    private final long gapTimeoutMicros;
+    private final Consumer<PacketData> sink;
+    private final List<PacketData> reorderBuffer;
+    private long nextSeqNum;
+    private boolean isInitialized;
+    private boolean isAfterGap;
+    private long duplicateCount;
+    private long gapCount;
+
+    /**
+     * Constructor
+     *
+     * @param flowId String the flow id used in logs
+     * @param windowSize int the max count of out of order segments held
+     * @param gapTimeoutMillis long the max capture time in milliseconds to wait for a missing segment
+     * @param sink Consumer<PacketData> receives the in order segments
+     */
+    public TcpReassembler(String flowId, int windowSize, long gapTimeoutMillis, Consumer<PacketData> sink) {
+        this.flowId = flowId;
+        this.windowSize = windowSize;
+        this.gapTimeoutMicros = gapTimeoutMillis * 1000L;
+        this.sink = sink;
+        this.reorderBuffer = new ArrayList<>();
+    }
+
+    /**
+     * Accept a captured segment
+     *
+     * @param segment PacketData the segment
+     */
+    public void accept(PacketData segment) {
+        int length = segment.getData().length;
+        if (length == 0) {
+            return;
+        }
+        if (!isInitialized) {
+            nextSeqNum = segment.getSeqNum();
+            isInitialized = true;
+        }
+        int offset = getOffset(segment);
+        if (offset + length <= 0) {
+            duplicateCount++;
+            return;
+        }
+        if (offset > 0) {
+            hold(segment, offset);
+            if (reorderBuffer.size() > windowSize) {
+                skipGap("reorder window is full");
+            }
+            return;
+        }
+        release(segment, offset);
+        releaseHeldSegments();
+    }
+
+    /**
+     * Skip the gaps while the oldest held segment has waited longer than the gap timeout
+     *
+     * @param microsecondTimestamp long the current capture time
+     */
+    public void expire(long microsecondTimestamp) {
+        while (!reorderBuffer.isEmpty() && microsecondTimestamp - getOldestHeldTimestamp() > gapTimeoutMicros) {
+            skipGap("gap timeout");
+        }
+    }
+
+    /**
+     * Get the capture time after which the held segments expire
+     *
+     * @return long the microsecond timestamp, Long.MAX_VALUE if no segment is held
+     */
+    public long getExpireTime() {
+        return reorderBuffer.isEmpty() ? Long.MAX_VALUE : getOldestHeldTimestamp() + gapTimeoutMicros;
+    }
+
+    /**
+     * Release all held segments, the gaps are skipped at once. A response means the whole request has
+     * been sent and vice versa, so the missing bytes of the opposite direction will never come in time.
+     *
+     * @param reason String the reason written to the log
+     */
+    public void skipGaps(String reason) {
+        while (!reorderBuffer.isEmpty()) {
+            skipGap(reason);
+        }
+    }
+
+    /**
+     * Release all held segments, the remaining gaps are skipped
+     */
+    public void flush() {
+        skipGaps("stream end");
+        if (duplicateCount > 0 || gapCount > 0) {
+            LOGGER.debug("Reassembled {}, {} duplicate segments are dropped, {} gaps are skipped.", flowId,
+                    duplicateCount, gapCount);
+        }
+    }
+
+    /**
+     * Get the smallest packet id of the held segments
+     *
+     * @return long the packet id, Long.MAX_VALUE if no segment is held
+     */
+    public long getOldestHeldPacketId() {
+        long packetId = Long.MAX_VALUE;
+        for (PacketData held : reorderBuffer) {
+            packetId = Math.min(packetId, held.getPacketId());
+        }
+        return packetId;
+    }
+
+    private long getOldestHeldTimestamp() {
+        long timestamp = Long.MAX_VALUE;
+        for (PacketData held : reorderBuffer) {
+            timestamp = Math.min(timestamp, held.getMicrosecondTimestamp());
+        }
+        return timestamp;
+    }
+
+    private int getOffset(PacketData segment) {
+        return (int) ((segment.getSeqNum() - nextSeqNum) & SEQUENCE_MASK);
+    }
+
+    private void hold(PacketData segment, int offset) {
+        int index = 0;
+        while (index < reorderBuffer.size()) {
+            PacketData held = reorderBuffer.get(index);
+            int heldOffset = getOffset(held);
+            if (heldOffset == offset) {
+                duplicateCount++;
+                if (segment.getData().length > held.getData().length) {
+                    reorderBuffer.set(index, segment);
+                }
+                return;
+            }
+            if (heldOffset > offset) {
+                break;
+            }
+            index++;
+        }
+        reorderBuffer.add(index, segment);
+    }
+
+    private void release(PacketData segment, int offset) {
+        if (offset < 0) {
+            segment.clonePacketData(segment.getData(), -offset, segment.getData().length + offset);
+            segment.setSeqNum(nextSeqNum);
+        }
+        if (isAfterGap) {
+            segment.setAfterGap(true);
+            isAfterGap = false;
+        }
+        nextSeqNum = (nextSeqNum + segment.getData().length) & SEQUENCE_MASK;
+        sink.accept(segment);
+    }
+
+    private void releaseHeldSegments() {
+        while (!reorderBuffer.isEmpty()) {
+            PacketData held = reorderBuffer.get(0);
+            int offset = getOffset(held);
+            if (offset > 0) {
+                return;
+            }
+            reorderBuffer.remove(0);
+            if (offset + held.getData().length <= 0) {
+                duplicateCount++;
+                continue;
+            }
+            release(held, offset);
+        }
+    }
+
+    private void skipGap(String reason) {
+        PacketData held = reorderBuffer.get(0);
+        LOGGER.info("Packets from {} between seq {} and {} are lost, skip them because of {}.", flowId,
+                nextSeqNum, held.getSeqNum(), reason);
+        nextSeqNum = held.getSeqNum();
+        isAfterGap = true;
+        gapCount++;
+        releaseHeldSegments();
+    }
+}
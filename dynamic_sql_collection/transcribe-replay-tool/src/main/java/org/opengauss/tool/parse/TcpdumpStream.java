@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.parse;
+
+import org.opengauss.tool.config.parse.ParseConfig;
+import org.opengauss.tool.utils.ConfigReader;
+import org.opengauss.tool.utils.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Description: tcpdump process started by the parser, which writes the captured packets to its standard
+ * output as a pcap stream, so that the packets are parsed as soon as they are captured instead of after
+ * a pcap file is rotated. The capture stops after the capture duration, after the parse max time, or
+ * once the end flag file appears in the tcpdump file path.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/26
+ */
+public class TcpdumpStream implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpdumpStream.class);
+    private static final String END_FLAG = "endFile";
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final long MILLIS_OF_MINUTE = 60000L;
+    private static final long STOP_TIMEOUT_SECONDS = 10L;
+
+    private final ParseConfig config;
+    private Process process;
+    private ScheduledExecutorService monitor;
+    private long startTimeMillis;
+
+    /**
+     * Constructor
+     *
+     * @param config ParseConfig the config
+     */
+    public TcpdumpStream(ParseConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Start tcpdump
+     *
+     * @return InputStream the pcap stream
+     * @throws IOException if tcpdump can not be started
+     */
+    public InputStream start() throws IOException {
+        List<String> command = buildCommand();
+        process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        startTimeMillis = System.currentTimeMillis();
+        LOGGER.info("Start to stream network packets by {}.", String.join(" ", command));
+        monitor = Executors.newSingleThreadScheduledExecutor(runnable
+                -> new Thread(runnable, "Tcpdump Monitor Thread"));
+        monitor.scheduleAtFixedRate(this::checkStop, 1, 1, TimeUnit.SECONDS);
+        return new BufferedInputStream(process.getInputStream(), BUFFER_SIZE);
+    }
+
+    private List<String> buildCommand() {
+        // tcpdump -i eth0 -s 0 -U -w - port 3306, -U writes every packet out as soon as it is captured
+        List<String> command = new ArrayList<>();
+        command.add(config.getPluginPath() + ConfigReader.TCPDUMP);
+        command.add("-i");
+        command.add(config.getNetworkInterface());
+        command.add("-s");
+        command.add("0");
+        command.add("-U");
+        command.add("-w");
+        command.add("-");
+        command.add("port");
+        command.add(String.valueOf(config.getDatabaseServerPort()));
+        return command;
+    }
+
+    private void checkStop() {
+        long minutes = (System.currentTimeMillis() - startTimeMillis) / MILLIS_OF_MINUTE;
+        boolean isTimeout = minutes >= config.getCaptureDuration()
+                || (config.getParseMaxTime() > 0 && minutes >= config.getParseMaxTime());
+        if (isTimeout || FileUtils.isFinished(config.getPacketFilePath(), END_FLAG)) {
+            LOGGER.info("Stop streaming network packets after {} minutes.", minutes);
+            process.destroy();
+            monitor.shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (monitor != null) {
+            monitor.shutdownNow();
+        }
+        if (process == null) {
+            return;
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+        LOGGER.info("The tcpdump stream is closed.");
+    }
+}
@@ -16,7 +16,8 @@
 package org.opengauss.tool.parse.object;
 
 import lombok.Data;
-import org.opengauss.tool.utils.CommonParser;
+
+import java.nio.ByteBuffer;
 
 /**
  * Description: Origin packet
@@ -26,11 +27,17 @@ import org.opengauss.tool.utils.CommonParser;
  */
 @Data
 public class OriginPacket {
+    private static final int IP_VERSION_INDEX = 14;
+    private static final int IPV6_VERSION_FLAG = 0x60;
+
     private String fileName;
     private int packetIdInFile;
-    private byte[] originData;
+    private ByteBuffer frame;
+    private int frameOffset;
+    private int length;
     private long microsecondTimestamp;
     private String ipType;
+    private PacketBatch batch;
 
     /**
      * Constructor
@@ -41,15 +48,55 @@ public class OriginPacket {
      * @param microsecondTimestamp long the miscrosecond timestamp
      */
     public OriginPacket(String fileName, int packetIdInFile, byte[] originData, long microsecondTimestamp) {
+        this(fileName, packetIdInFile, ByteBuffer.wrap(originData), microsecondTimestamp);
+    }
+
+    /**
+     * Constructor, the frame is a view of the packet file and is not copied
+     *
+     * @param fileName             String the packet file name
+     * @param packetIdInFile       int the packet id in it's file
+     * @param frame                ByteBuffer the frame view, position 0 and limit the frame length
+     * @param microsecondTimestamp long the miscrosecond timestamp
+     */
+    public OriginPacket(String fileName, int packetIdInFile, ByteBuffer frame, long microsecondTimestamp) {
+        this.fileName = fileName;
+        this.packetIdInFile = packetIdInFile;
+        this.frame = frame;
+        this.length = frame.limit();
+        this.microsecondTimestamp = microsecondTimestamp;
+        setIpType(frame.get(IP_VERSION_INDEX) & 0xFF);
+    }
+
+    /**
+     * Constructor of a reusable view, the frames are located in the buffer by reset
+     *
+     * @param buffer ByteBuffer the buffer which holds the frames
+     */
+    public OriginPacket(ByteBuffer buffer) {
+        this.frame = buffer;
+    }
+
+    /**
+     * Reset the reusable view to another frame of the buffer
+     *
+     * @param fileName             String the packet file name
+     * @param packetIdInFile       int the packet id in it's file
+     * @param frameOffset          int the frame offset in the buffer
+     * @param length               int the frame length
+     * @param microsecondTimestamp long the miscrosecond timestamp
+     */
+    public void reset(String fileName, int packetIdInFile, int frameOffset, int length, long microsecondTimestamp) {
         this.fileName = fileName;
         this.packetIdInFile = packetIdInFile;
-        this.originData = originData;
+        this.frameOffset = frameOffset;
+        this.length = length;
         this.microsecondTimestamp = microsecondTimestamp;
-        setIpType(CommonParser.parseByBigEndian(originData, 14, 15));
+        setIpType(frame.get(frameOffset + IP_VERSION_INDEX) & 0xFF);
     }
 
-    private void setIpType(String ipType) {
-        if ("60".equals(ipType)) {
+    private void setIpType(int versionFlag) {
+        if (versionFlag == IPV6_VERSION_FLAG) {
             this.ipType = ProtocolConstant.IPV6;
         } else {
             this.ipType = ProtocolConstant.IPV4;
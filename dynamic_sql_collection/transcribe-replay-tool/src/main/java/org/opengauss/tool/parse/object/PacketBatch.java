@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse.object;
+
+/**
+ * Description: A batch of packets decoded from consecutive frames of a pcap file, with the client of
+ * each packet, handed from a pcap read worker to the distributor as one slot of the ring buffer.
+ * The frames filtered by the decoder are only counted, so that the distributor numbers the packets
+ * the same as it numbers the frames it decodes itself.
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PacketBatch {
+    /**
+     * The max count of frames of a batch
+     */
+    public static final int MAX_FRAME_COUNT = 1024;
+
+    /**
+     * The payload bytes at which a batch is full
+     */
+    public static final int MAX_PAYLOAD_BYTES = 1024 * 1024;
+
+    private final PacketData[] packets;
+    private final long[] clientHighs;
+    private final long[] clientLows;
+    private final int[] clientPorts;
+    private final boolean[] ipv4Flags;
+    private final int[] filteredCounts;
+    private int size;
+    private int frameCount;
+    private int filteredCount;
+    private long frameBytes;
+    private long payloadBytes;
+    private long lastTimestamp;
+
+    /**
+     * Constructor
+     */
+    public PacketBatch() {
+        this.packets = new PacketData[MAX_FRAME_COUNT];
+        this.clientHighs = new long[MAX_FRAME_COUNT];
+        this.clientLows = new long[MAX_FRAME_COUNT];
+        this.clientPorts = new int[MAX_FRAME_COUNT];
+        this.ipv4Flags = new boolean[MAX_FRAME_COUNT];
+        this.filteredCounts = new int[MAX_FRAME_COUNT];
+    }
+
+    /**
+     * Add a decoded packet
+     *
+     * @param packetData PacketData the packet, the packet id is left to the distributor
+     * @param isIpv4 boolean whether the client address is an IPv4 address
+     * @param clientHigh long the high long of the client address
+     * @param clientLow long the low long of the client address
+     * @param clientPort int the client port
+     * @param length int the frame length
+     */
+    public void add(PacketData packetData, boolean isIpv4, long clientHigh, long clientLow, int clientPort,
+            int length) {
+        packets[size] = packetData;
+        ipv4Flags[size] = isIpv4;
+        clientHighs[size] = clientHigh;
+        clientLows[size] = clientLow;
+        clientPorts[size] = clientPort;
+        filteredCounts[size] = filteredCount;
+        size++;
+        filteredCount = 0;
+        payloadBytes += packetData.getData().length;
+        countFrame(length, packetData.getMicrosecondTimestamp());
+    }
+
+    /**
+     * Count a frame filtered by the decoder
+     *
+     * @param length int the frame length
+     * @param microsecondTimestamp long the microsecond timestamp
+     */
+    public void addFiltered(int length, long microsecondTimestamp) {
+        filteredCount++;
+        countFrame(length, microsecondTimestamp);
+    }
+
+    private void countFrame(int length, long microsecondTimestamp) {
+        frameCount++;
+        frameBytes += length;
+        lastTimestamp = microsecondTimestamp;
+    }
+
+    /**
+     * Whether the batch is full
+     *
+     * @return boolean true if no more frame can be added
+     */
+    public boolean isFull() {
+        return frameCount == MAX_FRAME_COUNT || payloadBytes >= MAX_PAYLOAD_BYTES;
+    }
+
+    /**
+     * Get the count of packets
+     *
+     * @return int the count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get a packet
+     *
+     * @param index int the packet index
+     * @return PacketData the packet
+     */
+    public PacketData getPacket(int index) {
+        return packets[index];
+    }
+
+    /**
+     * Whether the client address of a packet is an IPv4 address
+     *
+     * @param index int the packet index
+     * @return boolean true if it is an IPv4 address
+     */
+    public boolean isIpv4(int index) {
+        return ipv4Flags[index];
+    }
+
+    /**
+     * Get the high long of the client address of a packet
+     *
+     * @param index int the packet index
+     * @return long the high long of the address
+     */
+    public long getClientHigh(int index) {
+        return clientHighs[index];
+    }
+
+    /**
+     * Get the low long of the client address of a packet
+     *
+     * @param index int the packet index
+     * @return long the low long of the address
+     */
+    public long getClientLow(int index) {
+        return clientLows[index];
+    }
+
+    /**
+     * Get the client port of a packet
+     *
+     * @param index int the packet index
+     * @return int the port
+     */
+    public int getClientPort(int index) {
+        return clientPorts[index];
+    }
+
+    /**
+     * Get the count of frames filtered between a packet and the previous one
+     *
+     * @param index int the packet index
+     * @return int the count
+     */
+    public int getFilteredBefore(int index) {
+        return filteredCounts[index];
+    }
+
+    /**
+     * Get the count of frames filtered after the last packet
+     *
+     * @return int the count
+     */
+    public int getTrailingFiltered() {
+        return filteredCount;
+    }
+
+    /**
+     * Get the count of frames, the filtered ones included
+     *
+     * @return int the count
+     */
+    public int getFrameCount() {
+        return frameCount;
+    }
+
+    /**
+     * Get the bytes of the frames, the filtered ones included
+     *
+     * @return long the bytes
+     */
+    public long getFrameBytes() {
+        return frameBytes;
+    }
+
+    /**
+     * Get the microsecond timestamp of the last frame
+     *
+     * @return long the microsecond timestamp
+     */
+    public long getLastTimestamp() {
+        return lastTimestamp;
+    }
+}
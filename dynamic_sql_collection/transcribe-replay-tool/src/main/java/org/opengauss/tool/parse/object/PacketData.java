@@ -17,6 +17,7 @@ package org.opengauss.tool.parse.object;
 
 import lombok.Data;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -40,6 +41,7 @@ public class PacketData {
     private String clientId;
     private AtomicLong microsecondTimestamp;
     private long seqNum;
+    private boolean isAfterGap;
 
     /**
      * Constructor
@@ -60,26 +62,6 @@ public class PacketData {
         this.microsecondTimestamp = new AtomicLong();
     }
 
-    /**
-     * Build packet data
-     *
-     * @param sourceIp        String the source ip
-     * @param sourcePort      int the source port
-     * @param destinationIp   String the destination ip
-     * @param destinationPort int the destination port
-     */
-    public void build(String sourceIp, int sourcePort, String destinationIp, int destinationPort) {
-        this.sourceIp = sourceIp;
-        this.sourcePort = sourcePort;
-        this.destinationIp = destinationIp;
-        this.destinationPort = destinationPort;
-        if (ProtocolConstant.RESPONSE.equals(packetType)) {
-            this.clientId = destinationIp + ":" + destinationPort;
-        } else {
-            this.clientId = sourceIp + ":" + sourcePort;
-        }
-    }
-
     /**
      * Clone packet data
      *
@@ -90,6 +72,24 @@ public class PacketData {
         this.data = Arrays.copyOfRange(packet, start, packet.length);
     }
 
+    /**
+     * Clone packet data from a frame view, only the payload is copied
+     *
+     * @param frame ByteBuffer the frame view
+     * @param start int the start index of packet data
+     * @param end int the end index of packet data, exclusive, the ethernet padding is excluded
+     */
+    public void clonePacketData(ByteBuffer frame, int start, int end) {
+        if (frame.hasArray()) {
+            this.data = Arrays.copyOfRange(frame.array(), frame.arrayOffset() + start, frame.arrayOffset() + end);
+            return;
+        }
+        ByteBuffer payload = frame.duplicate();
+        payload.limit(end).position(start);
+        this.data = new byte[payload.remaining()];
+        payload.get(this.data);
+    }
+
     public void clonePacketData(byte[] data, int start, int length) {
         this.data = Arrays.copyOfRange(data, start, start + length);
     }
@@ -16,26 +16,75 @@
 package org.opengauss.tool.parse.object;
 
 import lombok.Data;
+import org.opengauss.tool.utils.ResultDigest;
+import org.opengauss.tool.utils.ResultRowSink;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Description: select result object
+ * Description: select result object, the rows are collected or only digested while they are decoded
  *
  * @author : zhangting
  * @since : 2025/01/14
  */
 @Data
-public class SelectResult {
+public class SelectResult implements ResultRowSink {
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
     private long packetId;
     private SqlInfo previousSql;
     private long rowCount;
     private List<List<String>> dataList;
+    private ResultDigest digest;
+    private List<String> currentRow;
 
-    public SelectResult(long packetId, SqlInfo previousSql, long rowCount, List<List<String>> dataList) {
+    /**
+     * Constructor
+     *
+     * @param packetId long the packet id of the result
+     * @param previousSql SqlInfo the select sql
+     * @param isDigestOnly boolean true to keep only the digests and the row count
+     */
+    public SelectResult(long packetId, SqlInfo previousSql, boolean isDigestOnly) {
         this.packetId = packetId;
         this.previousSql = previousSql;
-        this.rowCount = rowCount;
-        this.dataList = dataList;
+        if (isDigestOnly) {
+            this.digest = new ResultDigest();
+        } else {
+            this.dataList = new ArrayList<>();
+            this.currentRow = new ArrayList<>();
+        }
+    }
+
+    @Override
+    public void addValue(byte[] data, int offset, int length) {
+        if (digest != null) {
+            digest.addValue(data, offset, length);
+        } else {
+            currentRow.add(new String(data, offset, length, CHARSET));
+        }
+    }
+
+    @Override
+    public void addNull() {
+        if (digest != null) {
+            digest.addNull();
+        } else {
+            currentRow.add(null);
+        }
+    }
+
+    @Override
+    public void endRow() {
+        if (digest != null) {
+            digest.endRow();
+        } else {
+            dataList.add(currentRow);
+            currentRow = new ArrayList<>();
+        }
+        rowCount++;
     }
 }
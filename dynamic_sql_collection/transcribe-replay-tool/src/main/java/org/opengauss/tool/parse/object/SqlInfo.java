@@ -190,12 +190,12 @@ public class SqlInfo {
     }
 
     /**
-     * Set duration
+     * Set duration, every packet of the response moves the end time forward to it
      *
      * @param endTime long the end time
      */
     public void setExecuteDuration(long endTime) {
-        if (this.endTime == 0) {
+        if (endTime > this.endTime) {
             this.endTime = endTime;
             this.executeDuration = endTime - startTime;
         }
@@ -18,6 +18,7 @@ package org.opengauss.tool.parse.ogparser;
 import org.opengauss.tool.parse.ValueConverter;
 import org.opengauss.tool.parse.object.PreparedValue;
 import org.opengauss.tool.parse.object.ProtocolConstant;
+import org.opengauss.tool.utils.ByteCodec;
 import org.opengauss.tool.utils.CommonParser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,34 +71,30 @@ public final class OgDataTypeConverter {
     };
 
     private static PreparedValue convertBinaryDoubleValue(byte[] data, int start) {
-        int len = CommonParser.parseIntByBigEndian(data, start, start + INT_LENGTH);
-        long bits = CommonParser.parseLongByBigEndian(data, start, start + len);
+        int len = ByteCodec.readIntByBigEndian(data, start, start + INT_LENGTH);
+        long bits = ByteCodec.readLongByBigEndian(data, start + INT_LENGTH, start + INT_LENGTH + len);
         double value = Double.longBitsToDouble(bits);
         return new PreparedValue("double", String.valueOf(value), INT_LENGTH + len);
     }
 
     private static PreparedValue convertBinaryIntValue(byte[] data, int start) {
-        int len = CommonParser.parseIntByBigEndian(data, start, start + INT_LENGTH);
+        int len = ByteCodec.readIntByBigEndian(data, start, start + INT_LENGTH);
         if (len == 0) {
             return new PreparedValue("int", null, INT_LENGTH);
         }
         if (len <= INT_LENGTH) {
-            int value = CommonParser.parseIntByBigEndian(data, start + INT_LENGTH, start + INT_LENGTH + len);
+            int value = ByteCodec.readIntByBigEndian(data, start + INT_LENGTH, start + INT_LENGTH + len);
             return new PreparedValue("int", String.valueOf(value), INT_LENGTH + len);
         }
-        long value = CommonParser.parseLongByBigEndian(data, start + INT_LENGTH, start + INT_LENGTH + len);
+        long value = ByteCodec.readLongByBigEndian(data, start + INT_LENGTH, start + INT_LENGTH + len);
         return new PreparedValue("long", String.valueOf(value), INT_LENGTH + len);
     }
 
     private static PreparedValue convertStringValue(byte[] data, int start) {
-        int nullOffset = 0;
-        while (data[start + nullOffset] == -1) {
-            nullOffset++;
-            if (nullOffset == ProtocolConstant.OG_DATA_LENGTH_BYTES) {
-                return new PreparedValue(null, ProtocolConstant.OG_DATA_LENGTH_BYTES);
-            }
+        int length = ByteCodec.readIntByBigEndian(data, start, start + ProtocolConstant.OG_DATA_LENGTH_BYTES);
+        if (length == -1) {
+            return new PreparedValue(null, ProtocolConstant.OG_DATA_LENGTH_BYTES);
         }
-        int length = CommonParser.parseIntByBigEndian(data, start, start + ProtocolConstant.OG_DATA_LENGTH_BYTES);
         String value = CommonParser.parseByteToString(data, start + ProtocolConstant.OG_DATA_LENGTH_BYTES,
             start + ProtocolConstant.OG_DATA_LENGTH_BYTES + length);
         return new PreparedValue(value, ProtocolConstant.OG_DATA_LENGTH_BYTES + length);
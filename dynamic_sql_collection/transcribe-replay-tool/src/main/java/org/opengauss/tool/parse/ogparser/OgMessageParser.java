@@ -20,7 +20,9 @@ import org.opengauss.tool.parse.object.PacketData;
 import org.opengauss.tool.parse.object.PreparedValue;
 import org.opengauss.tool.parse.object.ProtocolConstant;
 import org.opengauss.tool.parse.object.SqlInfo;
+import org.opengauss.tool.utils.ByteCodec;
 import org.opengauss.tool.utils.CommonParser;
+import org.opengauss.tool.utils.ResultRowSink;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +30,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Arrays;
 
 /**
  * Description: openGauss protocol parse
@@ -39,7 +40,6 @@ import java.util.Arrays;
 public class OgMessageParser extends ParseThread {
     private static final Logger LOGGER = LoggerFactory.getLogger(OgMessageParser.class);
     private static final String DEFAULT_STATEMENT_NAME = "00";
-    private static final String NULL_HEX = "ffffffff";
 
     private String database;
     private Map<String, SqlInfo> preparedSqlMap;
@@ -53,23 +53,19 @@ public class OgMessageParser extends ParseThread {
      */
     public OgMessageParser(String sessionId) {
         super(sessionId);
-        preparedSqlMap = new HashMap<>();
+        preparedSqlMap = createPreparedSqlMap();
         sqlList = new ArrayList<>();
     }
 
     @Override
-    protected boolean isQuitMessage(PacketData packet) {
+    protected boolean isQuitPacket(PacketData packet) {
         byte[] data = packet.getData();
         if (data.length != ProtocolConstant.OG_DATA_TYPE_AND_LENGTH_BYTES) {
             return false;
         }
-        String requestType = CommonParser.parseByBigEndian(data, 0, 1);
+        String requestType = ByteCodec.toHex(data[0]);
         int len = CommonParser.parseIntByBigEndian(data, 1, ProtocolConstant.OG_DATA_TYPE_AND_LENGTH_BYTES);
-        if (requestType.equals(ProtocolConstant.OG_HEX_QUIT) && len == ProtocolConstant.OG_DATA_LENGTH_BYTES) {
-            quit(packet);
-            return true;
-        }
-        return false;
+        return requestType.equals(ProtocolConstant.OG_HEX_QUIT) && len == ProtocolConstant.OG_DATA_LENGTH_BYTES;
     }
 
     @Override
@@ -80,24 +76,29 @@ public class OgMessageParser extends ParseThread {
     }
 
     @Override
-    public synchronized void addSqLToQueue() {
+    protected synchronized void addSqLToQueue() {
         if (incompleteSql != null) {
             sqlQueue.addAll(sqlList);
             incompleteSql = null;
             sqlList.clear();
         }
+        pendingSqlId = Long.MAX_VALUE;
     }
 
     @Override
-    protected void end() {
+    public void end() {
         if (incompleteSql != null && incompleteSql.getEndTime() != 0) {
             sqlQueue.addAll(sqlList);
             incompleteSql = null;
             sqlList.clear();
         }
         isParseFinished.set(true);
-        LOGGER.debug("Packets from {} have been parsed completed.", sessionId);
-        interrupt();
+        LOGGER.debug("Packets from {} have been parsed completed, {}.", sessionId, getStateStats());
+    }
+
+    @Override
+    protected int getPreparedStatementCount() {
+        return preparedSqlMap.size();
     }
 
     @Override
@@ -108,7 +109,7 @@ public class OgMessageParser extends ParseThread {
         }
         List<PacketData> ogPacketList = splitPacket(packet);
         for (PacketData ogPacket : ogPacketList) {
-            char type = (char) Integer.parseInt(parsePacketType(ogPacket), 16);
+            char type = (char) ByteCodec.readUnsignedByte(ogPacket.getData(), 0);
             switch (type) {
                 case 'Q':
                     parseSql(ogPacket);
@@ -122,6 +123,9 @@ public class OgMessageParser extends ParseThread {
                 case 'U':
                     bindBatchParameter(ogPacket);
                     break;
+                case 'C':
+                    closeStatement(ogPacket);
+                    break;
                 default:
             }
         }
@@ -150,13 +154,7 @@ public class OgMessageParser extends ParseThread {
             return;
         }
         byte[] data = packet.getData();
-        int messageLength = 0;
-        try {
-            messageLength = CommonParser.parseIntByBigEndian(data, 0, ProtocolConstant.OG_DATA_LENGTH_BYTES);
-        } catch (NumberFormatException e) {
-            canParse = false;
-            return;
-        }
+        int messageLength = ByteCodec.readIntByBigEndian(data, 0, ProtocolConstant.OG_DATA_LENGTH_BYTES);
         if (messageLength != data.length) {
             canParse = false;
             return;
@@ -184,7 +182,7 @@ public class OgMessageParser extends ParseThread {
 
     @Override
     protected String parsePacketType(PacketData packet) {
-        return CommonParser.parseByBigEndian(packet.getData(), 0, 1);
+        return ByteCodec.toHex(packet.getData()[0]);
     }
 
     @Override
@@ -275,6 +273,22 @@ public class OgMessageParser extends ParseThread {
         sqlList.add(preparedSql);
     }
 
+    private void closeStatement(PacketData packet) {
+        int start = ProtocolConstant.OG_DATA_TYPE_AND_LENGTH_BYTES;
+        byte[] data = packet.getData();
+        // only a statement is closed here, closing a portal keeps its statement
+        if (data.length <= start || data[start] != 'S') {
+            return;
+        }
+        start++;
+        String statement = DEFAULT_STATEMENT_NAME;
+        int statementEnd = getStringEndIndex(data, start);
+        if (statementEnd != start) {
+            statement = CommonParser.parseByteToString(data, start, statementEnd).trim();
+        }
+        preparedSqlMap.remove(statement);
+    }
+
     private void bindBatchParameter(PacketData packet) {
         int start = ProtocolConstant.OG_DATA_TYPE_AND_LENGTH_BYTES;
         byte[] data = packet.getData();
@@ -343,61 +357,39 @@ public class OgMessageParser extends ParseThread {
         }
         if ((char) data[point] == 'T') {
             point++;
-            int rowDescLen = hexToDecimal(Arrays.copyOfRange(data, point, point + 4));
+            int rowDescLen = ByteCodec.readIntByBigEndian(data, point, point + 4);
             point = point + rowDescLen;
         }
         return point;
     }
 
     @Override
-    protected long parseRowPacket(byte[] data, int dataPoint, List<List<String>> dataList, PacketData packet) {
-        long rowCount = 0L;
+    protected void parseRowPacket(byte[] data, int dataPoint, ResultRowSink sink, PacketData packet) {
         int point = dataPoint;
         try {
             while ((char) data[point] == 'D') {
                 point = point + 5;
-                int fieldCount = hexToDecimal(Arrays.copyOfRange(data, point, point + 2));
+                int fieldCount = ByteCodec.readIntByBigEndian(data, point, point + 2);
                 point = point + 2;
-                List<String> row = new ArrayList<>();
                 for (int i = 0; i < fieldCount; i++) {
-                    int columnLen = hexToDecimal(Arrays.copyOfRange(data, point, point + 4));
+                    int columnLen = ByteCodec.readIntByBigEndian(data, point, point + 4);
                     point = point + 4;
                     if (columnLen == -1) {
-                        row.add(null);
+                        sink.addNull();
                         continue;
                     }
-                    String text = new String(data, point, columnLen, CHARSET);
-                    row.add(text);
+                    if (point + columnLen > data.length) {
+                        throw new IndexOutOfBoundsException("Row value exceeds the packet, end is "
+                                + (point + columnLen));
+                    }
+                    sink.addValue(data, point, columnLen);
                     point = point + columnLen;
                 }
-                rowCount++;
-                dataList.add(row);
+                sink.endRow();
             }
         } catch (IndexOutOfBoundsException e) {
             LOGGER.error("parse row packet error, fileName is {}, idInFile is {}, packetId is {}, sqlPacketId is {} : ",
                     packet.getLocationFile(), packet.getIdInFile(), packet.getPacketId(), previousSql.getPacketId(), e);
         }
-        return rowCount;
-    }
-
-    @Override
-    protected int hexToDecimal(byte[] bytes) {
-        StringBuilder hexString = new StringBuilder();
-        for (int i = 0; i < bytes.length; i++) {
-            String hex;
-            if (bytes[i] < 0) {
-                hex = Integer.toHexString(bytes[i] & 0xFF);
-            } else {
-                hex = Integer.toHexString(bytes[i]);
-            }
-            if (hex.length() == 1) {
-                hex = "0" + hex;
-            }
-            hexString.append(hex);
-        }
-        if (hexString.toString().equals(NULL_HEX)) {
-            return -1;
-        }
-        return Integer.parseInt(hexString.toString(), 16);
     }
 }
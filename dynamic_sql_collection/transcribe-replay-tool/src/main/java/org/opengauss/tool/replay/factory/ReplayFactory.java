@@ -41,7 +41,9 @@ public class ReplayFactory {
      */
     public static void buildStrategyMap(ReplayConfig replayConfig) {
         strategyMap.put("db", new ReplayDbTask(replayConfig));
-        strategyMap.put("json", new ReplayJsonTask(replayConfig));
+        ReplayMainTask fileTask = new ReplayJsonTask(replayConfig);
+        strategyMap.put("json", fileTask);
+        strategyMap.put("binary", fileTask);
     }
 
     /**
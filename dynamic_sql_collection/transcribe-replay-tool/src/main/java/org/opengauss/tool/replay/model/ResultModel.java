@@ -37,6 +37,8 @@ public class ResultModel {
     private JSONArray data;
     private long rowCount;
     private String sql;
+    private String orderedDigest;
+    private String unorderedDigest;
 
     public ResultModel(JSONObject jsonObject) {
         this.packetId = jsonObject.getIntValue("packetId");
@@ -44,5 +46,7 @@ public class ResultModel {
         this.data = jsonObject.getJSONArray("data");
         this.rowCount = jsonObject.getIntValue("rowCount");
         this.sql = jsonObject.getString("sql");
+        this.orderedDigest = jsonObject.getString("orderedDigest");
+        this.unorderedDigest = jsonObject.getString("unorderedDigest");
     }
 }
\ No newline at end of file
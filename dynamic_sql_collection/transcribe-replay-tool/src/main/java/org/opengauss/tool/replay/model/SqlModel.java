@@ -24,13 +24,15 @@ import lombok.Setter;
 import org.opengauss.tool.utils.DatabaseOperator;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 /**
  * SqlModel
@@ -74,14 +76,13 @@ public class SqlModel {
     private String sqlExplain;
 
     /**
-     * SqlModel instructor from db
+     * SqlModel instructor from db, the parameters are attached by loadParameters for a whole page
      *
      * @param rs rs
-     * @param storeConn storeConn
-     * @param tableName tableName
+     * @param isHasTimeColumn whether the result set has the time columns, checked once per result set
      * @throws SQLException SQLException
      */
-    public SqlModel(ResultSet rs, Connection storeConn, String tableName) throws SQLException {
+    public SqlModel(ResultSet rs, boolean isHasTimeColumn) throws SQLException {
         this.id = rs.getInt("id");
         this.packetId = rs.getLong("packet_id");
         this.isQuery = rs.getBoolean("is_query");
@@ -90,8 +91,8 @@ public class SqlModel {
         this.username = rs.getString("username").trim();
         this.schema = rs.getString("schema").trim();
         this.sql = rs.getString("sql");
-        this.parameters = this.isPrepared() ? getParamModels(storeConn, tableName, this.id) : new ArrayList<>();
-        if (isHasTimeColumn(rs)) {
+        this.parameters = new ArrayList<>();
+        if (isHasTimeColumn) {
             this.startTime = rs.getLong("start_time");
             this.endTime = rs.getLong("end_time");
             this.mysqlDuration = rs.getLong("execute_duration");
@@ -122,7 +123,14 @@ public class SqlModel {
         }
     }
 
-    private boolean isHasTimeColumn(ResultSet rs) throws SQLException {
+    /**
+     * Whether the sql table has the time columns
+     *
+     * @param rs the result set of the sql table
+     * @return boolean
+     * @throws SQLException SQLException
+     */
+    public static boolean isHasTimeColumn(ResultSet rs) throws SQLException {
         ResultSetMetaData rsmd = rs.getMetaData();
         for (int i = 1; i <= rsmd.getColumnCount(); i++) {
             if ("start_time".equals(rsmd.getColumnName(i))) {
@@ -132,23 +140,44 @@ public class SqlModel {
         return false;
     }
 
-    private List<ParamModel> getParamModels(Connection storeConn, String tableName, int id) throws SQLException {
-        String queryParamsSql = String.format(Locale.ROOT, "select * from %s where id = %d",
-                tableName + "_paras", id);
-        Statement stmt = null;
+    /**
+     * Load the parameters of the prepared sql of a page by one range scan, the sql are ordered by id
+     *
+     * @param storeConn storeConn
+     * @param tableName tableName
+     * @param sqlModels the sql of a page
+     * @throws SQLException SQLException
+     */
+    public static void loadParameters(Connection storeConn, String tableName, List<SqlModel> sqlModels)
+        throws SQLException {
+        Map<Integer, SqlModel> preparedSqlMap = new HashMap<>();
+        for (SqlModel sqlModel : sqlModels) {
+            if (sqlModel.isPrepared()) {
+                preparedSqlMap.put(sqlModel.getId(), sqlModel);
+            }
+        }
+        if (preparedSqlMap.isEmpty()) {
+            return;
+        }
+        String queryParamsSql = String.format(Locale.ROOT,
+            "select * from %s where id between ? and ? order by id, para_index", tableName + "_paras");
+        PreparedStatement stmt = null;
         ResultSet paramRs = null;
-        List<ParamModel> parameterList = new ArrayList<>();
         try {
-            stmt = storeConn.createStatement();
-            paramRs = stmt.executeQuery(queryParamsSql);
+            stmt = storeConn.prepareStatement(queryParamsSql);
+            stmt.setInt(1, sqlModels.get(0).getId());
+            stmt.setInt(2, sqlModels.get(sqlModels.size() - 1).getId());
+            paramRs = stmt.executeQuery();
             while (paramRs.next()) {
-                parameterList.add(new ParamModel(paramRs));
+                SqlModel sqlModel = preparedSqlMap.get(paramRs.getInt("id"));
+                if (sqlModel != null) {
+                    sqlModel.getParameters().add(new ParamModel(paramRs));
+                }
             }
         } finally {
             DatabaseOperator.closeResultSet(paramRs);
             DatabaseOperator.closeStatement(stmt);
         }
-        return parameterList;
     }
 
     private List<ParamModel> getParamModels(JSONObject jsonObject) {
@@ -39,6 +39,8 @@ public class ReplayLogOperator {
             LoggerFactory.getLogger("org.opengauss.tools.replay.FailSqlLogger");
     private static final Logger SLOW_SQL_LOGGER =
             LoggerFactory.getLogger("org.opengauss.tools.replay.SlowSqlLogger");
+    private static final Logger SAMPLED_PLAN_LOGGER =
+            LoggerFactory.getLogger("org.opengauss.tools.replay.SampledPlanLogger");
     private static final Logger TOP_SLOW_SQL_LOGGER =
             LoggerFactory.getLogger("org.opengauss.tools.replay.TopSlowSqlLogger");
     private static final Logger DATA_DIFF_LOGGER =
@@ -65,6 +67,24 @@ public class ReplayLogOperator {
                 System.lineSeparator() + "        ", opgsDuration);
     }
 
+    /**
+     * print the plan of a sampled sql
+     *
+     * @param sqlModel sqlModel
+     * @param opgsDuration opgsDuration
+     * @param explain explain
+     */
+    public void printSampledPlanLog(SqlModel sqlModel, long opgsDuration, String explain) {
+        SAMPLED_PLAN_LOGGER.info("{}Sql Id is: {}{}Sql is: {} {}Sql Parameters: {} {}Execute Plan is :{} "
+                        + "{}Sink database Execute Duration:{} μs",
+                System.lineSeparator() + "        ", sqlModel.getId(),
+                System.lineSeparator() + "        ", sqlModel.getSql(),
+                System.lineSeparator() + "        ", sqlModel.getParameters().toString(),
+                System.lineSeparator() + "        ", StringUtils.isEmpty(explain) ? explain
+                        : explain.substring(0, explain.length() - SUFFIX_LENGTH),
+                System.lineSeparator() + "        ", opgsDuration);
+    }
+
     /**
      * print fail sql log
      *
@@ -137,6 +157,30 @@ public class ReplayLogOperator {
                 System.lineSeparator() + "        ", targetResult);
     }
 
+    /**
+     * print digest diff log
+     *
+     * @param sqlModel sqlModel
+     * @param sourceRowCount sourceRowCount
+     * @param targetRowCount targetRowCount
+     * @param sourceDigest sourceDigest
+     * @param targetDigest targetDigest
+     */
+    public void printDigestDiffLog(SqlModel sqlModel, long sourceRowCount, long targetRowCount, String sourceDigest,
+                                   String targetDigest) {
+        DATA_DIFF_LOGGER.error("{}Sql Id is: {} {}SqlPacket Id is: {} {}Sql is: {} {}Sql Parameters: {} "
+                        + "{}SourceResult count is: {} {}TargetResult count is: {} {}SourceResult digest is: {} "
+                        + "{}TargetResult digest is: {}",
+                System.lineSeparator() + "        ", sqlModel.getId(),
+                System.lineSeparator() + "        ", sqlModel.getPacketId(),
+                System.lineSeparator() + "        ", sqlModel.getSql(),
+                System.lineSeparator() + "        ", sqlModel.getParameters().toString(),
+                System.lineSeparator() + "        ", sourceRowCount,
+                System.lineSeparator() + "        ", targetRowCount,
+                System.lineSeparator() + "        ", sourceDigest,
+                System.lineSeparator() + "        ", targetDigest);
+    }
+
     /**
      * print null data diff log
      *
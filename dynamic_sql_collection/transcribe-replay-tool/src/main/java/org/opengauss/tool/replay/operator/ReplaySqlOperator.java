@@ -29,8 +29,11 @@ import org.opengauss.tool.replay.model.ParamModel;
 import org.opengauss.tool.replay.model.ParameterTypeEnum;
 import org.opengauss.tool.replay.model.SqlModel;
 import org.opengauss.tool.replay.model.ResultModel;
+import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.ConnectionFactory;
 import org.opengauss.tool.utils.DatabaseOperator;
+import org.opengauss.tool.utils.LineFileReader;
+import org.opengauss.tool.utils.ResultDigest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -38,7 +41,6 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.FileReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -47,9 +49,11 @@ import java.sql.Statement;
 import java.util.List;
 import java.util.Locale;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.HashMap;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -62,10 +66,14 @@ import java.util.stream.Collectors;
 public class ReplaySqlOperator {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReplaySqlOperator.class);
     private static final Pattern DML_PATTERN = Pattern.compile("^(update|select|insert|delete)");
+    private static final List<String> SET_OPERATORS = Arrays.asList("union", "intersect", "except", "minus");
+    private static final int CURSOR_FETCH_SIZE = 1000;
+    private static final long NANOS_PER_MICRO = 1000L;
 
     private final ReplayLogOperator replayLogOperator;
     private final ReplayConfig replayConfig;
     private final SlowSqlOperator slowSqlOperator;
+    private final boolean isExplainTiming;
     private int resultFilePoint = 0;
     private List<ResultModel> resultModels = new ArrayList<>();
     private Map<Long, ResultModel> resultMap = new HashMap<>();
@@ -79,6 +87,7 @@ public class ReplaySqlOperator {
         this.replayConfig = replayConfig;
         slowSqlOperator = new SlowSqlOperator(replayConfig);
         replayLogOperator = new ReplayLogOperator();
+        isExplainTiming = !ConfigReader.SQL_REPLAY_TIMING_MODE_CLIENT.equals(replayConfig.getTimingMode());
     }
 
     /**
@@ -102,17 +111,19 @@ public class ReplaySqlOperator {
         PreparedStatement preSqlStmt = null;
         try {
             String sql = sqlModel.getSql();
-            if (isDmlSql(sql)) {
+            if (isDmlSql(sql) && isExplainTiming) {
                 preSqlStmt = replayConn.prepareStatement("EXPLAIN ANALYZE " + sql);
                 response = executePreparedDml(sqlModel, preSqlStmt);
+            } else if (isDmlSql(sql)) {
+                preSqlStmt = replayConn.prepareStatement(sql);
+                response = executeTimedPreparedDml(replayConn, sqlModel, preSqlStmt);
             } else {
                 preSqlStmt = replayConn.prepareStatement(sql);
                 executeDdl(sqlModel, preSqlStmt);
             }
             DatabaseOperator.closeStatement(preSqlStmt);
             if (sqlModel.isQuery() && replayConfig.isCompareResult()) {
-                List<List<String>> data = getPrepareData(replayConn, sqlModel);
-                compareSelectResult(sqlModel, data);
+                comparePrepareResult(replayConn, sqlModel);
             }
         } catch (SQLException e) {
             if (replayConfig.getTargetDbConfig().isCluster() && e.getMessage().contains("connection")) {
@@ -153,6 +164,99 @@ public class ReplaySqlOperator {
         }
     }
 
+    private ExecuteResponse executeTimedPreparedDml(Connection replayConn, SqlModel sqlModel,
+        PreparedStatement preSqlStmt) throws SQLException {
+        int paraCount = preSqlStmt.getParameterMetaData().getParameterCount();
+        List<ParamModel> paraList = sqlModel.getParameters();
+        long duration = 0L;
+        if (paraCount == paraList.size()) {
+            bindParameters(preSqlStmt, paraList);
+            duration = executeAndTime(preSqlStmt);
+        } else {
+            for (int i = 0; i < paraList.size(); i++) {
+                ParamModel parameter = paraList.get(i);
+                ParameterTypeEnum type = ParameterTypeEnum.fromTypeName(parameter.getType());
+                type.setParam(preSqlStmt, parameter.getId() % paraCount == 0 ? paraCount
+                    : parameter.getId() % paraCount, parameter.getValue());
+                if ((i + 1) % paraCount == 0) {
+                    duration += executeAndTime(preSqlStmt);
+                }
+            }
+        }
+        return getTimedResponse(replayConn, sqlModel, duration);
+    }
+
+    private long executeAndTime(PreparedStatement preSqlStmt) throws SQLException {
+        long startNanos = System.nanoTime();
+        if (preSqlStmt.execute()) {
+            consumeResultSet(preSqlStmt.getResultSet());
+        }
+        return (System.nanoTime() - startNanos) / NANOS_PER_MICRO;
+    }
+
+    private long executeAndTime(Statement stmt, String sql) throws SQLException {
+        long startNanos = System.nanoTime();
+        if (stmt.execute(sql)) {
+            consumeResultSet(stmt.getResultSet());
+        }
+        return (System.nanoTime() - startNanos) / NANOS_PER_MICRO;
+    }
+
+    private void consumeResultSet(ResultSet rs) throws SQLException {
+        // the rows are fetched as the client would, so that the duration covers the whole query
+        try {
+            while (rs.next()) {
+                continue;
+            }
+        } finally {
+            DatabaseOperator.closeResultSet(rs);
+        }
+    }
+
+    private ExecuteResponse getTimedResponse(Connection replayConn, SqlModel sqlModel, long duration) {
+        ExecuteResponse response = new ExecuteResponse();
+        response.setOpgsDuration(duration);
+        boolean isSlow = isSlowSql(duration, sqlModel.getMysqlDuration());
+        double sampleRate = replayConfig.getExplainSampleRate();
+        if (!isSlow && (sampleRate <= 0.0d || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return response;
+        }
+        String explain = captureExplain(replayConn, sqlModel);
+        if (isSlow) {
+            slowSqlOperator.recordSlowSql(sqlModel, duration, explain);
+            response.setSlowSql(true);
+            response.setSlowSqlExplain(explain);
+        } else {
+            replayLogOperator.printSampledPlanLog(sqlModel, duration, explain);
+        }
+        return response;
+    }
+
+    private String captureExplain(Connection replayConn, SqlModel sqlModel) {
+        // only a query is executed again, the plan of a write is estimated so that it is not applied twice
+        String sql = sqlModel.getSql();
+        String explainSql = (sql.toLowerCase(Locale.ROOT).startsWith("select") ? "EXPLAIN ANALYZE " : "EXPLAIN ")
+            + sql;
+        PreparedStatement explainStmt = null;
+        try {
+            if (!sqlModel.isPrepared()) {
+                return executeAndGetExplain(replayConn, explainSql);
+            }
+            explainStmt = replayConn.prepareStatement(explainSql);
+            int paraCount = explainStmt.getParameterMetaData().getParameterCount();
+            List<ParamModel> paraList = sqlModel.getParameters();
+            // a batch is explained with its first row of parameters
+            bindParameters(explainStmt, paraCount >= paraList.size() ? paraList
+                : paraList.subList(0, paraCount));
+            return executeAndGetExplain(explainStmt);
+        } catch (SQLException e) {
+            LOGGER.warn("capture the plan of sql id:{} failed, error message:{}", sqlModel.getId(), e.getMessage());
+            return StringUtils.EMPTY;
+        } finally {
+            DatabaseOperator.closeStatement(explainStmt);
+        }
+    }
+
     private void bindBatchParameters(int paraCount, PreparedStatement preSqlStmt, List<ParamModel> paraList)
         throws SQLException {
         for (int i = 0; i < paraList.size(); i++) {
@@ -196,7 +300,7 @@ public class ReplaySqlOperator {
     }
 
     private ExecuteResponse execute(Connection replayConn, SqlModel sqlModel, String sql) throws SQLException {
-        String explainStr = executeAndGetExplain(replayConn, sql);
+        String explainStr = executeAndGetExplain(replayConn, "EXPLAIN ANALYZE " + sql);
         int lastColonsIndex = explainStr.lastIndexOf(":");
         int msIndex = explainStr.lastIndexOf("ms");
         long duration = (long) (Double.parseDouble(explainStr.substring(lastColonsIndex + 1, msIndex).trim()) * 1000);
@@ -248,13 +352,14 @@ public class ReplaySqlOperator {
             String sql = sqlModel.getSql();
             if (!isDmlSql(sql)) {
                 stmt.execute(sql);
-            } else {
+            } else if (isExplainTiming) {
                 response = execute(replayConn, sqlModel, sql);
+            } else {
+                response = getTimedResponse(replayConn, sqlModel, executeAndTime(stmt, sql));
             }
             DatabaseOperator.closeStatement(stmt);
             if (sqlModel.isQuery() && replayConfig.isCompareResult()) {
-                List<List<String>> data = getStmtData(replayConn, sqlModel.getSql());
-                compareSelectResult(sqlModel, data);
+                compareStmtResult(replayConn, sqlModel);
             }
         } catch (SQLException e) {
             if (replayConfig.getTargetDbConfig().isCluster() && e.getMessage().contains("connection")) {
@@ -297,8 +402,7 @@ public class ReplaySqlOperator {
             : opgsDuration > replayConfig.getSlowThreshold();
     }
 
-    private String executeAndGetExplain(Connection replayConn, String sql) throws SQLException {
-        String explainSql = "EXPLAIN ANALYZE " + sql;
+    private String executeAndGetExplain(Connection replayConn, String explainSql) throws SQLException {
         Statement st = null;
         ResultSet explainRs = null;
         StringBuffer explainSb = new StringBuffer();
@@ -318,20 +422,17 @@ public class ReplaySqlOperator {
         return explainSb.toString();
     }
 
-    private void compareSelectResult(SqlModel sqlModel, List<List<String>> data) throws SQLException {
-        if (resultFilePoint > 0 && resultMap.isEmpty()) {
-            replayLogOperator.printNullDataDiffLog(sqlModel, data);
+    private void compareSelectResult(SqlModel sqlModel, ResultSet rs) throws SQLException {
+        ResultModel resultModel = findResultModel(sqlModel);
+        if (resultModel != null && resultModel.getOrderedDigest() != null) {
+            compareResultDigest(sqlModel, resultModel, rs);
             return;
         }
-        while (!resultMap.containsKey(sqlModel.getPacketId())) {
-            readResultFile();
-            if (resultMap.isEmpty()) {
-                replayLogOperator.printNullDataDiffLog(sqlModel, data);
-                return;
-            }
+        List<List<String>> data = readResultData(rs);
+        if (resultModel == null) {
+            replayLogOperator.printNullDataDiffLog(sqlModel, data);
+            return;
         }
-
-        ResultModel resultModel = resultMap.get(sqlModel.getPacketId());
         List<List<String>> sourceResult = new ArrayList<>();
         JSONArray array = resultModel.getData();
         for (int i = 0; i < array.size(); i++) {
@@ -347,33 +448,69 @@ public class ReplaySqlOperator {
         }
     }
 
-    private List<List<String>> getStmtData(Connection replayConn, String sql) throws SQLException {
+    private ResultModel findResultModel(SqlModel sqlModel) {
+        if (resultFilePoint > 0 && resultMap.isEmpty()) {
+            return null;
+        }
+        while (!resultMap.containsKey(sqlModel.getPacketId())) {
+            readResultFile();
+            if (resultMap.isEmpty()) {
+                return null;
+            }
+        }
+        return resultMap.get(sqlModel.getPacketId());
+    }
+
+    private void compareResultDigest(SqlModel sqlModel, ResultModel resultModel, ResultSet rs)
+            throws SQLException {
+        ResultDigest digest = new ResultDigest();
+        int cols = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            for (int i = 1; i <= cols; i++) {
+                digest.addValue(rs.getString(i));
+            }
+            digest.endRow();
+        }
+        // the row order is only defined by an order by clause of the statement itself
+        boolean isOrdered = hasTopLevelOrderBy(sqlModel.getSql());
+        String sourceDigest = isOrdered ? resultModel.getOrderedDigest() : resultModel.getUnorderedDigest();
+        String targetDigest = isOrdered ? digest.getOrderedDigest() : digest.getUnorderedDigest();
+        if (resultModel.getRowCount() != digest.getRowCount() || !targetDigest.equals(sourceDigest)) {
+            replayLogOperator.printDigestDiffLog(sqlModel, resultModel.getRowCount(), digest.getRowCount(),
+                    sourceDigest, targetDigest);
+        }
+    }
+
+    private List<List<String>> readResultData(ResultSet rs) throws SQLException {
+        List<List<String>> data = new ArrayList<>();
+        int cols = rs.getMetaData().getColumnCount();
+        while (rs.next()) {
+            List<String> row = new ArrayList<>();
+            for (int i = 1; i <= cols; i++) {
+                String str = rs.getString(i);
+                row.add(str == null ? "null" : str);
+            }
+            data.add(row);
+        }
+        return data;
+    }
+
+    private void compareStmtResult(Connection replayConn, SqlModel sqlModel) throws SQLException {
         Statement st = null;
         ResultSet rs = null;
-        List<List<String>> data = new ArrayList<>();
         try {
             st = replayConn.createStatement();
-            rs = st.executeQuery(sql);
-            int cols = rs.getMetaData().getColumnCount();
-            while (rs.next()) {
-                List<String> row = new ArrayList<>();
-                for (int i = 1; i <= cols; i++) {
-                    String str = rs.getString(i);
-                    row.add(str == null ? "null" : str);
-                }
-                data.add(row);
-            }
+            rs = st.executeQuery(sqlModel.getSql());
+            compareSelectResult(sqlModel, rs);
         } finally {
             DatabaseOperator.closeResultSet(rs);
             DatabaseOperator.closeStatement(st);
         }
-        return data;
     }
 
-    private List<List<String>> getPrepareData(Connection replayConn, SqlModel sqlModel) throws SQLException {
+    private void comparePrepareResult(Connection replayConn, SqlModel sqlModel) throws SQLException {
         PreparedStatement preSqlStmt = null;
         ResultSet rs = null;
-        List<List<String>> data = new ArrayList<>();
         try {
             preSqlStmt = replayConn.prepareStatement(sqlModel.getSql());
             int paraCount = preSqlStmt.getParameterMetaData().getParameterCount();
@@ -389,20 +526,11 @@ public class ReplaySqlOperator {
                 }
             }
             rs = preSqlStmt.executeQuery();
-            int cols = rs.getMetaData().getColumnCount();
-            while (rs.next()) {
-                List<String> row = new ArrayList<>();
-                for (int i = 1; i <= cols; i++) {
-                    String str = rs.getString(i);
-                    row.add(str == null ? "null" : str);
-                }
-                data.add(row);
-            }
+            compareSelectResult(sqlModel, rs);
         } finally {
             DatabaseOperator.closeResultSet(rs);
             DatabaseOperator.closeStatement(preSqlStmt);
         }
-        return data;
     }
 
     private void readResultFile() {
@@ -413,7 +541,7 @@ public class ReplaySqlOperator {
         LOGGER.info("read result file:{} start", filePath);
         BufferedReader reader = null;
         try {
-            reader = new BufferedReader(new FileReader(filePath));
+            reader = LineFileReader.open(filePath);
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
@@ -487,24 +615,43 @@ public class ReplaySqlOperator {
     }
 
     /**
-     * get sql result set
+     * prepare the statement reading the sql after an id in id order, it is reused for every read
      *
      * @param conn connection
      * @param tableName tableName
-     * @param pagination pagination
-     * @param point point
+     * @param isCursor whether all the rows are read through a server side cursor instead of page by page
+     * @return PreparedStatement
+     * @throws SQLException SQLException
+     */
+    public PreparedStatement prepareSqlStatement(Connection conn, String tableName, boolean isCursor)
+        throws SQLException {
+        if (!isCursor) {
+            return conn.prepareStatement(String.format(Locale.ROOT,
+                "select * from %s where id > ? order by id limit ?", tableName));
+        }
+        // the driver only fetches the rows through a cursor within a transaction
+        conn.setAutoCommit(false);
+        PreparedStatement statement = conn.prepareStatement(String.format(Locale.ROOT,
+            "select * from %s where id > ? order by id", tableName));
+        statement.setFetchSize(CURSOR_FETCH_SIZE);
+        return statement;
+    }
+
+    /**
+     * get sql result set after the point, the index on id is used instead of skipping the rows read
+     *
+     * @param statement statement prepared by prepareSqlStatement
+     * @param point the last id read
+     * @param pagination max rows of a page, 0 for a cursor statement
      * @return resultSet
      * @throws SQLException SQLException
      */
-    public ResultSet getSqlResultSet(Connection conn, String tableName, int pagination, int point) throws SQLException {
-        String querySql = String.format(Locale.ROOT, "select * from %s order by id limit %d offset %d",
-                tableName, pagination, point);
-        ResultSet rs = null;
-        if (conn != null) {
-            Statement statement = conn.createStatement();
-            rs = statement.executeQuery(querySql);
+    public ResultSet getSqlResultSet(PreparedStatement statement, int point, int pagination) throws SQLException {
+        statement.setInt(1, point);
+        if (pagination > 0) {
+            statement.setInt(2, pagination);
         }
-        return rs;
+        return statement.executeQuery();
     }
 
     /**
@@ -536,6 +683,80 @@ public class ReplaySqlOperator {
             .noneMatch(session -> sqlModel.getSession().startsWith(session));
     }
 
+    /**
+     * Check whether the rows of the statement are ordered by its own order by clause. An order by in
+     * parentheses, such as of a window function, a subquery or group_concat, in a literal or a comment
+     * does not order the rows, neither does an order by followed by a set operator.
+     *
+     * @param sql String the sql
+     * @return true if the statement has a top level trailing order by
+     */
+    static boolean hasTopLevelOrderBy(String sql) {
+        boolean isOrdered = false;
+        String previousWord = null;
+        int depth = 0;
+        int index = 0;
+        int length = sql.length();
+        while (index < length) {
+            char ch = sql.charAt(index);
+            if (ch == '\'' || ch == '"' || ch == '`') {
+                index = skipQuoted(sql, index);
+                previousWord = null;
+            } else if (ch == '#' || sql.startsWith("--", index)) {
+                index = skipTo(sql, index, "\n");
+            } else if (sql.startsWith("/*", index)) {
+                index = skipTo(sql, index + 2, "*/");
+            } else if (Character.isLetterOrDigit(ch) || ch == '_' || ch == '$') {
+                int start = index;
+                while (index < length && (Character.isLetterOrDigit(sql.charAt(index)) || sql.charAt(index) == '_'
+                        || sql.charAt(index) == '$')) {
+                    index++;
+                }
+                if (depth == 0) {
+                    String word = sql.substring(start, index).toLowerCase(Locale.ROOT);
+                    if ("by".equals(word) && "order".equals(previousWord)) {
+                        isOrdered = true;
+                    } else if (SET_OPERATORS.contains(word)) {
+                        isOrdered = false;
+                    }
+                    previousWord = word;
+                }
+            } else {
+                if (ch == '(') {
+                    depth++;
+                } else if (ch == ')') {
+                    depth--;
+                }
+                if (!Character.isWhitespace(ch)) {
+                    previousWord = null;
+                }
+                index++;
+            }
+        }
+        return isOrdered;
+    }
+
+    private static int skipQuoted(String sql, int start) {
+        char quote = sql.charAt(start);
+        int index = start + 1;
+        while (index < sql.length()) {
+            char ch = sql.charAt(index);
+            if (ch == '\\' && quote != '`') {
+                index += 2;
+            } else if (ch == quote) {
+                return index + 1;
+            } else {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    private static int skipTo(String sql, int start, String end) {
+        int index = sql.indexOf(end, start);
+        return index < 0 ? sql.length() : index + end.length();
+    }
+
     private boolean isDmlSql(String sql) {
         Matcher matcher = DML_PATTERN.matcher(sql.toLowerCase(Locale.ROOT));
         return matcher.find() && matcher.start() == 0;
@@ -18,6 +18,7 @@ package org.opengauss.tool.replay.task;
 import org.opengauss.tool.config.replay.ReplayConfig;
 import org.opengauss.tool.replay.model.ProcessModel;
 import org.opengauss.tool.replay.model.SqlModel;
+import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.ConnectionFactory;
 import org.opengauss.tool.utils.DatabaseOperator;
 import org.opengauss.tool.utils.ThreadExceptionHandler;
@@ -25,6 +26,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
@@ -105,53 +107,84 @@ public class ReplayDbTask extends ReplayMainTask {
             throws SQLException, InterruptedException {
         long startTimeMillis = System.currentTimeMillis();
         Connection connection = storeConn;
-        ProcessModel processModel = ProcessModel.getInstance();
+        boolean isCursor = ConfigReader.SQL_REPLAY_DB_READ_MODE_CURSOR.equals(replayConfig.getDbReadMode());
+        PreparedStatement statement = replaySqlOperator.prepareSqlStatement(connection, storageTableName, isCursor);
         int point = 0;
-        while (true) {
-            List<SqlModel> sqlModels = new ArrayList<>();
-            ResultSet rs = null;
-            try {
-                sleep(10);
-                rs = replaySqlOperator.getSqlResultSet(connection, storageTableName, PAGINATION,
-                        point);
-                if (!rs.isBeforeFirst()) {
-                    long replayTime = (System.currentTimeMillis() - startTimeMillis) / 60000;
-                    if (replayConfig.getReplayMaxTime() > 0 && replayTime >= replayConfig.getReplayMaxTime()) {
-                        isReadEnd.set(true);
-                        break;
+        try {
+            while (true) {
+                ResultSet rs = null;
+                boolean isSlowConsumer = false;
+                try {
+                    sleep(10);
+                    rs = replaySqlOperator.getSqlResultSet(statement, point, isCursor ? 0 : PAGINATION);
+                    if (!rs.isBeforeFirst()) {
+                        long replayTime = (System.currentTimeMillis() - startTimeMillis) / 60000;
+                        if (replayConfig.getReplayMaxTime() > 0 && replayTime >= replayConfig.getReplayMaxTime()) {
+                            isReadEnd.set(true);
+                            break;
+                        }
+                    } else {
+                        LOGGER.info("read sql from db, point:{}", point);
                     }
-                } else {
-                    LOGGER.info("read sql from db, point:{}", point);
-                }
-                while (rs.next()) {
-                    if ("finished".equals(rs.getString("sql"))) {
-                        isReadEnd.set(true);
-                        break;
+                    boolean isHasTimeColumn = SqlModel.isHasTimeColumn(rs);
+                    List<SqlModel> sqlModels = new ArrayList<>();
+                    while (rs.next()) {
+                        if ("finished".equals(rs.getString("sql"))) {
+                            isReadEnd.set(true);
+                            break;
+                        }
+                        SqlModel sqlModel = new SqlModel(rs, isHasTimeColumn);
+                        sqlModels.add(sqlModel);
+                        point = sqlModel.getId();
+                        if (sqlModels.size() == PAGINATION) {
+                            boolean isLagging = sqlModelListQueue.remainingCapacity() == 0;
+                            isSlowConsumer |= putSqlModels(connection, storageTableName, sqlModels);
+                            sqlModels = new ArrayList<>();
+                            if (isCursor && (isLagging || isSlowConsumer)) {
+                                // a lagging consumer would keep the cursor and its transaction open, so
+                                // the cursor is committed and reopened after the last id read
+                                break;
+                            }
+                        }
                     }
-                    SqlModel sqlModel = new SqlModel(rs, connection, storageTableName);
-                    sqlModels.add(sqlModel);
-                    point = sqlModel.getId();
+                    isSlowConsumer |= putSqlModels(connection, storageTableName, sqlModels);
+                } finally {
+                    DatabaseOperator.closeResultSet(rs);
+                }
+                if (isCursor) {
+                    // ends the transaction of the cursor, the next read sees the sql stored since
+                    connection.commit();
+                }
+                if (sqlModelListCount == 0) {
+                    ProcessModel.getInstance().setReplayFinish();
+                }
+                if (isReadEnd.get()) {
+                    break;
+                }
+                if (isSlowConsumer) {
+                    DatabaseOperator.closeStatement(statement);
+                    DatabaseOperator.closeConnection(connection);
+                    connection = ConnectionFactory.createConnection(replayConfig.getSourceDbConfig(),
+                            ConnectionFactory.OPENGAUSS);
+                    statement = replaySqlOperator.prepareSqlStatement(connection, storageTableName, isCursor);
                 }
-                processModel.addSqlCount(sqlModels.size());
-            } finally {
-                DatabaseOperator.closeResultSet(rs);
-            }
-            long startTime = System.currentTimeMillis();
-            if (!sqlModels.isEmpty()) {
-                sqlModelListQueue.put(sqlModels);
-                sqlModelListCount++;
-            }
-            if (sqlModelListCount == 0) {
-                ProcessModel.getInstance().setReplayFinish();
-            }
-            long endTime = System.currentTimeMillis();
-            if ((endTime - startTime) > TIME_OUT_MILLIS) {
-                connection = ConnectionFactory.createConnection(replayConfig.getSourceDbConfig(),
-                        ConnectionFactory.OPENGAUSS);
-            }
-            if (isReadEnd.get()) {
-                break;
             }
+        } finally {
+            DatabaseOperator.closeStatement(statement);
+            DatabaseOperator.closeConnection(connection);
+        }
+    }
+
+    private boolean putSqlModels(Connection connection, String storageTableName, List<SqlModel> sqlModels)
+            throws SQLException, InterruptedException {
+        ProcessModel.getInstance().addSqlCount(sqlModels.size());
+        if (sqlModels.isEmpty()) {
+            return false;
         }
+        SqlModel.loadParameters(connection, storageTableName, sqlModels);
+        long startTime = System.currentTimeMillis();
+        sqlModelListQueue.put(sqlModels);
+        sqlModelListCount++;
+        return System.currentTimeMillis() - startTime > TIME_OUT_MILLIS;
     }
 }
@@ -18,17 +18,21 @@ package org.opengauss.tool.replay.task;
 import org.opengauss.tool.config.replay.ReplayConfig;
 import org.opengauss.tool.replay.model.ProcessModel;
 import org.opengauss.tool.replay.model.SqlModel;
+import org.opengauss.tool.utils.ConfigReader;
 import org.opengauss.tool.utils.FileUtils;
+import org.opengauss.tool.utils.SqlChunkQueue;
+import org.opengauss.tool.utils.SqlSegmentWriter;
 import org.opengauss.tool.utils.ThreadExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ReplayJsonTask
@@ -37,14 +41,16 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public class ReplayJsonTask extends ReplayMainTask {
     private static final Logger LOGGER = LoggerFactory.getLogger(ReplayJsonTask.class);
-    private static final BlockingQueue<List<SqlModel>> sqlModelListQueue = new LinkedBlockingQueue<>(5);
-    private static final int MIN_FREE_MEMORY = 512000;
-    private static final int SLEEP_MILLIS = 1000;
-    private static final int MAX_RETRY_COUNT = 30;
+    private static final long BYTE_CONVERSION_RATIO = 1024L * 1024L;
+    private static final int PREFETCH_BUFFER_DIVISOR = 4;
 
     private final AtomicBoolean isFileParseEnd;
     private final ReplayConfig replayConfig;
     private final ProcessModel processModel;
+    private final SqlChunkQueue sqlModelListQueue;
+    private final long prefetchBufferBytes;
+    private final ExecutorService prefetchExecutor;
+    private final ExecutorService decodeExecutor;
     private int sqlModelListCount = 0;
 
     /**
@@ -57,6 +63,26 @@ public class ReplayJsonTask extends ReplayMainTask {
         this.replayConfig = replayConfig;
         this.processModel = ProcessModel.getInstance();
         this.isFileParseEnd = new AtomicBoolean(false);
+        long bufferBytes = replayConfig.getFileBufferSize() * BYTE_CONVERSION_RATIO;
+        // with the prefetch on, the buffer is shared by the replay queue and the queues of the file being
+        // moved and the file prefetched, a quarter each
+        this.prefetchBufferBytes = replayConfig.isFilePrefetch() ? bufferBytes / PREFETCH_BUFFER_DIVISOR : 0L;
+        this.sqlModelListQueue = new SqlChunkQueue(bufferBytes - 2 * prefetchBufferBytes);
+        this.prefetchExecutor = replayConfig.isFilePrefetch()
+            ? Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "Sql File Prefetch Thread");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+        AtomicInteger workerId = new AtomicInteger();
+        this.decodeExecutor = replayConfig.getFileDecodeThreadCount() > 1
+            ? Executors.newFixedThreadPool(replayConfig.getFileDecodeThreadCount(), r -> {
+                Thread thread = new Thread(r, "Sql Decode Thread-" + workerId.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
     }
 
     @Override
@@ -88,6 +114,19 @@ public class ReplayJsonTask extends ReplayMainTask {
     }
 
     private void parseFile() {
+        try {
+            parseFiles();
+        } finally {
+            if (prefetchExecutor != null) {
+                prefetchExecutor.shutdownNow();
+            }
+            if (decodeExecutor != null) {
+                decodeExecutor.shutdownNow();
+            }
+        }
+    }
+
+    private void parseFiles() {
         int point = 0;
         long startTimeMillis = System.currentTimeMillis();
         while (true) {
@@ -127,32 +166,50 @@ public class ReplayJsonTask extends ReplayMainTask {
     }
 
     private void pushQueue(int fileCount, int point) {
-        String fileTemplate = replayConfig.getFileCatalogue() + File.separator + replayConfig.getFileName()
-                + "-" + "%d" + ".json";
-        Runtime runtime = Runtime.getRuntime();
         try {
-            for (int order = point + 1; order <= fileCount; order++) {
-                String filePath = String.format(fileTemplate, order);
-                int waitCount = 0;
-                while (runtime.freeMemory() < MIN_FREE_MEMORY) {
-                    if (waitCount >= MAX_RETRY_COUNT) {
-                        System.exit(-1);
-                    }
-                    LOGGER.warn("============runtime.freeMemory() < 512000===============");
-                    Thread.sleep(SLEEP_MILLIS);
-                    waitCount++;
-                }
-                List<List<SqlModel>> sqlModelLists = FileUtils.parseFile(filePath);
-                for (List<SqlModel> sqlModelList : sqlModelLists) {
-                    if (sqlModelList.isEmpty()) {
-                        continue;
-                    }
-                    sqlModelListQueue.put(sqlModelList);
-                    sqlModelListCount++;
+            if (prefetchExecutor == null) {
+                for (int order = point + 1; order <= fileCount; order++) {
+                    sqlModelListCount += readFile(getFilePath(order), sqlModelListQueue);
                 }
+                return;
+            }
+            // the prefetch thread decodes the next file while the chunks of the current one are moved
+            SqlChunkQueue fileQueue = point < fileCount ? prefetch(getFilePath(point + 1)) : null;
+            for (int order = point + 1; order <= fileCount; order++) {
+                SqlChunkQueue currentQueue = fileQueue;
+                fileQueue = order < fileCount ? prefetch(getFilePath(order + 1)) : null;
+                sqlModelListCount += currentQueue.transferTo(sqlModelListQueue);
             }
         } catch (InterruptedException e) {
             LOGGER.error("parse sql from json has occurred an interruptedException, error message:{}", e.getMessage());
         }
     }
+
+    private SqlChunkQueue prefetch(String filePath) {
+        SqlChunkQueue fileQueue = new SqlChunkQueue(prefetchBufferBytes);
+        prefetchExecutor.execute(() -> {
+            try {
+                readFile(filePath, fileQueue);
+            } catch (InterruptedException e) {
+                LOGGER.warn("prefetch of sql file {} is interrupted", filePath);
+            } finally {
+                fileQueue.close();
+            }
+        });
+        return fileQueue;
+    }
+
+    private int readFile(String filePath, SqlChunkQueue queue) throws InterruptedException {
+        if (ConfigReader.BINARY.equals(replayConfig.getStorageMode())) {
+            return FileUtils.readSegmentFile(filePath, queue);
+        }
+        return decodeExecutor == null ? FileUtils.readFile(filePath, queue)
+            : FileUtils.readFile(filePath, queue, decodeExecutor, replayConfig.getFileDecodeThreadCount() * 2);
+    }
+
+    private String getFilePath(int order) {
+        boolean isBinary = ConfigReader.BINARY.equals(replayConfig.getStorageMode());
+        return replayConfig.getFileCatalogue() + File.separator + replayConfig.getFileName() + "-" + order
+            + (isBinary ? SqlSegmentWriter.SEGMENT_SUFFIX : ".json");
+    }
 }
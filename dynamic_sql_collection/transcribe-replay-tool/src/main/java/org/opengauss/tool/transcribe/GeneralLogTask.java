@@ -128,6 +128,9 @@ public class GeneralLogTask extends TranscribeTask {
         sqlList.add(new SqlInfo(sqlId + 1, false, "finished"));
         storageSql(sqlList);
         sqlList.clear();
+        if (config.isWriteToFile()) {
+            fileOperator.close();
+        }
         FileUtils.createFile(config.getFileConfig().getFilePath() + "parseEndFile");
         DatabaseOperator.closeStatement(ps);
         DatabaseOperator.closeResultSet(res);
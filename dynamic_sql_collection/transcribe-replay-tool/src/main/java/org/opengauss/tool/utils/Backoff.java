@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Description: Wait strategy for threads which poll a condition, spins first, then yields, then parks
+ * for a growing period, so that a short wait keeps the latency low and a long wait does not burn a core
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/18
+ **/
+public final class Backoff {
+    private static final int SPIN_ROUNDS = 100;
+    private static final int YIELD_ROUNDS = 200;
+    private static final int SHORT_PARK_ROUNDS = 1200;
+    private static final long SHORT_PARK_NANOS = 50_000L;
+    private static final long LONG_PARK_NANOS = 1_000_000L;
+
+    private Backoff() {
+    }
+
+    /**
+     * Wait once, the caller counts the rounds and resets them when the condition is met
+     *
+     * @param round int the count of previous rounds waited for the same condition
+     */
+    public static void idle(int round) {
+        if (round < SPIN_ROUNDS) {
+            return;
+        }
+        if (round < YIELD_ROUNDS) {
+            Thread.yield();
+        } else if (round < SHORT_PARK_ROUNDS) {
+            LockSupport.parkNanos(SHORT_PARK_NANOS);
+        } else {
+            LockSupport.parkNanos(LONG_PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.io.IOException;
+
+/**
+ * Description: Compression codec of the blocks of a line file, the id is stored in the file header so
+ * that a reader picks the codec by itself. Codecs other than the built-in ones are found by
+ * java.util.ServiceLoader, see BlockCodecs.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/22
+ **/
+public interface BlockCodec {
+    /**
+     * Get the codec id stored in the file header
+     *
+     * @return int the id, between 1 and 127
+     */
+    int getId();
+
+    /**
+     * Get the codec name used in the configuration
+     *
+     * @return String the name
+     */
+    String getName();
+
+    /**
+     * Compress a block
+     *
+     * @param data byte[] the raw bytes
+     * @param length int the count of raw bytes
+     * @return byte[] the compressed bytes
+     * @throws IOException if the block can not be compressed
+     */
+    byte[] compress(byte[] data, int length) throws IOException;
+
+    /**
+     * Decompress a block
+     *
+     * @param data byte[] the compressed bytes
+     * @param rawLength int the count of raw bytes
+     * @return byte[] the raw bytes
+     * @throws IOException if the block is damaged
+     */
+    byte[] decompress(byte[] data, int rawLength) throws IOException;
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Description: Registry of the block codecs, deflate and gzip come with the JDK, other codecs such as
+ * lz4 or zstd are plugged in by listing their BlockCodec implementation in
+ * META-INF/services/org.opengauss.tool.utils.BlockCodec.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/22
+ **/
+public final class BlockCodecs {
+    /**
+     * the name which turns the compression off
+     */
+    public static final String NONE = "none";
+
+    private static final Map<String, BlockCodec> NAME_MAP = new ConcurrentHashMap<>();
+    private static final Map<Integer, BlockCodec> ID_MAP = new ConcurrentHashMap<>();
+
+    static {
+        register(new DeflateCodec());
+        register(new GzipCodec());
+        for (BlockCodec codec : ServiceLoader.load(BlockCodec.class)) {
+            register(codec);
+        }
+    }
+
+    private BlockCodecs() {
+    }
+
+    /**
+     * Register a codec
+     *
+     * @param codec BlockCodec the codec
+     */
+    public static void register(BlockCodec codec) {
+        NAME_MAP.put(codec.getName(), codec);
+        ID_MAP.put(codec.getId(), codec);
+    }
+
+    /**
+     * Whether the name is none or a registered codec
+     *
+     * @param name String the codec name
+     * @return boolean true if the name is supported
+     */
+    public static boolean isSupported(String name) {
+        return NONE.equals(name) || NAME_MAP.containsKey(name);
+    }
+
+    /**
+     * Get codec by name
+     *
+     * @param name String the codec name
+     * @return BlockCodec the codec, null if the name is none or empty
+     */
+    public static BlockCodec forName(String name) {
+        if (name == null || name.isEmpty() || NONE.equals(name)) {
+            return null;
+        }
+        BlockCodec codec = NAME_MAP.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unsupported block codec " + name);
+        }
+        return codec;
+    }
+
+    /**
+     * Get codec by the id stored in a file header
+     *
+     * @param id int the codec id
+     * @return BlockCodec the codec
+     * @throws IOException if no codec is registered with the id
+     */
+    public static BlockCodec forId(int id) throws IOException {
+        BlockCodec codec = ID_MAP.get(id);
+        if (codec == null) {
+            throw new IOException("Unknown block codec id " + id);
+        }
+        return codec;
+    }
+
+    private static byte[] readFully(InputStream in, int rawLength) throws IOException {
+        byte[] raw = new byte[rawLength];
+        int offset = 0;
+        while (offset < rawLength) {
+            int count = in.read(raw, offset, rawLength - offset);
+            if (count < 0) {
+                throw new IOException("Block is shorter than " + rawLength + " bytes.");
+            }
+            offset += count;
+        }
+        return raw;
+    }
+
+    private static final class DeflateCodec implements BlockCodec {
+        @Override
+        public int getId() {
+            return 1;
+        }
+
+        @Override
+        public String getName() {
+            return "deflate";
+        }
+
+        @Override
+        public byte[] compress(byte[] data, int length) {
+            Deflater deflater = new Deflater();
+            try {
+                deflater.setInput(data, 0, length);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int rawLength) throws IOException {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data);
+                byte[] raw = new byte[rawLength];
+                int offset = 0;
+                while (offset < rawLength && !inflater.finished()) {
+                    int count = inflater.inflate(raw, offset, rawLength - offset);
+                    if (count == 0 && inflater.needsInput()) {
+                        break;
+                    }
+                    offset += count;
+                }
+                if (offset != rawLength) {
+                    throw new IOException("Block is shorter than " + rawLength + " bytes.");
+                }
+                return raw;
+            } catch (DataFormatException e) {
+                throw new IOException("Block is damaged, " + e.getMessage(), e);
+            } finally {
+                inflater.end();
+            }
+        }
+    }
+
+    private static final class GzipCodec implements BlockCodec {
+        @Override
+        public int getId() {
+            return 2;
+        }
+
+        @Override
+        public String getName() {
+            return "gzip";
+        }
+
+        @Override
+        public byte[] compress(byte[] data, int length) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(data, 0, length);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public byte[] decompress(byte[] data, int rawLength) throws IOException {
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+                return readFully(gzip, rawLength);
+            }
+        }
+    }
+}
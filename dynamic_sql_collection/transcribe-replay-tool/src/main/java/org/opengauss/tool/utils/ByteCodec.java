@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Description: Primitive binary codec, reads numbers and strings from packet bytes without
+ * building intermediate hex strings
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/12
+ **/
+public final class ByteCodec {
+    /**
+     * MySQL length encoded integer value of NULL
+     */
+    public static final long NULL_LENGTH = -1L;
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String[] HEX_CACHE = new String[256];
+    private static final int LENGTH_ENCODED_NULL = 0xfb;
+    private static final int LENGTH_ENCODED_2_BYTES = 0xfc;
+    private static final int LENGTH_ENCODED_3_BYTES = 0xfd;
+    private static final int LENGTH_ENCODED_8_BYTES = 0xfe;
+
+    static {
+        for (int i = 0; i < HEX_CACHE.length; i++) {
+            HEX_CACHE[i] = new String(new char[] {HEX_DIGITS[i >> 4], HEX_DIGITS[i & 0x0F]});
+        }
+    }
+
+    private ByteCodec() {
+    }
+
+    /**
+     * Read unsigned byte
+     *
+     * @param data byte[] the data
+     * @param index int the index
+     * @return int the unsigned value
+     */
+    public static int readUnsignedByte(byte[] data, int index) {
+        return data[index] & 0xFF;
+    }
+
+    /**
+     * Read int by little endian, bytes longer than 4 are truncated to the low 32 bits
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @param end int the end index, exclusive
+     * @return int the value
+     */
+    public static int readIntByLittleEndian(byte[] data, int start, int end) {
+        return (int) readLongByLittleEndian(data, start, end);
+    }
+
+    /**
+     * Read long by little endian
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @param end int the end index, exclusive
+     * @return long the value
+     */
+    public static long readLongByLittleEndian(byte[] data, int start, int end) {
+        long value = 0L;
+        for (int i = end - 1; i >= start; i--) {
+            value = (value << 8) | (data[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Read int by big endian, bytes longer than 4 are truncated to the low 32 bits
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @param end int the end index, exclusive
+     * @return int the value
+     */
+    public static int readIntByBigEndian(byte[] data, int start, int end) {
+        return (int) readLongByBigEndian(data, start, end);
+    }
+
+    /**
+     * Read long by big endian
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @param end int the end index, exclusive
+     * @return long the value
+     */
+    public static long readLongByBigEndian(byte[] data, int start, int end) {
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            value = (value << 8) | (data[i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Read MySQL length encoded integer
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @return long the value, NULL_LENGTH if the value is NULL
+     */
+    public static long readLengthEncodedInt(byte[] data, int start) {
+        int flag = data[start] & 0xFF;
+        switch (flag) {
+            case LENGTH_ENCODED_NULL:
+                return NULL_LENGTH;
+            case LENGTH_ENCODED_2_BYTES:
+                return readLongByLittleEndian(data, start + 1, start + 3);
+            case LENGTH_ENCODED_3_BYTES:
+                return readLongByLittleEndian(data, start + 1, start + 4);
+            case LENGTH_ENCODED_8_BYTES:
+                return readLongByLittleEndian(data, start + 1, start + 9);
+            default:
+                return flag;
+        }
+    }
+
+    /**
+     * Get the byte size of a MySQL length encoded integer, include the flag byte
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @return int the byte size
+     */
+    public static int getLengthEncodedIntSize(byte[] data, int start) {
+        int flag = data[start] & 0xFF;
+        switch (flag) {
+            case LENGTH_ENCODED_2_BYTES:
+                return 3;
+            case LENGTH_ENCODED_3_BYTES:
+                return 4;
+            case LENGTH_ENCODED_8_BYTES:
+                return 9;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Get the index of the NUL terminator
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @return int the index of the NUL terminator, -1 if not found
+     */
+    public static int indexOfNul(byte[] data, int start) {
+        for (int i = start; i < data.length; i++) {
+            if (data[i] == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read NUL terminated string
+     *
+     * @param data byte[] the data
+     * @param start int the start index
+     * @return String the string without terminator, null if the terminator is not found
+     */
+    public static String readNulTerminatedString(byte[] data, int start) {
+        int end = indexOfNul(data, start);
+        if (end == -1) {
+            return null;
+        }
+        return new String(data, start, end - start, CHARSET);
+    }
+
+    /**
+     * Get the two digits hex string of a byte, the string is cached
+     *
+     * @param value byte the value
+     * @return String the hex string
+     */
+    public static String toHex(byte value) {
+        return HEX_CACHE[value & 0xFF];
+    }
+
+    /**
+     * Append the two digits hex of a byte
+     *
+     * @param sb StringBuilder the string builder
+     * @param value byte the value
+     */
+    public static void appendHex(StringBuilder sb, byte value) {
+        sb.append(HEX_DIGITS[(value >> 4) & 0x0F]).append(HEX_DIGITS[value & 0x0F]);
+    }
+}
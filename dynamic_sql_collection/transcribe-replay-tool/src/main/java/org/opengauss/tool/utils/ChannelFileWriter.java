@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Description: Long-lived append writer of one file. The channel stays open until the file is closed,
+ * the writes are gathered in a direct buffer and the file size is counted in memory, so that the
+ * caller rolls over to the next file without asking the file system. The data is synced to the disk
+ * never, when the file is closed, or at most once per interval when it is flushed.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/23
+ **/
+public final class ChannelFileWriter extends OutputStream {
+    /**
+     * never sync, the operating system writes the data back
+     */
+    public static final String FSYNC_NONE = "none";
+
+    /**
+     * sync when the file is closed
+     */
+    public static final String FSYNC_SEGMENT = "segment";
+
+    /**
+     * sync on flush once the interval has passed since the last sync, and when the file is closed
+     */
+    public static final String FSYNC_INTERVAL = "interval";
+
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final String fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private long size;
+    private long syncTimeMillis;
+
+    /**
+     * Constructor
+     *
+     * @param filePath String the file path, the file is created or appended to
+     * @param fsyncPolicy String the fsync policy, none, segment or interval
+     * @param fsyncIntervalMillis long the min milliseconds between two syncs of the interval policy
+     * @throws IOException if the file can not be opened
+     */
+    public ChannelFileWriter(String filePath, String fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        this.fsyncPolicy = fsyncPolicy == null ? FSYNC_NONE : fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.size = channel.size();
+        this.syncTimeMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Get the file size including the buffered bytes
+     *
+     * @return long the size
+     */
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) value);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] data, int offset, int length) throws IOException {
+        int written = 0;
+        while (written < length) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int count = Math.min(buffer.remaining(), length - written);
+            buffer.put(data, offset + written, count);
+            written += count;
+        }
+        size += length;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (FSYNC_INTERVAL.equals(fsyncPolicy)
+                && System.currentTimeMillis() - syncTimeMillis >= fsyncIntervalMillis) {
+            sync();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            if (!FSYNC_NONE.equals(fsyncPolicy)) {
+                sync();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        syncTimeMillis = System.currentTimeMillis();
+    }
+}
@@ -43,9 +43,12 @@ public final class CommonParser {
      * @return String the hexadecimal number
      */
     public static String parseByLittleEndian(byte[] packet, int start, int end) {
-        StringBuilder sb = new StringBuilder();
+        if (end - start == 1) {
+            return ByteCodec.toHex(packet[start]);
+        }
+        StringBuilder sb = new StringBuilder((end - start) * 2);
         for (int i = end - 1; i >= start; i--) {
-            sb.append(String.format("%02x", packet[i] & 0xFF));
+            ByteCodec.appendHex(sb, packet[i]);
         }
         return sb.toString();
     }
@@ -59,9 +62,12 @@ public final class CommonParser {
      * @return String the hexadecimal number
      */
     public static String parseByBigEndian(byte[] packet, int start, int end) {
-        StringBuilder sb = new StringBuilder();
+        if (end - start == 1) {
+            return ByteCodec.toHex(packet[start]);
+        }
+        StringBuilder sb = new StringBuilder((end - start) * 2);
         for (int i = start; i < end; i++) {
-            sb.append(String.format("%02x", packet[i] & 0xFF));
+            ByteCodec.appendHex(sb, packet[i]);
         }
         return sb.toString();
     }
@@ -85,9 +91,9 @@ public final class CommonParser {
      * @return long the parse result
      */
     public static long parseTimestamp(byte[] packet) {
-        int high = Integer.parseInt(CommonParser.parseByLittleEndian(packet, 0, 4), 16);
-        int low = Integer.parseInt(CommonParser.parseByLittleEndian(packet, 4, 8), 16);
-        return (long) high * 1000 * 1000 + low;
+        long high = ByteCodec.readLongByLittleEndian(packet, 0, 4);
+        long low = ByteCodec.readLongByLittleEndian(packet, 4, 8);
+        return high * 1000 * 1000 + low;
     }
 
     /**
@@ -100,7 +106,7 @@ public final class CommonParser {
      * @return int the parse result
      */
     public static int parseIntByBigEndian(byte[] packet, int start, int end) {
-        return Integer.parseInt(parseByBigEndian(packet, start, end), 16);
+        return ByteCodec.readIntByBigEndian(packet, start, end);
     }
 
     /**
@@ -113,7 +119,7 @@ public final class CommonParser {
      * @return long the parse result
      */
     public static long parseLongByBigEndian(byte[] packet, int start, int end) {
-        return Long.parseLong(parseByBigEndian(packet, start, end), 16);
+        return ByteCodec.readLongByBigEndian(packet, start, end);
     }
 
 
@@ -128,6 +134,6 @@ public final class CommonParser {
      * @return int the parse result
      */
     public static int parseIntByLittleEndian(byte[] packet, int start, int end) {
-        return Integer.parseInt(parseByLittleEndian(packet, start, end), 16);
+        return ByteCodec.readIntByLittleEndian(packet, start, end);
     }
 }
@@ -26,6 +26,7 @@ import org.opengauss.tool.config.transcribe.AttachConfig;
 import org.opengauss.tool.config.transcribe.GeneralLogConfig;
 import org.opengauss.tool.config.transcribe.TcpdumpConfig;
 import org.opengauss.tool.config.transcribe.TranscribeConfig;
+import org.opengauss.tool.parse.PacketFilter;
 import org.opengauss.tool.parse.object.DatabaseTypeEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -119,6 +120,11 @@ public final class ConfigReader {
      */
     public static final String DB = "db";
 
+    /**
+     * binary
+     */
+    public static final String BINARY = "binary";
+
     /**
      * tcpdump
      */
@@ -170,7 +176,33 @@ public final class ConfigReader {
     public static final String SQL_FILE_NAME = "sql.file.name";
 
     /**
-     * queue size limit
+     * fsync policy of the sql files, none, segment or interval
+     */
+    public static final String SQL_FILE_FSYNC = "sql.file.fsync";
+
+    /**
+     * sql file fsync policy list
+     */
+    public static final List<String> SQL_FILE_FSYNC_LIST = Collections.unmodifiableList(Arrays.asList(
+        ChannelFileWriter.FSYNC_NONE, ChannelFileWriter.FSYNC_SEGMENT, ChannelFileWriter.FSYNC_INTERVAL));
+
+    /**
+     * min milliseconds between two syncs of the sql files with the interval fsync policy
+     */
+    public static final String SQL_FILE_FSYNC_INTERVAL = "sql.file.fsync.interval";
+
+    /**
+     * memory limit in MB of the packets read but not distributed
+     */
+    public static final String QUEUE_MEMORY_LIMIT = "queue.memory.limit";
+
+    /**
+     * max memory limit in MB of the packets read but not distributed, they are held in a single byte array
+     */
+    public static final int MAX_QUEUE_MEMORY_LIMIT = Integer.MAX_VALUE / (1024 * 1024);
+
+    /**
+     * max count of the packets read but not distributed, 0 to derive it from the memory limit
      */
     public static final String QUEUE_SIZE_LIMIT = "queue.size.limit";
 
@@ -178,6 +210,103 @@ public final class ConfigReader {
      * packet batch size
      */
     public static final String PACKET_BATCH_SIZE = "packet.batch.size";
+
+    /**
+     * pcap file read mode
+     */
+    public static final String PCAP_READ_MODE = "pcap.read.mode";
+
+    /**
+     * read pcap file by stream
+     */
+    public static final String PCAP_READ_MODE_STREAM = "stream";
+
+    /**
+     * read pcap file by memory mapping
+     */
+    public static final String PCAP_READ_MODE_MMAP = "mmap";
+
+    /**
+     * read the packets from the standard output of a tcpdump started by parse, without pcap files
+     */
+    public static final String PCAP_READ_MODE_TCPDUMP = "tcpdump";
+
+    /**
+     * pcap file read mode list
+     */
+    public static final List<String> PCAP_READ_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(PCAP_READ_MODE_STREAM, PCAP_READ_MODE_MMAP, PCAP_READ_MODE_TCPDUMP));
+
+    /**
+     * count of workers indexing finished pcap files in parallel, 1 means the files are read one by one
+     */
+    public static final String PCAP_READ_WORKER_COUNT = "pcap.read.worker.count";
+
+    /**
+     * parse session mode
+     */
+    public static final String PARSE_SESSION_MODE = "parse.session.mode";
+
+    /**
+     * parse every session on its own thread
+     */
+    public static final String PARSE_SESSION_MODE_THREAD = "thread";
+
+    /**
+     * parse sessions on a fixed set of workers
+     */
+    public static final String PARSE_SESSION_MODE_WORKER = "worker";
+
+    /**
+     * parse every session on its own virtual thread
+     */
+    public static final String PARSE_SESSION_MODE_VIRTUAL = "virtual";
+
+    /**
+     * parse session mode list
+     */
+    public static final List<String> PARSE_SESSION_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(PARSE_SESSION_MODE_THREAD, PARSE_SESSION_MODE_WORKER, PARSE_SESSION_MODE_VIRTUAL));
+
+    /**
+     * parse session worker count
+     */
+    public static final String PARSE_SESSION_WORKER_COUNT = "parse.session.worker.count";
+
+    /**
+     * max count of out of order tcp segments held per direction of a session
+     */
+    public static final String PARSE_REORDER_WINDOW_SIZE = "parse.reorder.window.size";
+
+    /**
+     * max capture time in milliseconds to wait for a missing tcp segment
+     */
+    public static final String PARSE_REORDER_GAP_TIMEOUT = "parse.reorder.gap.timeout";
+
+    /**
+     * seconds a session parser thread waits for packets before it is parked, 0 means never
+     */
+    public static final String PARSE_SESSION_IDLE_TIMEOUT = "parse.session.idle.timeout";
+
+    /**
+     * comma separated subnets of the clients whose packets are parsed, empty means every client
+     */
+    public static final String PARSE_FILTER_CLIENT_SUBNETS = "parse.filter.client.subnets";
+
+    /**
+     * fraction of the client sessions parsed, chosen by the hash of the client address and port
+     */
+    public static final String PARSE_SESSION_SAMPLE_RATE = "parse.session.sample.rate";
+
+    /**
+     * compression codec of the sql files and select result files written by parse
+     */
+    public static final String PARSE_FILE_COMPRESSION = "parse.file.compression";
+
+    /**
+     * seconds between two snapshots of the parse metrics file, 0 means no metrics file
+     */
+    public static final String PARSE_METRICS_INTERVAL = "parse.metrics.interval";
     // transcribe
     // general parameters
     /**
@@ -225,6 +354,11 @@ public final class ConfigReader {
      */
     public static final String TCPDUMP_FILE_DROP = "tcpdump.file.drop";
 
+    /**
+     * copy the packets read from the tcpdump stream to pcap files
+     */
+    public static final String TCPDUMP_STREAM_TEE = "tcpdump.stream.tee";
+
     /**
      * parse file max time
      */
@@ -380,6 +514,32 @@ public final class ConfigReader {
      */
     public static final String SQL_TABLE_DROP = "sql.table.drop";
 
+    /**
+     * sql storage write mode
+     */
+    public static final String SQL_STORAGE_WRITE_MODE = "sql.storage.write.mode";
+
+    /**
+     * sql storage write mode, insert sql by jdbc batch
+     */
+    public static final String SQL_STORAGE_WRITE_MODE_BATCH = "batch";
+
+    /**
+     * sql storage write mode, load sql by copy from stdin
+     */
+    public static final String SQL_STORAGE_WRITE_MODE_COPY = "copy";
+
+    /**
+     * sql storage write mode list
+     */
+    public static final List<String> SQL_STORAGE_WRITE_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(SQL_STORAGE_WRITE_MODE_BATCH, SQL_STORAGE_WRITE_MODE_COPY));
+
+    /**
+     * count of rows sent in one jdbc batch
+     */
+    public static final String SQL_STORAGE_BATCH_SIZE = "sql.storage.batch.size";
+
     /**
      * parse select result
      */
@@ -400,6 +560,27 @@ public final class ConfigReader {
      */
     public static final String RESULT_FILE_SIZE = "result.file.size";
 
+    /**
+     * select result capture mode
+     */
+    public static final String RESULT_CAPTURE_MODE = "result.capture.mode";
+
+    /**
+     * select result capture mode, keep the rows of a select result
+     */
+    public static final String RESULT_CAPTURE_MODE_DATA = "data";
+
+    /**
+     * select result capture mode, keep only the digests and the row count of a select result
+     */
+    public static final String RESULT_CAPTURE_MODE_DIGEST = "digest";
+
+    /**
+     * select result capture mode list
+     */
+    public static final List<String> RESULT_CAPTURE_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(RESULT_CAPTURE_MODE_DATA, RESULT_CAPTURE_MODE_DIGEST));
+
     /**
      * compare select result
      */
@@ -531,6 +712,68 @@ public final class ConfigReader {
      */
     public static final String SOURCE_TIME_INTERVAL_REPLAY = "source.time.interval.replay";
 
+    /**
+     * how the duration of a replayed dml is measured
+     */
+    public static final String SQL_REPLAY_TIMING_MODE = "sql.replay.timing.mode";
+
+    /**
+     * the dml is rewritten to explain analyze and the duration is read from the plan
+     */
+    public static final String SQL_REPLAY_TIMING_MODE_EXPLAIN = "explain";
+
+    /**
+     * the dml itself is executed and timed by the replay thread
+     */
+    public static final String SQL_REPLAY_TIMING_MODE_CLIENT = "client";
+
+    /**
+     * sql replay timing mode list
+     */
+    public static final List<String> SQL_REPLAY_TIMING_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(SQL_REPLAY_TIMING_MODE_EXPLAIN, SQL_REPLAY_TIMING_MODE_CLIENT));
+
+    /**
+     * fraction of the dml whose plan is captured in client timing mode besides the slow ones
+     */
+    public static final String SQL_REPLAY_EXPLAIN_SAMPLE_RATE = "sql.replay.explain.sample.rate";
+
+    /**
+     * max memory of the sql decoded from the sql files and waiting to be replayed, in MB
+     */
+    public static final String SQL_REPLAY_FILE_BUFFER_SIZE = "sql.replay.file.buffer.size";
+
+    /**
+     * whether the next sql file is decoded by a separate thread while the current one is replayed
+     */
+    public static final String SQL_REPLAY_FILE_PREFETCH = "sql.replay.file.prefetch";
+
+    /**
+     * count of the threads decoding the json sql files for replay
+     */
+    public static final String SQL_REPLAY_FILE_DECODE_THREAD_COUNT = "sql.replay.file.decode.thread.count";
+
+    /**
+     * how the sql stored in the database are read by replay
+     */
+    public static final String SQL_REPLAY_DB_READ_MODE = "sql.replay.db.read.mode";
+
+    /**
+     * read the sql page by page, every page starts after the last id read
+     */
+    public static final String SQL_REPLAY_DB_READ_MODE_PAGE = "page";
+
+    /**
+     * read the sql through a server side cursor, rows are fetched in batches of the fetch size
+     */
+    public static final String SQL_REPLAY_DB_READ_MODE_CURSOR = "cursor";
+
+    /**
+     * sql replay db read mode list
+     */
+    public static final List<String> SQL_REPLAY_DB_READ_MODE_LIST = Collections.unmodifiableList(
+        Arrays.asList(SQL_REPLAY_DB_READ_MODE_PAGE, SQL_REPLAY_DB_READ_MODE_CURSOR));
+
     /**
      * slow db
      */
@@ -580,7 +823,7 @@ public final class ConfigReader {
             putSystemConfig(props);
         } else {
             putGeneralDatabaseConfig(props);
-            String sqlStorageMode = checkSqlStorageMode(props);
+            String sqlStorageMode = checkSqlStorageMode(props, false);
             if (JSON.equals(sqlStorageMode)) {
                 putSqlFileConfig(props);
             } else {
@@ -615,9 +858,15 @@ public final class ConfigReader {
         if (checkIsParseResult(props)) {
             putParseSelectConfig(props);
         }
-        String sqlStorageMode = checkSqlStorageMode(props);
-        if (JSON.equals(sqlStorageMode)) {
+        String sqlStorageMode = checkSqlStorageMode(props, true);
+        if (!DB.equals(sqlStorageMode)) {
             putSqlFileConfig(props);
+            CONFIG_MAP.put(SQL_REPLAY_FILE_BUFFER_SIZE,
+                matchNumber(props.getProperty(SQL_REPLAY_FILE_BUFFER_SIZE, "64")));
+            CONFIG_MAP.put(SQL_REPLAY_FILE_PREFETCH,
+                matchBoolean(props.getProperty(SQL_REPLAY_FILE_PREFETCH, "false")));
+            CONFIG_MAP.put(SQL_REPLAY_FILE_DECODE_THREAD_COUNT,
+                matchNumber(props.getProperty(SQL_REPLAY_FILE_DECODE_THREAD_COUNT, "1")));
         } else {
             putSqlDbConfig(props);
         }
@@ -648,12 +897,14 @@ public final class ConfigReader {
         if (checkIsCompareResult(props)) {
             putCompareResultConfig(props);
         }
-        String sqlStorageMode = checkSqlStorageMode(props);
+        String sqlStorageMode = checkSqlStorageMode(props, true);
         putTargetDbConfig(props);
-        if (JSON.equals(sqlStorageMode)) {
+        if (!DB.equals(sqlStorageMode)) {
             putSqlFileConfig(props);
         } else {
             putSqlDbConfig(props);
+            CONFIG_MAP.put(SQL_REPLAY_DB_READ_MODE, SQL_REPLAY_DB_READ_MODE_LIST.contains(
+                props.getProperty(SQL_REPLAY_DB_READ_MODE, SQL_REPLAY_DB_READ_MODE_PAGE)));
         }
         checkResult();
     }
@@ -665,6 +916,9 @@ public final class ConfigReader {
         CONFIG_MAP.put(SQL_DATABASE_NAME, matchRegularString(props.getProperty(SQL_DATABASE_NAME)));
         CONFIG_MAP.put(SQL_TABLE_NAME, matchRegularString(props.getProperty(SQL_TABLE_NAME, DEFAULT_SQL_TABLE)));
         CONFIG_MAP.put(SQL_TABLE_DROP, matchBoolean(props.getProperty(SQL_TABLE_DROP, "false")));
+        CONFIG_MAP.put(SQL_STORAGE_WRITE_MODE, SQL_STORAGE_WRITE_MODE_LIST.contains(
+            props.getProperty(SQL_STORAGE_WRITE_MODE, SQL_STORAGE_WRITE_MODE_BATCH)));
+        CONFIG_MAP.put(SQL_STORAGE_BATCH_SIZE, matchNumber(props.getProperty(SQL_STORAGE_BATCH_SIZE, "1000")));
     }
 
     private static void putSqlFileConfig(Properties props) {
@@ -672,6 +926,9 @@ public final class ConfigReader {
             props.getProperty(SQL_FILE_PATH, FileOperator.CURRENT_PATH + DEFAULT_SQL_FILES + File.separator)));
         CONFIG_MAP.put(SQL_FILE_SIZE, matchNumber(props.getProperty(SQL_FILE_SIZE, "10")));
         CONFIG_MAP.put(SQL_FILE_NAME, matchRegularString(props.getProperty(SQL_FILE_NAME, DEFAULT_SQL_FILE)));
+        CONFIG_MAP.put(SQL_FILE_FSYNC,
+            SQL_FILE_FSYNC_LIST.contains(props.getProperty(SQL_FILE_FSYNC, ChannelFileWriter.FSYNC_NONE)));
+        CONFIG_MAP.put(SQL_FILE_FSYNC_INTERVAL, matchInt(props.getProperty(SQL_FILE_FSYNC_INTERVAL, "1000")));
     }
 
     private static void putParseConfig(Properties props) {
@@ -679,17 +936,50 @@ public final class ConfigReader {
         CONFIG_MAP.put(TCPDUMP_DATABASE_TYPE, matchDbType(props.getProperty(TCPDUMP_DATABASE_TYPE)));
         CONFIG_MAP.put(TCPDUMP_DATABASE_IP, matchIp(props.getProperty(TCPDUMP_DATABASE_IP)));
         CONFIG_MAP.put(TCPDUMP_DATABASE_PORT, matchPort(props.getProperty(TCPDUMP_DATABASE_PORT)));
-        CONFIG_MAP.put(QUEUE_SIZE_LIMIT, matchNumber(props.getProperty(QUEUE_SIZE_LIMIT, "10000")));
+        CONFIG_MAP.put(QUEUE_MEMORY_LIMIT, matchQueueMemoryLimit(props.getProperty(QUEUE_MEMORY_LIMIT, "64")));
+        CONFIG_MAP.put(QUEUE_SIZE_LIMIT, matchInt(props.getProperty(QUEUE_SIZE_LIMIT, "0")));
         CONFIG_MAP.put(PACKET_BATCH_SIZE, matchNumber(props.getProperty(PACKET_BATCH_SIZE, "10000")));
         CONFIG_MAP.put(TCPDUMP_FILE_DROP, matchBoolean(props.getProperty(TCPDUMP_FILE_DROP, "false")));
         CONFIG_MAP.put(PARSE_MAX_TIME, matchInt(props.getProperty(PARSE_MAX_TIME, "0")));
+        CONFIG_MAP.put(PCAP_READ_MODE,
+            PCAP_READ_MODE_LIST.contains(props.getProperty(PCAP_READ_MODE, PCAP_READ_MODE_STREAM)));
+        CONFIG_MAP.put(PCAP_READ_WORKER_COUNT, matchNumber(props.getProperty(PCAP_READ_WORKER_COUNT, "1")));
+        CONFIG_MAP.put(PARSE_SESSION_MODE,
+            PARSE_SESSION_MODE_LIST.contains(props.getProperty(PARSE_SESSION_MODE, PARSE_SESSION_MODE_THREAD)));
+        CONFIG_MAP.put(PARSE_SESSION_WORKER_COUNT, matchNumber(props.getProperty(PARSE_SESSION_WORKER_COUNT,
+            String.valueOf(Runtime.getRuntime().availableProcessors()))));
+        CONFIG_MAP.put(PARSE_REORDER_WINDOW_SIZE, matchNumber(props.getProperty(PARSE_REORDER_WINDOW_SIZE, "64")));
+        CONFIG_MAP.put(PARSE_REORDER_GAP_TIMEOUT, matchNumber(props.getProperty(PARSE_REORDER_GAP_TIMEOUT, "1000")));
+        CONFIG_MAP.put(PARSE_SESSION_IDLE_TIMEOUT, matchNumber(props.getProperty(PARSE_SESSION_IDLE_TIMEOUT, "60")));
+        CONFIG_MAP.put(PARSE_FILTER_CLIENT_SUBNETS,
+            PacketFilter.isValidSubnets(props.getProperty(PARSE_FILTER_CLIENT_SUBNETS, "")));
+        CONFIG_MAP.put(PARSE_SESSION_SAMPLE_RATE, matchDouble(props.getProperty(PARSE_SESSION_SAMPLE_RATE, "1")));
+        CONFIG_MAP.put(PARSE_FILE_COMPRESSION,
+            BlockCodecs.isSupported(props.getProperty(PARSE_FILE_COMPRESSION, BlockCodecs.NONE)));
+        CONFIG_MAP.put(PARSE_METRICS_INTERVAL, matchInt(props.getProperty(PARSE_METRICS_INTERVAL, "10")));
         CONFIG_MAP.put(PARSE_SELECT_RESULT, matchBoolean(props.getProperty(PARSE_SELECT_RESULT, "false")));
+        if (PCAP_READ_MODE_TCPDUMP.equals(props.getProperty(PCAP_READ_MODE))) {
+            putTcpdumpStreamConfig(props);
+        }
+    }
+
+    private static void putTcpdumpStreamConfig(Properties props) {
+        CONFIG_MAP.put(TCPDUMP_PLUGIN_PATH,
+            matchFilePath(props.getProperty(TCPDUMP_PLUGIN_PATH, FileOperator.CURRENT_PATH + PLUGIN + File.separator)));
+        CONFIG_MAP.put(TCPDUMP_NETWORK_INTERFACE, matchRegularString(props.getProperty(TCPDUMP_NETWORK_INTERFACE)));
+        CONFIG_MAP.put(TCPDUMP_CAPTURE_DURATION, matchNumber(props.getProperty(TCPDUMP_CAPTURE_DURATION, "1")));
+        CONFIG_MAP.put(TCPDUMP_STREAM_TEE, matchBoolean(props.getProperty(TCPDUMP_STREAM_TEE, "false")));
+        CONFIG_MAP.put(TCPDUMP_FILE_NAME,
+            matchRegularString(props.getProperty(TCPDUMP_FILE_NAME, DEFAULT_TCPDUMP_FILE)));
+        CONFIG_MAP.put(TCPDUMP_FILE_SIZE, matchNumber(props.getProperty(TCPDUMP_FILE_SIZE, "10")));
     }
 
     private static void putParseSelectConfig(Properties props) {
         CONFIG_MAP.put(SELECT_RESULT_PATH, matchFilePath(props.getProperty(SELECT_RESULT_PATH)));
         CONFIG_MAP.put(RESULT_FILE_NAME, matchRegularString(props.getProperty(RESULT_FILE_NAME, DEFAULT_RESULT_FILE)));
         CONFIG_MAP.put(RESULT_FILE_SIZE, matchNumber(props.getProperty(RESULT_FILE_SIZE, "10")));
+        CONFIG_MAP.put(RESULT_CAPTURE_MODE,
+            RESULT_CAPTURE_MODE_LIST.contains(props.getProperty(RESULT_CAPTURE_MODE, RESULT_CAPTURE_MODE_DATA)));
     }
 
     private static void putGeneralDatabaseConfig(Properties props) {
@@ -781,6 +1071,11 @@ public final class ConfigReader {
         CONFIG_MAP.put(SOURCE_TIME_INTERVAL_REPLAY,
             matchBoolean(props.getProperty(SOURCE_TIME_INTERVAL_REPLAY, "false")));
         CONFIG_MAP.put(COMPARE_SELECT_RESULT, matchBoolean(props.getProperty(COMPARE_SELECT_RESULT, "false")));
+        CONFIG_MAP.put(SQL_REPLAY_TIMING_MODE, SQL_REPLAY_TIMING_MODE_LIST.contains(
+            props.getProperty(SQL_REPLAY_TIMING_MODE, SQL_REPLAY_TIMING_MODE_EXPLAIN)));
+        String explainSampleRate = props.getProperty(SQL_REPLAY_EXPLAIN_SAMPLE_RATE, "0");
+        CONFIG_MAP.put(SQL_REPLAY_EXPLAIN_SAMPLE_RATE, "0".equals(explainSampleRate)
+            || matchDouble(explainSampleRate));
     }
 
     private static void putCompareResultConfig(Properties props) {
@@ -797,11 +1092,14 @@ public final class ConfigReader {
             matchRegularString(props.getProperty(SQL_REPLAY_DATABASE_USERNAME)));
     }
 
-    private static String checkSqlStorageMode(Properties props) {
+    private static String checkSqlStorageMode(Properties props, boolean isBinarySupported) {
         String sqlStorageMode = props.getProperty(SQL_STORAGE_MODE, JSON);
+        if (isBinarySupported && sqlStorageMode.equals(BINARY)) {
+            return sqlStorageMode;
+        }
         if (!sqlStorageMode.equals(JSON) && !sqlStorageMode.equals(DB)) {
-            LOGGER.error("SQL storage mode is not supported, {} value must be one of the {}, {}.", SQL_STORAGE_MODE,
-                JSON, DB);
+            LOGGER.error("SQL storage mode is not supported, {} value must be one of the {}, {}{}.", SQL_STORAGE_MODE,
+                JSON, DB, isBinarySupported ? ", " + BINARY : "");
             System.exit(-1);
         }
         return sqlStorageMode;
@@ -970,6 +1268,18 @@ public final class ConfigReader {
         return true;
     }
 
+    private static boolean matchQueueMemoryLimit(String limit) {
+        if (!matchNumber(limit)) {
+            return false;
+        }
+        if (limit.length() > String.valueOf(MAX_QUEUE_MEMORY_LIMIT).length()
+                || Integer.parseInt(limit) > MAX_QUEUE_MEMORY_LIMIT) {
+            LOGGER.error("{} can not exceed {} MB.", QUEUE_MEMORY_LIMIT, MAX_QUEUE_MEMORY_LIMIT);
+            return false;
+        }
+        return true;
+    }
+
     private static Boolean matchPort(String port) {
         if (!matchNumber(port)) {
             return false;
@@ -22,8 +22,12 @@ import org.opengauss.tool.parse.object.PreparedValue;
 import org.opengauss.tool.parse.object.SessionInfo;
 import org.opengauss.tool.parse.object.SqlInfo;
 import org.slf4j.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -41,12 +45,15 @@ import java.util.Set;
 @Data
 public final class DatabaseOperator {
     private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseOperator.class);
+    private static final String COPY_FROM_STDIN = "copy %s from stdin";
+    private static final String COPY_NULL = "\\N";
     private DatabaseConfig config;
     private Connection connection;
     private String dbType;
     private String insertToSqlTable;
     private String insertToParaTable;
     private String insertToSession;
+    private String sqlTableName;
     private String queryFromGeneralLog;
     private long sqlId;
 
@@ -87,6 +94,7 @@ public final class DatabaseOperator {
      */
     public void initStorage(DatabaseConfig opengaussConfig, boolean isNeedForeignTable, boolean shouldDropSameTable) {
         String tableName = opengaussConfig.getTableName();
+        this.sqlTableName = tableName;
         initSqlTable(tableName, "SQL", shouldDropSameTable);
         this.insertToSqlTable = String.format("insert into %s values(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", tableName);
         if (isNeedForeignTable) {
@@ -166,6 +174,19 @@ public final class DatabaseOperator {
      * @param isNeedParaTable boolean the need parameter table
      */
     public void insertSqlToDatabase(List<SqlInfo> sqlList, boolean isNeedParaTable) {
+        try {
+            if (isCopyWrite()) {
+                copySqlToDatabase(sqlList, isNeedParaTable);
+            } else {
+                batchInsertSql(sqlList, isNeedParaTable);
+            }
+            LOGGER.info("Commit {} sql to database.", sqlList.size());
+        } catch (SQLException | IOException e) {
+            LOGGER.error("Exception occurred while insert sql to database, error message is {}.", e.getMessage());
+        }
+    }
+
+    private void batchInsertSql(List<SqlInfo> sqlList, boolean isNeedParaTable) throws SQLException {
         PreparedStatement psPrimary = null;
         PreparedStatement psForeign = null;
         try {
@@ -173,6 +194,9 @@ public final class DatabaseOperator {
                 psForeign = connection.prepareStatement(insertToParaTable);
             }
             psPrimary = connection.prepareStatement(insertToSqlTable);
+            int batchSize = config.getBatchSize();
+            int primaryCount = 0;
+            int foreignCount = 0;
             for (SqlInfo sql : sqlList) {
                 psPrimary.setLong(1, ++sqlId);
                 psPrimary.setLong(2, sql.getSqlId());
@@ -185,24 +209,119 @@ public final class DatabaseOperator {
                 psPrimary.setLong(9, sql.getStartTime());
                 psPrimary.setLong(10, sql.getEndTime());
                 psPrimary.setLong(11, sql.getExecuteDuration());
-                psPrimary.executeUpdate();
-                if (sql.isPbe()) {
-                    int index = 0;
-                    for (PreparedValue parameter : sql.getParameterList()) {
-                        psForeign.setLong(1, sqlId);
-                        psForeign.setInt(2, ++index);
-                        psForeign.setString(3, parameter.getType());
-                        psForeign.setString(4, parameter.getValue());
-                        psForeign.executeUpdate();
+                psPrimary.addBatch();
+                if (++primaryCount % batchSize == 0) {
+                    psPrimary.executeBatch();
+                }
+                if (!sql.isPbe() || psForeign == null) {
+                    continue;
+                }
+                int index = 0;
+                for (PreparedValue parameter : sql.getParameterList()) {
+                    psForeign.setLong(1, sqlId);
+                    psForeign.setInt(2, ++index);
+                    psForeign.setString(3, parameter.getType());
+                    psForeign.setString(4, parameter.getValue());
+                    psForeign.addBatch();
+                    if (++foreignCount % batchSize == 0) {
+                        psForeign.executeBatch();
                     }
                 }
             }
-            LOGGER.info("Commit {} sql to database.", sqlList.size());
+            psPrimary.executeBatch();
+            if (psForeign != null) {
+                psForeign.executeBatch();
+            }
+        } finally {
+            closeStatement(psPrimary);
+            closeStatement(psForeign);
+        }
+    }
+
+    private void copySqlToDatabase(List<SqlInfo> sqlList, boolean isNeedParaTable) throws SQLException, IOException {
+        StringBuilder sqlRows = new StringBuilder();
+        StringBuilder paraRows = new StringBuilder();
+        for (SqlInfo sql : sqlList) {
+            long id = ++sqlId;
+            appendCopyValue(sqlRows, id, false);
+            appendCopyValue(sqlRows, sql.getSqlId(), false);
+            appendCopyValue(sqlRows, sql.isQuery(), false);
+            appendCopyValue(sqlRows, sql.isPbe(), false);
+            appendCopyValue(sqlRows, sql.getSessionId(), false);
+            appendCopyValue(sqlRows, sql.getUsername(), false);
+            appendCopyValue(sqlRows, sql.getSchema(), false);
+            appendCopyValue(sqlRows, sql.getSql(), false);
+            appendCopyValue(sqlRows, sql.getStartTime(), false);
+            appendCopyValue(sqlRows, sql.getEndTime(), false);
+            appendCopyValue(sqlRows, sql.getExecuteDuration(), true);
+            if (!sql.isPbe() || !isNeedParaTable) {
+                continue;
+            }
+            int index = 0;
+            for (PreparedValue parameter : sql.getParameterList()) {
+                appendCopyValue(paraRows, id, false);
+                appendCopyValue(paraRows, ++index, false);
+                appendCopyValue(paraRows, parameter.getType(), false);
+                appendCopyValue(paraRows, parameter.getValue(), true);
+            }
+        }
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        copyManager.copyIn(String.format(COPY_FROM_STDIN, sqlTableName), new StringReader(sqlRows.toString()));
+        if (paraRows.length() > 0) {
+            copyManager.copyIn(String.format(COPY_FROM_STDIN, sqlTableName + "_paras"),
+                new StringReader(paraRows.toString()));
+        }
+    }
+
+    private boolean isCopyWrite() {
+        if (!ConfigReader.SQL_STORAGE_WRITE_MODE_COPY.equals(config.getWriteMode())) {
+            return false;
+        }
+        try {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                return true;
+            }
         } catch (SQLException e) {
-            LOGGER.error("SQLException occurred while insert sql to database, error message is {}.", e.getMessage());
+            LOGGER.warn("Check copy support failed, error message is {}.", e.getMessage());
+        }
+        LOGGER.warn("The storage connection does not support copy, write sql by batch insert.");
+        config.setWriteMode(ConfigReader.SQL_STORAGE_WRITE_MODE_BATCH);
+        return false;
+    }
+
+    private static void appendCopyValue(StringBuilder sb, Object value, boolean isLast) {
+        if (value == null) {
+            sb.append(COPY_NULL);
+        } else if (value instanceof Boolean) {
+            sb.append((Boolean) value ? 't' : 'f');
+        } else if (value instanceof String) {
+            appendCopyText(sb, (String) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append(isLast ? '\n' : '\t');
+    }
+
+    private static void appendCopyText(StringBuilder sb, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(ch);
+            }
         }
-        closeStatement(psPrimary);
-        closeStatement(psForeign);
     }
 
     /**
@@ -226,20 +345,50 @@ public final class DatabaseOperator {
      */
     public synchronized void insertSessionToDb(Set<SessionInfo> sessionInfoSet) {
         refreshConnection();
+        try {
+            if (isCopyWrite()) {
+                copySessionToDatabase(sessionInfoSet);
+            } else {
+                batchInsertSession(sessionInfoSet);
+            }
+        } catch (SQLException | IOException e) {
+            LOGGER.error("Exception occurred while insert session information to database, error message is {}.",
+                e.getMessage());
+        }
+    }
+
+    private void batchInsertSession(Set<SessionInfo> sessionInfoSet) throws SQLException {
         PreparedStatement psSession = null;
         try {
             psSession = connection.prepareStatement(insertToSession);
+            int count = 0;
             for (SessionInfo sessionInfo : sessionInfoSet) {
                 psSession.setString(1, sessionInfo.getSessionId());
                 psSession.setString(2, sessionInfo.getUsername());
                 psSession.setString(3, sessionInfo.getSchema());
-                psSession.execute();
+                psSession.addBatch();
+                if (++count % config.getBatchSize() == 0) {
+                    psSession.executeBatch();
+                }
             }
-        } catch (SQLException e) {
-            LOGGER.error("SQLException occurred while insert session information to database, error message is {}.",
-                e.getMessage());
+            psSession.executeBatch();
+        } finally {
+            closeStatement(psSession);
+        }
+    }
+
+    private void copySessionToDatabase(Set<SessionInfo> sessionInfoSet) throws SQLException, IOException {
+        StringBuilder sessionRows = new StringBuilder();
+        for (SessionInfo sessionInfo : sessionInfoSet) {
+            appendCopyValue(sessionRows, sessionInfo.getSessionId(), false);
+            appendCopyValue(sessionRows, sessionInfo.getUsername(), false);
+            appendCopyValue(sessionRows, sessionInfo.getSchema(), true);
+        }
+        if (sessionRows.length() > 0) {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            copyManager.copyIn(String.format(COPY_FROM_STDIN, sqlTableName + "_session"),
+                new StringReader(sessionRows.toString()));
         }
-        closeStatement(psSession);
     }
 
     /**
@@ -23,12 +23,8 @@ import org.opengauss.tool.parse.object.SqlInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
@@ -58,6 +54,11 @@ public final class FileOperator {
     private int fileId = 1;
     private int sessionFileId = 1;
     private long sqlId;
+    private SqlSegmentWriter segmentWriter;
+    private ChannelFileWriter sqlOut;
+    private LineFileWriter sqlWriter;
+    private ChannelFileWriter sessionOut;
+    private LineFileWriter sessionWriter;
 
     /**
      * Constructor
@@ -69,108 +70,145 @@ public final class FileOperator {
     }
 
     /**
-     * Write sql to file
+     * Write sql to file, a new file is started when the current one is full
      *
      * @param sqlList List<SqlObject> the sqlList
      * @param isIncludeExecuteDuration boolean the isIncludeExecuteDuration
      */
     public void writeSqlToFile(List<SqlInfo> sqlList, boolean isIncludeExecuteDuration) {
-        String fileFullPath = config.getFilePath() + config.getFileName() + "-" + fileId + ".json";
-        File sqlFile = new File(fileFullPath);
-        if (!sqlFile.exists()) {
-            try {
-                sqlFile.createNewFile();
-            } catch (IOException e) {
-                LOGGER.error("IOException occurred while creating sql file {}, error message is: {}.",
-                        fileFullPath, e.getMessage());
+        if (config.isBinary()) {
+            writeSqlToSegment(sqlList);
+            return;
+        }
+        try {
+            if (sqlWriter == null || sqlOut.getSize() >= getFileSizeLimit()) {
+                openSqlFile();
             }
-            writeSqlToFile(sqlList, isIncludeExecuteDuration);
-        } else if (sqlFile.length() >= (long) config.getFileSize() * 1024 * 1024) {
-            fileId++;
-            writeSqlToFile(sqlList, isIncludeExecuteDuration);
-        } else {
-            writeStringToFile(sqlList, fileFullPath, isIncludeExecuteDuration);
+            for (SqlInfo content : sqlList) {
+                content.setSqlId(++sqlId);
+                sqlWriter.writeLine(content.format(isIncludeExecuteDuration));
+            }
+            sqlWriter.flush();
+        } catch (IOException exception) {
+            LOGGER.error("Error occurred during SQL statement writing to file, error message is: {}",
+                    exception.getMessage());
         }
     }
 
     /**
-     * write session to file
+     * Write sql to binary segment file, a new segment is started when the current one is full
      *
-     * @param sessionSet Set<SessionInfo> the sessionSet
+     * @param sqlList List<SqlInfo> the sqlList
      */
-    public void writeSessionToFile(Set<SessionInfo> sessionSet) {
-        String fileFullPath = config.getFilePath() + "session-mapping" + "-" + sessionFileId + ".json";
-        File sessionFile = new File(fileFullPath);
-        if (!sessionFile.exists()) {
-            try {
-                sessionFile.createNewFile();
-            } catch (IOException e) {
-                LOGGER.error("IOException occurred while creating session file {}, error message is: {}.",
-                        fileFullPath, e.getMessage());
+    public void writeSqlToSegment(List<SqlInfo> sqlList) {
+        try {
+            if (segmentWriter == null || segmentWriter.getSize() >= getFileSizeLimit()) {
+                openSegment();
             }
-            writeSessionToFile(sessionSet);
-        } else if (sessionFile.length() >= (long) config.getFileSize() * 1024 * 1024) {
-            sessionFileId++;
-            writeSessionToFile(sessionSet);
-        } else {
-            writeStringToFile(sessionSet, fileFullPath);
+            for (SqlInfo content : sqlList) {
+                content.setSqlId(++sqlId);
+            }
+            segmentWriter.append(sqlList);
+        } catch (IOException exception) {
+            LOGGER.error("Error occurred during SQL statement writing to segment, error message is: {}",
+                    exception.getMessage());
         }
     }
 
     /**
-     * Format file path
+     * write session to file, a new file is started when the current one is full
      *
-     * @param originPath String the origin path
-     * @return String the formatted file path
+     * @param sessionSet Set<SessionInfo> the sessionSet
      */
-    public static String formatFilePath(String originPath) {
-        String modifiedPath;
-        if (!originPath.endsWith(File.separator)) {
-            modifiedPath = originPath + File.separator;
-        } else {
-            modifiedPath = originPath;
+    public void writeSessionToFile(Set<SessionInfo> sessionSet) {
+        try {
+            if (sessionWriter == null || sessionOut.getSize() >= getFileSizeLimit()) {
+                openSessionFile();
+            }
+            for (SessionInfo content : sessionSet) {
+                sessionWriter.writeLine(content.toString());
+            }
+            sessionWriter.flush();
+        } catch (IOException exception) {
+            LOGGER.error("Error occurred during session information writing to file, error message is: {}",
+                    exception.getMessage());
         }
-        return modifiedPath;
     }
 
     /**
-     * Write String to file
-     *
-     * @param sqlList  List<SqlObject> the sqlList
-     * @param filePath String the file path
-     * @param isExecuteDuration boolean the isExecuteDuration
+     * Close the current sql file, segment and session file
      */
-    public void writeStringToFile(List<SqlInfo> sqlList, String filePath, boolean isExecuteDuration) {
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(filePath, true), StandardCharsets.UTF_8))) {
-            for (SqlInfo content : sqlList) {
-                content.setSqlId(++sqlId);
-                writer.write(content.format(isExecuteDuration));
-                writer.newLine();
+    public void close() {
+        try {
+            closeWriter(sqlWriter);
+            closeWriter(sessionWriter);
+            if (segmentWriter != null) {
+                segmentWriter.close();
             }
         } catch (IOException exception) {
-            LOGGER.error("Error occurred during SQL statement writing to file, error message is: {}",
-                    exception.getMessage());
+            LOGGER.error("Error occurred during closing sql files, error message is: {}", exception.getMessage());
+        }
+        sqlWriter = null;
+        sessionWriter = null;
+        segmentWriter = null;
+    }
+
+    private void openSqlFile() throws IOException {
+        if (sqlWriter != null) {
+            closeWriter(sqlWriter);
+            fileId++;
+        }
+        sqlOut = openChannelFile(config.getFileName() + "-" + fileId + ".json");
+        sqlWriter = new LineFileWriter(sqlOut, BlockCodecs.forName(config.getCompression()), sqlOut.getSize() == 0);
+    }
+
+    private void openSessionFile() throws IOException {
+        if (sessionWriter != null) {
+            closeWriter(sessionWriter);
+            sessionFileId++;
+        }
+        sessionOut = openChannelFile("session-mapping" + "-" + sessionFileId + ".json");
+        sessionWriter = new LineFileWriter(sessionOut, null, sessionOut.getSize() == 0);
+    }
+
+    private void openSegment() throws IOException {
+        if (segmentWriter != null) {
+            segmentWriter.close();
+            fileId++;
+        }
+        segmentWriter = new SqlSegmentWriter(config.getFilePath() + config.getFileName() + "-" + fileId,
+                config.getFsyncPolicy(), config.getFsyncInterval());
+    }
+
+    private ChannelFileWriter openChannelFile(String fileName) throws IOException {
+        return new ChannelFileWriter(config.getFilePath() + fileName, config.getFsyncPolicy(),
+                config.getFsyncInterval());
+    }
+
+    private long getFileSizeLimit() {
+        return (long) config.getFileSize() * 1024 * 1024;
+    }
+
+    private static void closeWriter(LineFileWriter writer) throws IOException {
+        if (writer != null) {
+            writer.close();
         }
     }
 
     /**
-     * write string to file
+     * Format file path
      *
-     * @param sessionSet Set<SessionInfo> the sessionSet
-     * @param filePath string the file path
+     * @param originPath String the origin path
+     * @return String the formatted file path
      */
-    public void writeStringToFile(Set<SessionInfo> sessionSet, String filePath) {
-        try (BufferedWriter writer = new BufferedWriter(
-                new OutputStreamWriter(new FileOutputStream(filePath, true), StandardCharsets.UTF_8))) {
-            for (SessionInfo content : sessionSet) {
-                writer.write(content.toString());
-                writer.newLine();
-            }
-        } catch (IOException exception) {
-            LOGGER.error("Error occurred during session information writing to file, error message is: {}",
-                    exception.getMessage());
+    public static String formatFilePath(String originPath) {
+        String modifiedPath;
+        if (!originPath.endsWith(File.separator)) {
+            modifiedPath = originPath + File.separator;
+        } else {
+            modifiedPath = originPath;
         }
+        return modifiedPath;
     }
 
     /**
@@ -29,11 +29,15 @@ import org.slf4j.LoggerFactory;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * FileUtils
@@ -58,11 +62,13 @@ public final class FileUtils {
             return 0;
         }
         int count = 0;
+        String suffix = ConfigReader.BINARY.equals(replayConfig.getStorageMode())
+                ? SqlSegmentWriter.SEGMENT_SUFFIX : ".json";
         File[] files = directory.listFiles();
         if (files != null) {
             for (File file : files) {
                 if (file.isFile() && file.getName().startsWith(replayConfig.getFileName())
-                        && file.getName().endsWith(".json")) {
+                        && file.getName().endsWith(suffix)) {
                     count++;
                 }
             }
@@ -71,21 +77,22 @@ public final class FileUtils {
     }
 
     /**
-     * parse json to sqlModel
+     * Decode a json sql file and put its sql into the queue a chunk at a time, so that at most one chunk of
+     * the file is held outside the queue
      *
      * @param filePath filePath
-     * @return List<List<SqlModel>>
+     * @param queue the queue of the sql chunks
+     * @return int the count of chunks put
+     * @throws InterruptedException if interrupted while waiting for the queue
      */
-    public static List<List<SqlModel>> parseFile(String filePath) {
+    public static int readFile(String filePath, SqlChunkQueue queue) throws InterruptedException {
         if (StringUtils.isBlank(filePath)) {
             LOGGER.error("json file path is empty...");
-            System.exit(-1);
+            return 0;
         }
         LOGGER.info("parse sql file:{} start", filePath);
-        BufferedReader reader = null;
-        List<SqlModel> sqlModels = new ArrayList<>();
-        try {
-            reader = new BufferedReader(new FileReader(filePath));
+        SqlChunker chunker = new SqlChunker(queue);
+        try (BufferedReader reader = LineFileReader.open(filePath)) {
             String line;
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
@@ -94,35 +101,120 @@ public final class FileUtils {
                     if (jsonObject.get("sql").equals("finished")) {
                         break;
                     }
-                    SqlModel sqlModel = new SqlModel(jsonObject);
-                    sqlModels.add(sqlModel);
+                    chunker.add(new SqlModel(jsonObject));
                 }
             }
         } catch (FileNotFoundException e) {
             LOGGER.error("File not found. Error message:{}", e.getMessage());
-            return new ArrayList<>();
         } catch (IOException | JSONException e) {
             LOGGER.error("Parse file failed. Error message:{}", e.getMessage());
-            return new ArrayList<>();
-        } finally {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e) {
-                    LOGGER.error("Close file failed. Error message:{}", e.getMessage());
+        }
+        return chunker.flush();
+    }
+
+    /**
+     * Decode a json sql file on the decode pool, the file is split into chunks of 500 lines which are decoded
+     * by the workers and put into the queue in file order, at most windowSize chunks are decoded ahead
+     *
+     * @param filePath filePath
+     * @param queue the queue of the sql chunks
+     * @param decodePool the pool of the decode workers
+     * @param windowSize the max count of chunks submitted and not yet put
+     * @return int the count of chunks put
+     * @throws InterruptedException if interrupted while waiting for the workers or the queue
+     */
+    public static int readFile(String filePath, SqlChunkQueue queue, ExecutorService decodePool, int windowSize)
+        throws InterruptedException {
+        LOGGER.info("parse sql file:{} start", filePath);
+        SqlChunker chunker = new SqlChunker(queue);
+        Deque<Future<DecodedLines>> pendingChunks = new ArrayDeque<>();
+        boolean isFinished = false;
+        try (BufferedReader reader = LineFileReader.open(filePath)) {
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while (!isFinished && (line = reader.readLine()) != null) {
+                line = line.trim();
+                if (StringUtils.isEmpty(line)) {
+                    continue;
                 }
+                lines.add(line);
+                if (lines.size() == CHUNK_SIZE) {
+                    List<String> chunkLines = lines;
+                    pendingChunks.add(decodePool.submit(() -> decodeLines(chunkLines)));
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    if (pendingChunks.size() >= windowSize) {
+                        isFinished = putDecodedLines(pendingChunks.poll(), chunker);
+                    }
+                }
+            }
+            if (!isFinished && !lines.isEmpty()) {
+                List<String> chunkLines = lines;
+                pendingChunks.add(decodePool.submit(() -> decodeLines(chunkLines)));
+            }
+            while (!isFinished && !pendingChunks.isEmpty()) {
+                isFinished = putDecodedLines(pendingChunks.poll(), chunker);
+            }
+        } catch (FileNotFoundException e) {
+            LOGGER.error("File not found. Error message:{}", e.getMessage());
+        } catch (IOException e) {
+            LOGGER.error("Parse file failed. Error message:{}", e.getMessage());
+        } catch (ExecutionException e) {
+            LOGGER.error("Parse file failed. Error message:{}", e.getCause().getMessage());
+        } finally {
+            for (Future<DecodedLines> pendingChunk : pendingChunks) {
+                pendingChunk.cancel(true);
+            }
+        }
+        return chunker.flush();
+    }
+
+    private static DecodedLines decodeLines(List<String> lines) {
+        DecodedLines decodedLines = new DecodedLines(lines.size());
+        for (String line : lines) {
+            JSONObject jsonObject = JSON.parseObject(line);
+            if (jsonObject.get("sql").equals("finished")) {
+                decodedLines.isFinished = true;
+                break;
             }
+            decodedLines.sqlModels.add(new SqlModel(jsonObject));
         }
-        return splitSqlModelList(sqlModels);
+        return decodedLines;
     }
 
-    private static List<List<SqlModel>> splitSqlModelList(List<SqlModel> sqlModelList) {
-        List<List<SqlModel>> sqlLists = new ArrayList<>();
-        for (int i = 0; i < sqlModelList.size(); i += CHUNK_SIZE) {
-            int toIndex = Math.min(sqlModelList.size(), i + CHUNK_SIZE);
-            sqlLists.add(sqlModelList.subList(i, toIndex));
+    private static boolean putDecodedLines(Future<DecodedLines> pendingChunk, SqlChunker chunker)
+        throws InterruptedException, ExecutionException {
+        DecodedLines decodedLines = pendingChunk.get();
+        for (SqlModel sqlModel : decodedLines.sqlModels) {
+            chunker.add(sqlModel);
         }
-        return sqlLists;
+        return decodedLines.isFinished;
+    }
+
+    /**
+     * Decode a binary segment a block at a time and put its sql into the queue
+     *
+     * @param filePath filePath
+     * @param queue the queue of the sql chunks
+     * @return int the count of chunks put
+     * @throws InterruptedException if interrupted while waiting for the queue
+     */
+    public static int readSegmentFile(String filePath, SqlChunkQueue queue) throws InterruptedException {
+        LOGGER.info("parse sql segment:{} start", filePath);
+        SqlChunker chunker = new SqlChunker(queue);
+        try {
+            SqlSegmentReader reader = new SqlSegmentReader(filePath);
+            for (int i = 0; i < reader.getBlockCount(); i++) {
+                for (SqlModel sqlModel : reader.readBlock(i)) {
+                    if ("finished".equals(sqlModel.getSql())) {
+                        return chunker.flush();
+                    }
+                    chunker.add(sqlModel);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Parse segment failed. Error message:{}", e.getMessage());
+        }
+        return chunker.flush();
     }
 
     /**
@@ -185,4 +277,43 @@ public final class FileUtils {
             LOGGER.error("write file {} failed, error message:{}.", fileName, ex.getMessage());
         }
     }
+
+    private static final class SqlChunker {
+        private final SqlChunkQueue queue;
+        private List<SqlModel> sqlModels;
+        private long bytes;
+        private int chunkCount;
+
+        private SqlChunker(SqlChunkQueue queue) {
+            this.queue = queue;
+            this.sqlModels = new ArrayList<>(CHUNK_SIZE);
+        }
+
+        private void add(SqlModel sqlModel) throws InterruptedException {
+            sqlModels.add(sqlModel);
+            bytes += SqlChunkQueue.estimateSize(sqlModel);
+            if (sqlModels.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private int flush() throws InterruptedException {
+            if (!sqlModels.isEmpty()) {
+                queue.put(sqlModels, bytes);
+                chunkCount++;
+                sqlModels = new ArrayList<>(CHUNK_SIZE);
+                bytes = 0L;
+            }
+            return chunkCount;
+        }
+    }
+
+    private static final class DecodedLines {
+        private final List<SqlModel> sqlModels;
+        private boolean isFinished;
+
+        private DecodedLines(int lineCount) {
+            this.sqlModels = new ArrayList<>(lineCount);
+        }
+    }
 }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Description: Open a file written by LineFileWriter as a reader of lines. A plain text file is read as
+ * it is, a compressed file is indexed by walking its block headers, then the blocks are decompressed on
+ * the common fork join pool several blocks ahead of the reader, and the blocks before the first
+ * requested line are skipped without being decompressed.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/22
+ **/
+public final class LineFileReader {
+    private static final int READ_AHEAD_BLOCKS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int OFFSET = 0;
+    private static final int COMPRESSED_LENGTH = 1;
+    private static final int RAW_LENGTH = 2;
+    private static final int LINE_COUNT = 3;
+
+    private LineFileReader() {
+    }
+
+    /**
+     * Open a line file
+     *
+     * @param filePath String the file path
+     * @return BufferedReader the reader of the lines
+     * @throws IOException if the file can not be opened
+     */
+    public static BufferedReader open(String filePath) throws IOException {
+        return open(filePath, 0L);
+    }
+
+    /**
+     * Open a line file from a line
+     *
+     * @param filePath String the file path
+     * @param firstLine long the count of lines to skip
+     * @return BufferedReader the reader of the lines
+     * @throws IOException if the file can not be opened
+     */
+    public static BufferedReader open(String filePath, long firstLine) throws IOException {
+        FileChannel channel = new FileInputStream(filePath).getChannel();
+        BufferedReader reader;
+        long skippedLines = 0L;
+        try {
+            ByteBuffer header = ByteBuffer.allocate(LineFileWriter.HEADER_SIZE);
+            readFully(channel, header, 0L);
+            if (header.position() == LineFileWriter.HEADER_SIZE && header.getInt(0) == LineFileWriter.MAGIC) {
+                BlockCodec codec = BlockCodecs.forId(header.get(4));
+                List<long[]> blocks = readBlockIndex(channel);
+                int firstBlock = 0;
+                while (firstBlock < blocks.size() && skippedLines + blocks.get(firstBlock)[LINE_COUNT] <= firstLine) {
+                    skippedLines += blocks.get(firstBlock)[LINE_COUNT];
+                    firstBlock++;
+                }
+                reader = new BufferedReader(new InputStreamReader(
+                        new BlockInputStream(channel, codec, blocks, firstBlock), StandardCharsets.UTF_8));
+            } else {
+                channel.position(0L);
+                reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                        StandardCharsets.UTF_8));
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        long lineIndex = skippedLines;
+        while (lineIndex < firstLine && reader.readLine() != null) {
+            lineIndex++;
+        }
+        return reader;
+    }
+
+    private static List<long[]> readBlockIndex(FileChannel channel) throws IOException {
+        List<long[]> blocks = new ArrayList<>();
+        ByteBuffer blockHeader = ByteBuffer.allocate(LineFileWriter.BLOCK_HEADER_SIZE);
+        long position = LineFileWriter.HEADER_SIZE;
+        long size = channel.size();
+        while (position + LineFileWriter.BLOCK_HEADER_SIZE <= size) {
+            blockHeader.clear();
+            readFully(channel, blockHeader, position);
+            long[] block = new long[4];
+            block[OFFSET] = position + LineFileWriter.BLOCK_HEADER_SIZE;
+            block[RAW_LENGTH] = blockHeader.getInt(0);
+            block[COMPRESSED_LENGTH] = blockHeader.getInt(4);
+            block[LINE_COUNT] = blockHeader.getInt(8);
+            // a block still being written by the parser is left for the next read
+            if (block[OFFSET] + block[COMPRESSED_LENGTH] > size) {
+                break;
+            }
+            blocks.add(block);
+            position = block[OFFSET] + block[COMPRESSED_LENGTH];
+        }
+        return blocks;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int count = channel.read(buffer, offset);
+            if (count < 0) {
+                return;
+            }
+            offset += count;
+        }
+    }
+
+    private static final class BlockInputStream extends InputStream {
+        private final FileChannel channel;
+        private final BlockCodec codec;
+        private final List<long[]> blocks;
+        private final Deque<CompletableFuture<byte[]>> pendingBlocks;
+        private int nextBlock;
+        private byte[] current;
+        private int position;
+
+        private BlockInputStream(FileChannel channel, BlockCodec codec, List<long[]> blocks, int firstBlock) {
+            this.channel = channel;
+            this.codec = codec;
+            this.blocks = blocks;
+            this.pendingBlocks = new ArrayDeque<>();
+            this.nextBlock = firstBlock;
+            while (pendingBlocks.size() < READ_AHEAD_BLOCKS && nextBlock < blocks.size()) {
+                submitNextBlock();
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - position);
+            System.arraycopy(current, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (CompletableFuture<byte[]> pendingBlock : pendingBlocks) {
+                pendingBlock.cancel(false);
+            }
+            pendingBlocks.clear();
+            channel.close();
+        }
+
+        private boolean fill() throws IOException {
+            while (current == null || position == current.length) {
+                CompletableFuture<byte[]> pendingBlock = pendingBlocks.poll();
+                if (pendingBlock == null) {
+                    return false;
+                }
+                if (nextBlock < blocks.size()) {
+                    submitNextBlock();
+                }
+                try {
+                    current = pendingBlock.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof UncheckedIOException
+                            ? ((UncheckedIOException) e.getCause()).getCause()
+                            : new IOException(e.getCause());
+                }
+                position = 0;
+            }
+            return true;
+        }
+
+        private void submitNextBlock() {
+            long[] block = blocks.get(nextBlock++);
+            pendingBlocks.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    ByteBuffer compressed = ByteBuffer.allocate((int) block[COMPRESSED_LENGTH]);
+                    readFully(channel, compressed, block[OFFSET]);
+                    return codec.decompress(compressed.array(), (int) block[RAW_LENGTH]);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Description: Append lines to a file, either as plain text or in compressed blocks. A compressed file
+ * starts with a magic number and the codec id, every block holds whole lines and is preceded by its raw
+ * length, its compressed length and its line count, so that the block headers form an index which lets
+ * LineFileReader decompress the blocks in parallel and start from any line. A block is sealed when it is
+ * full or the writer is closed, a flush seals a partial block only once it is older than the max block
+ * age, so that the blocks stay large however small the batches are, while a reader following the file
+ * still sees every line in bounded time.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/22
+ **/
+public final class LineFileWriter implements Closeable {
+    static final int MAGIC = 0x534C4231;
+    static final int HEADER_SIZE = 5;
+    static final int BLOCK_HEADER_SIZE = 12;
+
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final long MAX_BLOCK_AGE_MILLIS = 10_000L;
+
+    private final BlockCodec codec;
+    private final DataOutputStream out;
+    private final ByteArrayOutputStream block;
+    private final long maxBlockAgeMillis;
+    private int blockLineCount;
+    private long blockStartMillis;
+
+    /**
+     * Constructor
+     *
+     * @param filePath String the file path, lines are appended to an existing file
+     * @param codec BlockCodec the codec, null to write plain text
+     * @throws IOException if the file can not be opened
+     */
+    public LineFileWriter(String filePath, BlockCodec codec) throws IOException {
+        this(new BufferedOutputStream(new FileOutputStream(filePath, true)), codec,
+                new File(filePath).length() == 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param out OutputStream the stream of the file, it is closed with the writer
+     * @param codec BlockCodec the codec, null to write plain text
+     * @param isNewFile boolean whether the file is empty, the header of a compressed file is written then
+     * @throws IOException if the header can not be written
+     */
+    public LineFileWriter(OutputStream out, BlockCodec codec, boolean isNewFile) throws IOException {
+        this(out, codec, isNewFile, MAX_BLOCK_AGE_MILLIS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param out OutputStream the stream of the file, it is closed with the writer
+     * @param codec BlockCodec the codec, null to write plain text
+     * @param isNewFile boolean whether the file is empty, the header of a compressed file is written then
+     * @param maxBlockAgeMillis long the age in milliseconds after which a flush seals a partial block
+     * @throws IOException if the header can not be written
+     */
+    LineFileWriter(OutputStream out, BlockCodec codec, boolean isNewFile, long maxBlockAgeMillis)
+            throws IOException {
+        this.codec = codec;
+        this.maxBlockAgeMillis = maxBlockAgeMillis;
+        this.out = new DataOutputStream(out);
+        this.block = codec == null ? null : new ByteArrayOutputStream(BLOCK_SIZE + BLOCK_SIZE / 4);
+        if (codec != null && isNewFile) {
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(codec.getId());
+        }
+    }
+
+    /**
+     * Write a line
+     *
+     * @param line String the line without line separator
+     * @throws IOException if the line can not be written
+     */
+    public void writeLine(String line) throws IOException {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        writeLine(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Write a line already encoded in UTF-8
+     *
+     * @param data byte[] the bytes of the line without line separator
+     * @param offset int the offset of the line
+     * @param length int the count of bytes of the line
+     * @throws IOException if the line can not be written
+     */
+    public void writeLine(byte[] data, int offset, int length) throws IOException {
+        if (codec == null) {
+            out.write(data, offset, length);
+            out.write('\n');
+            return;
+        }
+        if (blockLineCount == 0) {
+            blockStartMillis = System.currentTimeMillis();
+        }
+        block.write(data, offset, length);
+        block.write('\n');
+        blockLineCount++;
+        if (block.size() >= BLOCK_SIZE) {
+            writeBlock();
+        }
+    }
+
+    /**
+     * Flush the file, the pending lines of a compressed file are sealed into a block only once the block
+     * is older than the max block age
+     *
+     * @throws IOException if the block can not be written
+     */
+    public void flush() throws IOException {
+        if (codec != null && blockLineCount > 0
+                && System.currentTimeMillis() - blockStartMillis >= maxBlockAgeMillis) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sealBlock();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void sealBlock() throws IOException {
+        if (codec != null && blockLineCount > 0) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    private void writeBlock() throws IOException {
+        byte[] compressed = codec.compress(block.toByteArray(), block.size());
+        out.writeInt(block.size());
+        out.writeInt(compressed.length);
+        out.writeInt(blockLineCount);
+        out.write(compressed);
+        block.reset();
+        blockLineCount = 0;
+    }
+}
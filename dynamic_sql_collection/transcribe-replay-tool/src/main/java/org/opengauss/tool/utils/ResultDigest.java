@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Description: 128-bit digests of a select result. Every row is hashed with MD5, the ordered digest is
+ * the MD5 of the row hashes in row order, the unordered digest is the sum of the row hashes modulo
+ * 2^128, which does not depend on the row order and still counts duplicate rows.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/20
+ **/
+public class ResultDigest implements ResultRowSink {
+    private static final String ALGORITHM = "MD5";
+    private static final int NULL_MARK = -1;
+
+    private final MessageDigest rowDigest;
+    private final MessageDigest orderedDigest;
+    private final byte[] lengthBytes = new byte[4];
+    private long unorderedHigh;
+    private long unorderedLow;
+    private long rowCount;
+    private String orderedHex;
+
+    /**
+     * Constructor
+     */
+    public ResultDigest() {
+        this.rowDigest = createDigest();
+        this.orderedDigest = createDigest();
+    }
+
+    @Override
+    public void addValue(byte[] data, int offset, int length) {
+        updateLength(length);
+        rowDigest.update(data, offset, length);
+    }
+
+    @Override
+    public void addNull() {
+        updateLength(NULL_MARK);
+    }
+
+    /**
+     * Add a value of the current row
+     *
+     * @param value String the value, null for a sql null
+     */
+    public void addValue(String value) {
+        if (value == null) {
+            addNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addValue(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void endRow() {
+        byte[] rowHash = rowDigest.digest();
+        orderedDigest.update(rowHash);
+        long high = readLong(rowHash, 0);
+        long low = readLong(rowHash, 8);
+        long sumLow = unorderedLow + low;
+        unorderedHigh += high + (Long.compareUnsigned(sumLow, unorderedLow) < 0 ? 1 : 0);
+        unorderedLow = sumLow;
+        rowCount++;
+    }
+
+    /**
+     * Get the count of the digested rows
+     *
+     * @return long the row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Get the digest which depends on the row order, no row can be added after it is taken
+     *
+     * @return String the 32 digits hex digest
+     */
+    public String getOrderedDigest() {
+        if (orderedHex == null) {
+            StringBuilder sb = new StringBuilder(32);
+            for (byte value : orderedDigest.digest()) {
+                ByteCodec.appendHex(sb, value);
+            }
+            orderedHex = sb.toString();
+        }
+        return orderedHex;
+    }
+
+    /**
+     * Get the digest which does not depend on the row order
+     *
+     * @return String the 32 digits hex digest
+     */
+    public String getUnorderedDigest() {
+        return String.format("%016x%016x", unorderedHigh, unorderedLow);
+    }
+
+    private void updateLength(int length) {
+        lengthBytes[0] = (byte) (length >>> 24);
+        lengthBytes[1] = (byte) (length >>> 16);
+        lengthBytes[2] = (byte) (length >>> 8);
+        lengthBytes[3] = (byte) length;
+        rowDigest.update(lengthBytes);
+    }
+
+    private static long readLong(byte[] data, int start) {
+        long value = 0L;
+        for (int i = start; i < start + 8; i++) {
+            value = (value << 8) | (data[i] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Message digest " + ALGORITHM + " is not supported.", e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+/**
+ * Description: Receives the rows of a select result value by value, so that a result can be digested
+ * or collected while it is decoded
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/20
+ **/
+public interface ResultRowSink {
+    /**
+     * Add a value of the current row
+     *
+     * @param data byte[] the bytes which contain the utf-8 encoded text value
+     * @param offset int the offset of the value
+     * @param length int the length of the value
+     */
+    void addValue(byte[] data, int offset, int length);
+
+    /**
+     * Add a null value of the current row
+     */
+    void addNull();
+
+    /**
+     * End the current row
+     */
+    void endRow();
+}
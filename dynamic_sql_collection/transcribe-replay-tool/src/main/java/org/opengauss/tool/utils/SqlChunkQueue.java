@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.utils;
+
+import org.opengauss.tool.replay.model.ParamModel;
+import org.opengauss.tool.replay.model.SqlModel;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Description: Queue of the sql chunks decoded from the sql files and waiting to be replayed, bounded by
+ * the estimated memory of the queued sql instead of the count of chunks. A put blocks while the queue is
+ * over its byte budget, a chunk larger than the whole budget is still accepted when the queue is empty.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/29
+ **/
+public final class SqlChunkQueue {
+    private static final long SQL_OVERHEAD_BYTES = 160L;
+    private static final long PARAMETER_OVERHEAD_BYTES = 64L;
+
+    private final long byteBudget;
+    private final Deque<Chunk> chunks;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private long usedBytes;
+    private boolean isClosed;
+
+    /**
+     * Constructor
+     *
+     * @param byteBudget long the max estimated bytes of the queued sql
+     */
+    public SqlChunkQueue(long byteBudget) {
+        this.byteBudget = byteBudget;
+        this.chunks = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.notEmpty = lock.newCondition();
+        this.notFull = lock.newCondition();
+    }
+
+    /**
+     * Estimate the heap bytes of a decoded sql
+     *
+     * @param sqlModel SqlModel the sql
+     * @return long the estimated bytes
+     */
+    public static long estimateSize(SqlModel sqlModel) {
+        long size = SQL_OVERHEAD_BYTES + stringSize(sqlModel.getSql());
+        if (sqlModel.getParameters() != null) {
+            for (ParamModel parameter : sqlModel.getParameters()) {
+                size += PARAMETER_OVERHEAD_BYTES + stringSize(parameter.getValue());
+            }
+        }
+        return size;
+    }
+
+    private static long stringSize(String value) {
+        return value == null ? 0L : value.length() * 2L;
+    }
+
+    /**
+     * Put a chunk, wait while the queue is over its byte budget
+     *
+     * @param sqlModels List<SqlModel> the chunk
+     * @param bytes long the estimated bytes of the chunk
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void put(List<SqlModel> sqlModels, long bytes) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (usedBytes > 0 && usedBytes + bytes > byteBudget) {
+                notFull.await();
+            }
+            chunks.addLast(new Chunk(sqlModels, bytes));
+            usedBytes += bytes;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Take the head chunk, wait up to the timeout while the queue is empty
+     *
+     * @param timeout long the timeout
+     * @param unit TimeUnit the unit of the timeout
+     * @return List<SqlModel> the chunk, or null if the queue is still empty
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public List<SqlModel> poll(long timeout, TimeUnit unit) throws InterruptedException {
+        Chunk chunk = pollChunk(unit.toNanos(timeout));
+        return chunk == null ? null : chunk.sqlModels;
+    }
+
+    private Chunk pollChunk(long timeoutNanos) throws InterruptedException {
+        long nanos = timeoutNanos;
+        lock.lockInterruptibly();
+        try {
+            while (chunks.isEmpty()) {
+                if (isClosed || nanos <= 0L) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            Chunk chunk = chunks.pollFirst();
+            usedBytes -= chunk.bytes;
+            notFull.signalAll();
+            return chunk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Move every chunk to the target queue in order, until this queue is closed and drained
+     *
+     * @param target SqlChunkQueue the target queue
+     * @return int the count of chunks moved
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public int transferTo(SqlChunkQueue target) throws InterruptedException {
+        int count = 0;
+        Chunk chunk;
+        while ((chunk = pollChunk(Long.MAX_VALUE)) != null) {
+            target.put(chunk.sqlModels, chunk.bytes);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Mark that no more chunk is put, a waiting transfer returns once the queue is drained
+     */
+    public void close() {
+        lock.lock();
+        try {
+            isClosed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the queue holds no chunk
+     *
+     * @return boolean true if empty
+     */
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return chunks.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Chunk {
+        private final List<SqlModel> sqlModels;
+        private final long bytes;
+
+        private Chunk(List<SqlModel> sqlModels, long bytes) {
+            this.sqlModels = sqlModels;
+            this.bytes = bytes;
+        }
+    }
+}
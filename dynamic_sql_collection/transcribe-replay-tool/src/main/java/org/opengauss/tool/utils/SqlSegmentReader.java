@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import org.opengauss.tool.replay.model.ParamModel;
+import org.opengauss.tool.replay.model.SqlModel;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: Read the sql of a binary segment written by SqlSegmentWriter. The index file is loaded
+ * into memory and the segment is memory mapped, so that a read by sql id or by start time seeks to the
+ * first candidate block and decodes only the records in range.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/21
+ **/
+public final class SqlSegmentReader {
+    private static final int BLOCK_FIELD_COUNT = 5;
+    private static final int FIRST_SQL_ID = 0;
+    private static final int POSITION = 1;
+    private static final int RECORD_COUNT = 2;
+    private static final int MIN_START_TIME = 3;
+    private static final int MAX_START_TIME = 4;
+
+    private final String segmentPath;
+    private final List<String> dictionary;
+    private final List<long[]> blocks;
+    private final ByteBuffer segment;
+
+    /**
+     * Constructor
+     *
+     * @param segmentPath String the segment file path
+     * @throws IOException if the segment or its index can not be read
+     */
+    public SqlSegmentReader(String segmentPath) throws IOException {
+        this.segmentPath = segmentPath;
+        this.dictionary = new ArrayList<>();
+        this.blocks = new ArrayList<>();
+        String indexPath = segmentPath.substring(0, segmentPath.length() - SqlSegmentWriter.SEGMENT_SUFFIX.length())
+                + SqlSegmentWriter.INDEX_SUFFIX;
+        loadIndex(ByteBuffer.wrap(Files.readAllBytes(Paths.get(indexPath))));
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath, "r");
+             FileChannel channel = file.getChannel()) {
+            this.segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (segment.limit() < SqlSegmentWriter.HEADER_SIZE || segment.getInt(0) != SqlSegmentWriter.SEGMENT_MAGIC) {
+            throw new IOException("Invalid sql segment " + segmentPath);
+        }
+    }
+
+    /**
+     * Read all sql of the segment
+     *
+     * @return List<SqlModel> the sql in id order
+     */
+    public List<SqlModel> readAll() {
+        return readById(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the count of blocks of the segment
+     *
+     * @return int the block count
+     */
+    public int getBlockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Read the sql of a block, so that a whole segment is decoded a block at a time
+     *
+     * @param blockIndex int the block index, from 0
+     * @return List<SqlModel> the sql of the block in id order
+     */
+    public List<SqlModel> readBlock(int blockIndex) {
+        long[] block = blocks.get(blockIndex);
+        List<SqlModel> sqlModels = new ArrayList<>((int) block[RECORD_COUNT]);
+        ByteBuffer buffer = segment.duplicate();
+        buffer.position((int) block[POSITION]);
+        for (long j = 0; j < block[RECORD_COUNT]; j++) {
+            sqlModels.add(decode(buffer));
+        }
+        return sqlModels;
+    }
+
+    /**
+     * Read the sql whose id is in the range
+     *
+     * @param fromId long the smallest sql id, inclusive
+     * @param toId long the largest sql id, inclusive
+     * @return List<SqlModel> the sql in id order
+     */
+    public List<SqlModel> readById(long fromId, long toId) {
+        List<SqlModel> sqlModels = new ArrayList<>();
+        for (int i = findFirstBlock(fromId); i < blocks.size(); i++) {
+            long[] block = blocks.get(i);
+            if (block[FIRST_SQL_ID] > toId) {
+                break;
+            }
+            ByteBuffer buffer = segment.duplicate();
+            buffer.position((int) block[POSITION]);
+            for (long j = 0; j < block[RECORD_COUNT]; j++) {
+                SqlModel sqlModel = decode(buffer);
+                if (sqlModel.getId() >= fromId && sqlModel.getId() <= toId) {
+                    sqlModels.add(sqlModel);
+                }
+            }
+        }
+        return sqlModels;
+    }
+
+    /**
+     * Read the sql whose start time is in the range
+     *
+     * @param fromTime long the earliest start time, inclusive
+     * @param toTime long the latest start time, inclusive
+     * @return List<SqlModel> the sql in id order
+     */
+    public List<SqlModel> readByTime(long fromTime, long toTime) {
+        List<SqlModel> sqlModels = new ArrayList<>();
+        for (long[] block : blocks) {
+            if (block[MAX_START_TIME] < fromTime || block[MIN_START_TIME] > toTime) {
+                continue;
+            }
+            ByteBuffer buffer = segment.duplicate();
+            buffer.position((int) block[POSITION]);
+            for (long j = 0; j < block[RECORD_COUNT]; j++) {
+                SqlModel sqlModel = decode(buffer);
+                if (sqlModel.getStartTime() >= fromTime && sqlModel.getStartTime() <= toTime) {
+                    sqlModels.add(sqlModel);
+                }
+            }
+        }
+        return sqlModels;
+    }
+
+    private int findFirstBlock(long sqlId) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        int found = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (blocks.get(middle)[FIRST_SQL_ID] <= sqlId) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found;
+    }
+
+    private void loadIndex(ByteBuffer index) throws IOException {
+        if (index.remaining() < SqlSegmentWriter.HEADER_SIZE || index.getInt() != SqlSegmentWriter.INDEX_MAGIC) {
+            throw new IOException("Invalid sql segment index of " + segmentPath);
+        }
+        index.get();
+        while (index.hasRemaining()) {
+            byte entryType = index.get();
+            if (entryType == SqlSegmentWriter.ENTRY_DICTIONARY) {
+                int ref = index.getInt();
+                String value = readString(index);
+                while (dictionary.size() <= ref) {
+                    dictionary.add(null);
+                }
+                dictionary.set(ref, value);
+            } else if (entryType == SqlSegmentWriter.ENTRY_BLOCK) {
+                long[] block = new long[BLOCK_FIELD_COUNT];
+                block[FIRST_SQL_ID] = index.getLong();
+                block[POSITION] = index.getLong();
+                block[RECORD_COUNT] = index.getInt();
+                block[MIN_START_TIME] = index.getLong();
+                block[MAX_START_TIME] = index.getLong();
+                blocks.add(block);
+            } else {
+                throw new IOException("Unknown entry type " + entryType + " in the index of " + segmentPath);
+            }
+        }
+    }
+
+    private SqlModel decode(ByteBuffer buffer) {
+        // skip the record length, the fields are read in the order they are written
+        buffer.getInt();
+        SqlModel sqlModel = new SqlModel();
+        sqlModel.setId((int) buffer.getLong());
+        sqlModel.setPacketId(buffer.getLong());
+        byte flags = buffer.get();
+        sqlModel.setQuery((flags & SqlSegmentWriter.FLAG_QUERY) != 0);
+        sqlModel.setPrepared((flags & SqlSegmentWriter.FLAG_PREPARED) != 0);
+        sqlModel.setSession(lookup(buffer.getInt()));
+        sqlModel.setUsername(lookup(buffer.getInt()));
+        sqlModel.setSchema(lookup(buffer.getInt()));
+        sqlModel.setSql(readString(buffer));
+        sqlModel.setStartTime(buffer.getLong());
+        sqlModel.setEndTime(buffer.getLong());
+        sqlModel.setMysqlDuration(buffer.getLong());
+        int parameterCount = buffer.getInt();
+        List<ParamModel> parameters = new ArrayList<>(parameterCount);
+        for (int i = 0; i < parameterCount; i++) {
+            ParamModel parameter = new ParamModel();
+            parameter.setId(i + 1);
+            String type = lookup(buffer.getInt());
+            String value = decodeValue(buffer);
+            parameter.setType(value == null || type == null ? "null" : type);
+            parameter.setValue(value);
+            parameters.add(parameter);
+        }
+        sqlModel.setParameters(parameters);
+        return sqlModel;
+    }
+
+    private static String decodeValue(ByteBuffer buffer) {
+        byte valueType = buffer.get();
+        switch (valueType) {
+            case SqlSegmentWriter.VALUE_LONG:
+                return Long.toString(buffer.getLong());
+            case SqlSegmentWriter.VALUE_DOUBLE:
+                return Double.toString(buffer.getDouble());
+            case SqlSegmentWriter.VALUE_TEXT:
+                return readString(buffer);
+            default:
+                return null;
+        }
+    }
+
+    private String lookup(int ref) {
+        return ref == SqlSegmentWriter.NULL_REFERENCE ? null : dictionary.get(ref);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == SqlSegmentWriter.NULL_REFERENCE) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
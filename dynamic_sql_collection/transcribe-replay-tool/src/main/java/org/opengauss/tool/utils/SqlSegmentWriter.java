@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.utils;
+
+import org.opengauss.tool.parse.object.PreparedValue;
+import org.opengauss.tool.parse.object.SqlInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Description: Append sql to a binary segment file. A segment starts with a header, followed by sql
+ * records, each record is prefixed with its length. Session ids, usernames, schemas and parameter types
+ * are replaced by references into a per segment dictionary, numeric parameters are stored as numbers.
+ * The index file next to the segment holds the dictionary and a sparse index, every block of records
+ * is indexed by its first sql id, its position and the range of its start times.
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/21
+ **/
+public final class SqlSegmentWriter implements Closeable {
+    /**
+     * segment file suffix
+     */
+    public static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * index file suffix
+     */
+    public static final String INDEX_SUFFIX = ".idx";
+
+    static final int SEGMENT_MAGIC = 0x53514C53;
+    static final int INDEX_MAGIC = 0x53514C49;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 5;
+    static final byte ENTRY_DICTIONARY = 1;
+    static final byte ENTRY_BLOCK = 2;
+    static final byte FLAG_QUERY = 1;
+    static final byte FLAG_PREPARED = 2;
+    static final byte VALUE_NULL = 0;
+    static final byte VALUE_LONG = 1;
+    static final byte VALUE_DOUBLE = 2;
+    static final byte VALUE_TEXT = 3;
+    static final int NULL_REFERENCE = -1;
+
+    private static final int BLOCK_RECORD_COUNT = 64;
+
+    private final ChannelFileWriter segmentChannel;
+    private final ChannelFileWriter indexChannel;
+    private final DataOutputStream segmentOut;
+    private final DataOutputStream indexOut;
+    private final Map<String, Integer> dictionary;
+    private final ByteArrayOutputStream recordBytes;
+    private final DataOutputStream recordOut;
+    private int blockRecordCount;
+    private long blockFirstSqlId;
+    private long blockPosition;
+    private long blockMinStartTime;
+    private long blockMaxStartTime;
+
+    /**
+     * Constructor, the segment and its index stay open until the writer is closed
+     *
+     * @param segmentPathWithoutSuffix String the segment file path without suffix
+     * @param fsyncPolicy String the fsync policy of the segment and its index
+     * @param fsyncIntervalMillis long the min milliseconds between two syncs of the interval policy
+     * @throws IOException if the segment or its index can not be created
+     */
+    public SqlSegmentWriter(String segmentPathWithoutSuffix, String fsyncPolicy, long fsyncIntervalMillis)
+            throws IOException {
+        String segmentPath = segmentPathWithoutSuffix + SEGMENT_SUFFIX;
+        String indexPath = segmentPathWithoutSuffix + INDEX_SUFFIX;
+        // the dictionary lives in memory, so a segment is always started from scratch
+        Files.deleteIfExists(Paths.get(segmentPath));
+        Files.deleteIfExists(Paths.get(indexPath));
+        this.segmentChannel = new ChannelFileWriter(segmentPath, fsyncPolicy, fsyncIntervalMillis);
+        this.indexChannel = new ChannelFileWriter(indexPath, fsyncPolicy, fsyncIntervalMillis);
+        this.segmentOut = new DataOutputStream(segmentChannel);
+        this.indexOut = new DataOutputStream(indexChannel);
+        this.dictionary = new HashMap<>();
+        this.recordBytes = new ByteArrayOutputStream();
+        this.recordOut = new DataOutputStream(recordBytes);
+        segmentOut.writeInt(SEGMENT_MAGIC);
+        segmentOut.writeByte(VERSION);
+        indexOut.writeInt(INDEX_MAGIC);
+        indexOut.writeByte(VERSION);
+    }
+
+    /**
+     * Get the segment size
+     *
+     * @return long the bytes written to the segment
+     */
+    public long getSize() {
+        return segmentChannel.getSize();
+    }
+
+    /**
+     * Append sql records, the sql ids must be assigned and increasing
+     *
+     * @param sqlList List<SqlInfo> the sql
+     * @throws IOException if the segment or its index can not be written
+     */
+    public void append(List<SqlInfo> sqlList) throws IOException {
+        for (SqlInfo sqlInfo : sqlList) {
+            recordBytes.reset();
+            encode(sqlInfo);
+            if (blockRecordCount == 0) {
+                blockFirstSqlId = sqlInfo.getSqlId();
+                blockPosition = segmentChannel.getSize();
+                blockMinStartTime = Long.MAX_VALUE;
+                blockMaxStartTime = Long.MIN_VALUE;
+            }
+            segmentOut.writeInt(recordBytes.size());
+            recordBytes.writeTo(segmentOut);
+            blockMinStartTime = Math.min(blockMinStartTime, sqlInfo.getStartTime());
+            blockMaxStartTime = Math.max(blockMaxStartTime, sqlInfo.getStartTime());
+            if (++blockRecordCount == BLOCK_RECORD_COUNT) {
+                writeBlock();
+            }
+        }
+        if (blockRecordCount > 0) {
+            writeBlock();
+        }
+        // the segment is flushed before the index entries pointing into it
+        segmentOut.flush();
+        indexOut.flush();
+    }
+
+    /**
+     * Close the segment and its index
+     *
+     * @throws IOException if the segment or its index can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            segmentOut.close();
+        } finally {
+            indexOut.close();
+        }
+    }
+
+    private void encode(SqlInfo sqlInfo) throws IOException {
+        recordOut.writeLong(sqlInfo.getSqlId());
+        recordOut.writeLong(sqlInfo.getPacketId());
+        recordOut.writeByte((sqlInfo.isQuery() ? FLAG_QUERY : 0) | (sqlInfo.isPbe() ? FLAG_PREPARED : 0));
+        recordOut.writeInt(reference(sqlInfo.getSessionId()));
+        recordOut.writeInt(reference(sqlInfo.getUsername()));
+        recordOut.writeInt(reference(sqlInfo.getSchema()));
+        writeString(recordOut, sqlInfo.getSql());
+        recordOut.writeLong(sqlInfo.getStartTime());
+        recordOut.writeLong(sqlInfo.getEndTime());
+        recordOut.writeLong(sqlInfo.getExecuteDuration());
+        recordOut.writeInt(sqlInfo.getParameterList().size());
+        for (PreparedValue parameter : sqlInfo.getParameterList()) {
+            recordOut.writeInt(reference(parameter.getType()));
+            encodeValue(parameter.getValue());
+        }
+    }
+
+    private void encodeValue(String value) throws IOException {
+        if (value == null) {
+            recordOut.writeByte(VALUE_NULL);
+            return;
+        }
+        // a number is only stored as such when it prints back to the very same text
+        try {
+            long number = Long.parseLong(value);
+            if (Long.toString(number).equals(value)) {
+                recordOut.writeByte(VALUE_LONG);
+                recordOut.writeLong(number);
+                return;
+            }
+        } catch (NumberFormatException e) {
+            if (isDoubleText(value)) {
+                recordOut.writeByte(VALUE_DOUBLE);
+                recordOut.writeDouble(Double.parseDouble(value));
+                return;
+            }
+        }
+        recordOut.writeByte(VALUE_TEXT);
+        writeString(recordOut, value);
+    }
+
+    private static boolean isDoubleText(String value) {
+        if (value.isEmpty() || !Character.isDigit(value.charAt(value.length() - 1))) {
+            return false;
+        }
+        try {
+            return Double.toString(Double.parseDouble(value)).equals(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private int reference(String value) throws IOException {
+        if (value == null) {
+            return NULL_REFERENCE;
+        }
+        Integer ref = dictionary.get(value);
+        if (ref == null) {
+            ref = dictionary.size();
+            dictionary.put(value, ref);
+            indexOut.writeByte(ENTRY_DICTIONARY);
+            indexOut.writeInt(ref);
+            writeString(indexOut, value);
+        }
+        return ref;
+    }
+
+    private void writeBlock() throws IOException {
+        indexOut.writeByte(ENTRY_BLOCK);
+        indexOut.writeLong(blockFirstSqlId);
+        indexOut.writeLong(blockPosition);
+        indexOut.writeInt(blockRecordCount);
+        indexOut.writeLong(blockMinStartTime);
+        indexOut.writeLong(blockMaxStartTime);
+        blockRecordCount = 0;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_REFERENCE);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opengauss.tool.parse.object.PacketData;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Description: PacketDecoder test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PacketDecoderTest {
+    private static final int SERVER_ADDRESS = 0x0A000002;
+    private static final int CLIENT_ADDRESS = 0x0A000105;
+    private static final int SERVER_PORT = 3306;
+    private static final int CLIENT_PORT = 50001;
+    private static final int HEADERS_LENGTH = 54;
+
+    /**
+     * Build an IPv4 tcp frame
+     *
+     * @param source int the source address
+     * @param sourcePort int the source port
+     * @param destination int the destination address
+     * @param destinationPort int the destination port
+     * @param payload byte[] the tcp payload
+     * @param padding int the ethernet padding after the payload
+     * @return byte[] the frame
+     */
+    static byte[] ipv4Frame(int source, int sourcePort, int destination, int destinationPort, byte[] payload,
+            int padding) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADERS_LENGTH + payload.length + padding);
+        frame.putShort(12, (short) 0x0800);
+        frame.put(14, (byte) 0x45);
+        frame.putShort(16, (short) (40 + payload.length));
+        frame.putInt(26, source);
+        frame.putInt(30, destination);
+        frame.putShort(34, (short) sourcePort);
+        frame.putShort(36, (short) destinationPort);
+        frame.putInt(38, 0xF0000001);
+        frame.put(46, (byte) 0x50);
+        frame.position(HEADERS_LENGTH);
+        frame.put(payload);
+        return frame.array();
+    }
+
+    static PacketDecoder newDecoder() {
+        return new PacketDecoder(0L, SessionTable.mapIpv4Address(SERVER_ADDRESS), SERVER_PORT,
+                new PacketFilter("", 1.0));
+    }
+
+    @Test
+    public void testDecodeRequestAndResponse() {
+        PacketDecoder decoder = newDecoder();
+        byte[] payload = {1, 2, 3};
+        PacketData request = decoder.decode(ByteBuffer.wrap(ipv4Frame(CLIENT_ADDRESS, CLIENT_PORT, SERVER_ADDRESS,
+                SERVER_PORT, payload, 3)), 0, HEADERS_LENGTH + 6);
+        assertEquals(ProtocolConstant.REQUEST, request.getPacketType());
+        assertArrayEquals(payload, request.getData());
+        assertEquals(0xF0000001L, request.getSeqNum());
+        assertTrue(decoder.isIpv4());
+        assertEquals(SessionTable.mapIpv4Address(CLIENT_ADDRESS), decoder.getClientLow());
+        assertEquals(CLIENT_PORT, decoder.getClientPort());
+
+        PacketData response = decoder.decode(ByteBuffer.wrap(ipv4Frame(SERVER_ADDRESS, SERVER_PORT,
+                CLIENT_ADDRESS, CLIENT_PORT, payload, 0)), 0, HEADERS_LENGTH + 3);
+        assertEquals(ProtocolConstant.RESPONSE, response.getPacketType());
+        assertEquals(CLIENT_PORT, decoder.getClientPort());
+    }
+
+    @Test
+    public void testFramesWithoutPayloadOrServerAreFiltered() {
+        PacketDecoder decoder = newDecoder();
+        assertNull(decoder.decode(ByteBuffer.wrap(ipv4Frame(CLIENT_ADDRESS, CLIENT_PORT, SERVER_ADDRESS,
+                SERVER_PORT, new byte[0], 6)), 0, HEADERS_LENGTH + 6));
+        assertNull(decoder.decode(ByteBuffer.wrap(ipv4Frame(CLIENT_ADDRESS, CLIENT_PORT, SERVER_ADDRESS,
+                SERVER_PORT + 1, new byte[] {1}, 0)), 0, HEADERS_LENGTH + 1));
+        assertNull(decoder.decode(ByteBuffer.wrap(new byte[20]), 0, 20));
+    }
+
+    @Test
+    public void testFormatClientId() {
+        assertEquals("10.0.1.5:50001", PacketDecoder.formatClientId(true, 0L,
+                SessionTable.mapIpv4Address(CLIENT_ADDRESS), CLIENT_PORT));
+        assertEquals("2001:0db8:0000:0000:0000:0000:0000:00ff:443", PacketDecoder.formatClientId(false,
+                0x20010DB800000000L, 0xFFL, 443));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import org.junit.jupiter.api.Test;
+import org.opengauss.tool.parse.object.OriginPacket;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+
+/**
+ * Description: PacketRingBuffer test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PacketRingBufferTest {
+    private static final int FRAME_LENGTH = 60;
+
+    private static byte[] frame(int marker, int ipVersionFlag) {
+        byte[] frame = new byte[FRAME_LENGTH];
+        frame[0] = (byte) marker;
+        frame[14] = (byte) ipVersionFlag;
+        return frame;
+    }
+
+    @Test
+    public void testCopiedAndViewFramesArePolledInOrder() {
+        PacketRingBuffer ringBuffer = new PacketRingBuffer(1024, 4);
+        int offset = ringBuffer.claim(FRAME_LENGTH);
+        System.arraycopy(frame(1, 0x45), 0, ringBuffer.array(), offset, FRAME_LENGTH);
+        ringBuffer.publish("a.pcap", 1, 100L);
+        ByteBuffer mapping = ByteBuffer.allocateDirect(FRAME_LENGTH * 2);
+        mapping.position(FRAME_LENGTH);
+        mapping.put(frame(2, 0x60));
+        ringBuffer.publishView(mapping, FRAME_LENGTH, FRAME_LENGTH, "b.pcap", 7, 200L);
+        assertEquals(2, ringBuffer.getBacklog());
+
+        OriginPacket packet = ringBuffer.poll();
+        assertEquals(1, packet.getFrame().get(packet.getFrameOffset()));
+        assertEquals("a.pcap", packet.getFileName());
+        assertEquals(ProtocolConstant.IPV4, packet.getIpType());
+
+        packet = ringBuffer.poll();
+        assertSame(mapping, packet.getFrame());
+        assertEquals(2, packet.getFrame().get(packet.getFrameOffset()));
+        assertEquals(FRAME_LENGTH, packet.getLength());
+        assertEquals(7, packet.getPacketIdInFile());
+        assertEquals(200L, packet.getMicrosecondTimestamp());
+        assertEquals(ProtocolConstant.IPV6, packet.getIpType());
+
+        assertNull(ringBuffer.poll());
+        ringBuffer.awaitConsumed();
+        assertEquals(0, ringBuffer.getBacklog());
+        assertEquals(FRAME_LENGTH * 2, ringBuffer.getPublishedBytes());
+    }
+
+    @Test
+    public void testWrappedFrameLongerThanWriteOffsetStartsOver() {
+        PacketRingBuffer ringBuffer = new PacketRingBuffer(100, 4);
+        assertEquals(0, ringBuffer.claim(30));
+        ringBuffer.publish("d.pcap", 1, 1L);
+        assertEquals(30, ringBuffer.poll().getLength());
+        assertNull(ringBuffer.poll());
+
+        // 70 bytes of padding and 80 bytes of frame never fit in 100 bytes, even with the arena empty
+        int offset = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> ringBuffer.claim(80));
+        assertEquals(0, offset);
+        ringBuffer.publish("d.pcap", 2, 2L);
+        OriginPacket packet = ringBuffer.poll();
+        assertEquals(0, packet.getFrameOffset());
+        assertEquals(80, packet.getLength());
+        assertNull(ringBuffer.poll());
+        assertEquals(0, ringBuffer.claim(60));
+    }
+
+    @Test
+    public void testViewWaitsForFreeSlot() throws InterruptedException {
+        PacketRingBuffer ringBuffer = new PacketRingBuffer(1024, 2);
+        ByteBuffer mapping = ByteBuffer.wrap(frame(3, 0x45));
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= 10; i++) {
+                ringBuffer.publishView(mapping, 0, FRAME_LENGTH, "c.pcap", i, i);
+            }
+            ringBuffer.awaitConsumed();
+        });
+        producer.start();
+        int expectedId = 1;
+        while (expectedId <= 10) {
+            OriginPacket packet = ringBuffer.poll();
+            if (packet != null) {
+                assertEquals(expectedId++, packet.getPacketIdInFile());
+            }
+        }
+        ringBuffer.poll();
+        producer.join();
+        assertEquals(10, ringBuffer.getPublishedCount());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opengauss.tool.parse.object.PacketData;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+import org.opengauss.tool.parse.object.SqlInfo;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Description: ParseThread test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class ParseThreadTest {
+    private static PacketData query(long packetId, long timestamp, String sql) {
+        byte[] text = sql.getBytes(StandardCharsets.UTF_8);
+        byte[] data = new byte[5 + text.length];
+        data[0] = (byte) (text.length + 1);
+        data[4] = 0x03;
+        System.arraycopy(text, 0, data, 5, text.length);
+        return packet(packetId, ProtocolConstant.REQUEST, timestamp, data);
+    }
+
+    private static PacketData packet(long packetId, String type, long timestamp, byte[] data) {
+        PacketData packetData = new PacketData(packetId, type);
+        packetData.setMicrosecondTimestamp(timestamp);
+        packetData.setData(data);
+        return packetData;
+    }
+
+    @Test
+    public void testDurationEndsAtTheLastResponsePacket() {
+        ParseThread session = new ParseThread("10.0.1.5:50001");
+        session.schema = "db";
+        session.addDataToQueue(query(1L, 1000L, "insert into t values (1)"));
+        session.addDataToQueue(packet(2L, ProtocolConstant.RESPONSE, 2000L, new byte[] {7, 0, 0, 1, 0}));
+        session.addDataToQueue(packet(3L, ProtocolConstant.RESPONSE, 5000L, new byte[] {0, 0, 0, 2, 0, 0}));
+        session.addDataToQueue(query(4L, 6000L, "insert into t values (2)"));
+        session.setIsDistributeFinished(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(session.parseNextMessage());
+        }
+        // the sql is pending while its response may continue, the merge waits for it
+        assertTrue(session.getSqlQueue().isEmpty());
+        assertEquals(1L, session.getLowWatermark());
+
+        assertTrue(session.parseNextMessage());
+        SqlInfo sql = session.getSqlQueue().poll();
+        assertEquals(5000L, sql.getEndTime());
+        assertEquals(4000L, sql.getExecuteDuration());
+    }
+}
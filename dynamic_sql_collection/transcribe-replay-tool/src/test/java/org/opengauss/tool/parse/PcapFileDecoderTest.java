@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengauss.tool.parse.object.PacketBatch;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+
+/**
+ * Description: PcapFileDecoder test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class PcapFileDecoderTest {
+    private static final int SERVER_ADDRESS = 0x0A000002;
+    private static final int CLIENT_ADDRESS = 0x0A000105;
+
+    @TempDir
+    File tempDir;
+
+    private static void writeRecord(ByteArrayOutputStream out, int seconds, byte[] frame) {
+        ByteBuffer header = ByteBuffer.allocate(ProtocolConstant.PACKET_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(seconds).putInt(0).putInt(frame.length).putInt(frame.length);
+        out.write(header.array(), 0, header.capacity());
+        out.write(frame, 0, frame.length);
+    }
+
+    @Test
+    public void testBatchKeepsFileOrderAndFilteredFrames() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[ProtocolConstant.PCAP_HEADER_LENGTH], 0, ProtocolConstant.PCAP_HEADER_LENGTH);
+        byte[] payload = {1, 2};
+        writeRecord(out, 1, PacketDecoderTest.ipv4Frame(CLIENT_ADDRESS, 50001, SERVER_ADDRESS, 3306, payload, 0));
+        writeRecord(out, 2, PacketDecoderTest.ipv4Frame(CLIENT_ADDRESS, 50001, SERVER_ADDRESS, 22, payload, 0));
+        writeRecord(out, 3, new byte[8]);
+        writeRecord(out, 4, PacketDecoderTest.ipv4Frame(SERVER_ADDRESS, 3306, CLIENT_ADDRESS, 50001, payload, 0));
+        writeRecord(out, 5, PacketDecoderTest.ipv4Frame(CLIENT_ADDRESS, 50001, SERVER_ADDRESS, 22, payload, 0));
+        File file = new File(tempDir, "cap.pcap");
+        Files.write(file.toPath(), out.toByteArray());
+
+        PcapFileDecoder fileDecoder = new PcapFileDecoder(file, PacketDecoderTest.newDecoder());
+        fileDecoder.run();
+        PacketRingBuffer ringBuffer = new PacketRingBuffer(1024, 4);
+        assertTrue(fileDecoder.publishTo(ringBuffer));
+        assertEquals(4, ringBuffer.getPublishedCount());
+
+        PacketBatch batch = ringBuffer.poll().getBatch();
+        assertEquals(2, batch.size());
+        assertEquals(0, batch.getFilteredBefore(0));
+        assertEquals(1, batch.getFilteredBefore(1));
+        assertEquals(1, batch.getTrailingFiltered());
+        assertEquals(ProtocolConstant.REQUEST, batch.getPacket(0).getPacketType());
+        assertEquals(ProtocolConstant.RESPONSE, batch.getPacket(1).getPacketType());
+        assertEquals("cap.pcap", batch.getPacket(1).getLocationFile());
+        assertEquals(4, batch.getPacket(1).getIdInFile());
+        assertEquals(4_000_000L, batch.getPacket(1).getMicrosecondTimestamp());
+        assertEquals(50001, batch.getClientPort(1));
+        assertEquals(5_000_000L, batch.getLastTimestamp());
+        assertNull(ringBuffer.poll());
+    }
+
+    @Test
+    public void testMissingFileIsLeftToTheReader() {
+        PcapFileDecoder fileDecoder = new PcapFileDecoder(new File(tempDir, "missing.pcap"),
+                PacketDecoderTest.newDecoder());
+        fileDecoder.run();
+        PacketRingBuffer ringBuffer = new PacketRingBuffer(1024, 4);
+        assertFalse(fileDecoder.publishTo(ringBuffer));
+        assertNull(ringBuffer.poll());
+    }
+}
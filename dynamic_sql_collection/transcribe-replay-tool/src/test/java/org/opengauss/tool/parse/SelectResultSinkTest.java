@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengauss.tool.config.ResultFileConfig;
+import org.opengauss.tool.parse.object.SelectResult;
+import org.opengauss.tool.parse.object.SqlInfo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Description: SelectResultSink test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class SelectResultSinkTest {
+    @TempDir
+    Path tempDir;
+
+    private static SelectResult createResult(long packetId) {
+        return new SelectResult(packetId, new SqlInfo(packetId - 1, false, "select 1"), true);
+    }
+
+    private static void awaitDrained(BlockingQueue<SelectResult> queue) throws InterruptedException {
+        while (!queue.isEmpty()) {
+            Thread.sleep(10L);
+        }
+        // the last drained batch is being written
+        Thread.sleep(200L);
+    }
+
+    @Test
+    public void testWritingResumesAfterWriteError() throws InterruptedException, IOException {
+        Path resultPath = tempDir.resolve("missing");
+        ResultFileConfig config = new ResultFileConfig();
+        config.setSelectResultPath(resultPath.toString());
+        config.setResultFileName("select-result");
+        config.setResultFileSize(10);
+        config.setDigestOnly(true);
+        BlockingQueue<SelectResult> queue = new LinkedBlockingQueue<>();
+        SelectResultSink sink = new SelectResultSink(config, queue);
+        Thread thread = new Thread(sink);
+        thread.start();
+
+        // the directory does not exist, the results are dropped but still drained
+        queue.add(createResult(2));
+        queue.add(createResult(4));
+        awaitDrained(queue);
+        assertEquals(0, sink.getWrittenBytes());
+
+        Files.createDirectories(resultPath);
+        Thread.sleep(1100L);
+        queue.add(createResult(6));
+        queue.add(createResult(8));
+        awaitDrained(queue);
+        sink.close();
+        thread.join();
+
+        assertTrue(sink.getWrittenBytes() > 0);
+        List<String> lines = Files.readAllLines(resultPath.resolve("select-result-1.json"));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains("\"packetId\":6"));
+        assertTrue(lines.get(1).contains("\"packetId\":8"));
+    }
+}
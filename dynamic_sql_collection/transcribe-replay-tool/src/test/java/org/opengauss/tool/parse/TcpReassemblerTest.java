@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.parse;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.opengauss.tool.parse.object.PacketData;
+import org.opengauss.tool.parse.object.ProtocolConstant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: TcpReassembler test
+ *
+ * @author : wang_zhengyuan
+ * @since : 2025/03/30
+ */
+public class TcpReassemblerTest {
+    private static final long GAP_TIMEOUT_MILLIS = 10L;
+
+    private final List<PacketData> released = new ArrayList<>();
+    private long packetId;
+
+    private TcpReassembler create(int windowSize) {
+        return new TcpReassembler("test", windowSize, GAP_TIMEOUT_MILLIS, released::add);
+    }
+
+    private PacketData segment(long seqNum, String payload, long microsecondTimestamp) {
+        PacketData segment = new PacketData(++packetId, ProtocolConstant.REQUEST);
+        byte[] data = payload.getBytes();
+        segment.clonePacketData(data, 0, data.length);
+        segment.setSeqNum(seqNum);
+        segment.setMicrosecondTimestamp(microsecondTimestamp);
+        return segment;
+    }
+
+    private String releasedText() {
+        StringBuilder sb = new StringBuilder();
+        for (PacketData segment : released) {
+            sb.append(new String(segment.getData()));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void testInOrderAndReordered() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(100, "abc", 0));
+        reassembler.accept(segment(106, "ghi", 1));
+        assertEquals("abc", releasedText());
+        assertEquals(2, reassembler.getOldestHeldPacketId());
+        reassembler.accept(segment(103, "def", 2));
+        assertEquals("abcdefghi", releasedText());
+        assertEquals(Long.MAX_VALUE, reassembler.getOldestHeldPacketId());
+        assertFalse(released.get(2).isAfterGap());
+    }
+
+    @Test
+    public void testSequenceWraparound() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(0xFFFFFFFEL, "ab", 0));
+        reassembler.accept(segment(2, "ef", 1));
+        reassembler.accept(segment(0, "cd", 2));
+        assertEquals("abcdef", releasedText());
+        assertEquals(0, released.get(1).getSeqNum());
+    }
+
+    @Test
+    public void testRetransmissionIsTrimmed() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(100, "abcd", 0));
+        reassembler.accept(segment(100, "abcd", 1));
+        reassembler.accept(segment(102, "cdef", 2));
+        assertEquals("abcdef", releasedText());
+        assertEquals(2, released.size());
+        assertArrayEquals("ef".getBytes(), released.get(1).getData());
+        assertEquals(104, released.get(1).getSeqNum());
+    }
+
+    @Test
+    public void testOverlapAcrossWraparoundIsTrimmed() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(0xFFFFFFFCL, "abcd", 0));
+        reassembler.accept(segment(0xFFFFFFFEL, "cdef", 1));
+        assertEquals("abcdef", releasedText());
+        assertEquals(0, released.get(1).getSeqNum());
+    }
+
+    @Test
+    public void testFullWindowSkipsGap() {
+        TcpReassembler reassembler = create(2);
+        reassembler.accept(segment(100, "a", 0));
+        reassembler.accept(segment(102, "c", 1));
+        reassembler.accept(segment(103, "d", 2));
+        assertEquals("a", releasedText());
+        reassembler.accept(segment(104, "e", 3));
+        assertEquals("acde", releasedText());
+        assertTrue(released.get(1).isAfterGap());
+        assertFalse(released.get(2).isAfterGap());
+        // the lost byte is dropped as a duplicate when it comes too late
+        reassembler.accept(segment(101, "b", 4));
+        assertEquals("acde", releasedText());
+    }
+
+    @Test
+    public void testGapTimeout() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(100, "a", 0));
+        reassembler.accept(segment(102, "c", 1000));
+        reassembler.accept(segment(104, "e", 5000));
+        assertEquals(11000, reassembler.getExpireTime());
+        reassembler.expire(11000);
+        assertEquals("a", releasedText());
+        reassembler.expire(11001);
+        assertEquals("ac", releasedText());
+        assertEquals(15000, reassembler.getExpireTime());
+        reassembler.expire(15001);
+        assertEquals("ace", releasedText());
+        assertTrue(released.get(1).isAfterGap());
+        assertTrue(released.get(2).isAfterGap());
+        assertEquals(Long.MAX_VALUE, reassembler.getExpireTime());
+    }
+
+    @Test
+    public void testSkipGapsReleasesAllHeldSegments() {
+        TcpReassembler reassembler = create(4);
+        reassembler.accept(segment(100, "a", 0));
+        reassembler.accept(segment(102, "c", 1));
+        reassembler.accept(segment(104, "e", 2));
+        reassembler.skipGaps("response data");
+        assertEquals("ace", releasedText());
+        assertEquals(Long.MAX_VALUE, reassembler.getOldestHeldPacketId());
+        reassembler.accept(segment(105, "f", 3));
+        assertEquals("acef", releasedText());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2024-2024 Huawei Technologies Co.,Ltd.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+package org.opengauss.tool.replay.operator;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * ReplaySqlOperatorTest
+ *
+ * @since 2025-03-30
+ */
+public class ReplaySqlOperatorTest {
+    @Test
+    public void testTopLevelOrderBy() {
+        assertTrue(ReplaySqlOperator.hasTopLevelOrderBy("select * from t order by id"));
+        assertTrue(ReplaySqlOperator.hasTopLevelOrderBy("SELECT * FROM t ORDER\n  BY id DESC LIMIT 10"));
+        assertTrue(ReplaySqlOperator.hasTopLevelOrderBy("select * from t where (a = 1) order by (a + b)"));
+        assertTrue(ReplaySqlOperator.hasTopLevelOrderBy("select * from t union select * from u order by 1"));
+        assertTrue(ReplaySqlOperator.hasTopLevelOrderBy("select * from `order` order /* c */ by id"));
+    }
+
+    @Test
+    public void testNestedOrderByDoesNotOrderRows() {
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from t"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy(
+                "select id, row_number() over (partition by a order by b) from t"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from (select * from t order by id limit 5) x"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select group_concat(name order by id) from t"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from t where note = 'order by id'"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from t where note = 'it\\'s order by'"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from t -- order by id\n"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select * from t /* order by id */"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select `order by` from t"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy("select order_by from t"));
+        assertFalse(ReplaySqlOperator.hasTopLevelOrderBy(
+                "(select * from t order by id limit 1) union all (select * from u)"));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Description: ByteCodec test
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/30
+ **/
+public class ByteCodecTest {
+    private static byte[] bytes(int... values) {
+        byte[] data = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            data[i] = (byte) values[i];
+        }
+        return data;
+    }
+
+    @Test
+    public void testReadLittleEndian() {
+        byte[] data = bytes(0x78, 0x56, 0x34, 0x12, 0xff, 0xff, 0xff, 0xff);
+        assertEquals(0x12345678, ByteCodec.readIntByLittleEndian(data, 0, 4));
+        assertEquals(0x345678, ByteCodec.readIntByLittleEndian(data, 0, 3));
+        assertEquals(0xffffff12L, ByteCodec.readLongByLittleEndian(data, 3, 7));
+        assertEquals(0xffffffff12345678L, ByteCodec.readLongByLittleEndian(data, 0, 8));
+    }
+
+    @Test
+    public void testReadBigEndian() {
+        byte[] data = bytes(0x12, 0x34, 0x56, 0x78, 0x9a, 0xbc, 0xde, 0xf0);
+        assertEquals(0x1234, ByteCodec.readIntByBigEndian(data, 0, 2));
+        assertEquals(0x12345678, ByteCodec.readIntByBigEndian(data, 0, 4));
+        assertEquals(0x123456789abcdef0L, ByteCodec.readLongByBigEndian(data, 0, 8));
+    }
+
+    @Test
+    public void testSignOfShortReadsIsUnsigned() {
+        // reads narrower than the result type are not sign extended
+        byte[] data = bytes(0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff);
+        assertEquals(0xff, ByteCodec.readUnsignedByte(data, 0));
+        assertEquals(0xffff, ByteCodec.readIntByBigEndian(data, 0, 2));
+        assertEquals(0xffffff, ByteCodec.readIntByLittleEndian(data, 0, 3));
+        assertEquals(0xffffffffL, ByteCodec.readLongByBigEndian(data, 0, 4));
+    }
+
+    @Test
+    public void testSignOfFullWidthReadsIsTwosComplement() {
+        byte[] data = bytes(0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xff, 0xfe);
+        assertEquals(-1, ByteCodec.readIntByLittleEndian(data, 0, 4));
+        assertEquals(-1, ByteCodec.readIntByBigEndian(data, 0, 4));
+        assertEquals(-2L, ByteCodec.readLongByBigEndian(data, 0, 8));
+        assertEquals(0xfeffffffffffffffL, ByteCodec.readLongByLittleEndian(data, 0, 8));
+        // wider reads are truncated to the low 32 bits
+        assertEquals(-2, ByteCodec.readIntByBigEndian(data, 0, 8));
+    }
+
+    @Test
+    public void testReadLengthEncodedInt() {
+        assertEquals(0L, ByteCodec.readLengthEncodedInt(bytes(0x00), 0));
+        assertEquals(0xfaL, ByteCodec.readLengthEncodedInt(bytes(0xfa), 0));
+        assertEquals(1, ByteCodec.getLengthEncodedIntSize(bytes(0xfa), 0));
+        assertEquals(ByteCodec.NULL_LENGTH, ByteCodec.readLengthEncodedInt(bytes(0xfb), 0));
+        assertEquals(1, ByteCodec.getLengthEncodedIntSize(bytes(0xfb), 0));
+        assertEquals(0xfedcL, ByteCodec.readLengthEncodedInt(bytes(0xfc, 0xdc, 0xfe), 0));
+        assertEquals(3, ByteCodec.getLengthEncodedIntSize(bytes(0xfc, 0xdc, 0xfe), 0));
+        assertEquals(0xfedcbaL, ByteCodec.readLengthEncodedInt(bytes(0xfd, 0xba, 0xdc, 0xfe), 0));
+        assertEquals(4, ByteCodec.getLengthEncodedIntSize(bytes(0xfd, 0xba, 0xdc, 0xfe), 0));
+        byte[] eightBytes = bytes(0x00, 0xfe, 0x08, 0x07, 0x06, 0x05, 0x04, 0x03, 0x02, 0x01);
+        assertEquals(0x0102030405060708L, ByteCodec.readLengthEncodedInt(eightBytes, 1));
+        assertEquals(9, ByteCodec.getLengthEncodedIntSize(eightBytes, 1));
+    }
+
+    @Test
+    public void testReadNulTerminatedString() {
+        byte[] text = "ab\0\0中文\0tail".getBytes(StandardCharsets.UTF_8);
+        assertEquals("ab", ByteCodec.readNulTerminatedString(text, 0));
+        assertEquals(2, ByteCodec.indexOfNul(text, 0));
+        assertEquals("", ByteCodec.readNulTerminatedString(text, 3));
+        assertEquals("中文", ByteCodec.readNulTerminatedString(text, 4));
+        assertNull(ByteCodec.readNulTerminatedString(text, text.length - 4));
+        assertEquals(-1, ByteCodec.indexOfNul(text, text.length - 4));
+    }
+
+    @Test
+    public void testHex() {
+        assertEquals("00", ByteCodec.toHex((byte) 0));
+        assertEquals("0a", ByteCodec.toHex((byte) 10));
+        assertEquals("ff", ByteCodec.toHex((byte) -1));
+        StringBuilder sb = new StringBuilder();
+        ByteCodec.appendHex(sb, (byte) 0x03);
+        ByteCodec.appendHex(sb, (byte) 0xa5);
+        assertEquals("03a5", sb.toString());
+    }
+
+    @Test
+    public void testParseTimestamp() {
+        byte[] header = bytes(0x01, 0x00, 0x00, 0x80, 0x40, 0x42, 0x0f, 0x00);
+        assertEquals(0x80000001L * 1000 * 1000 + 1000000L, CommonParser.parseTimestamp(header));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Description: LineFileWriter and LineFileReader test
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/30
+ **/
+public class LineFileTest {
+    // more than three blocks of 1MB, the last one is partial
+    private static final int LINE_COUNT = 40000;
+
+    @TempDir
+    Path tempDir;
+
+    private static String line(int index) {
+        return "{\"id\":" + index + ",\"sql\":\"select * from t where id = " + index + " and name = 'x'\"}";
+    }
+
+    private String writeLines(String codecName, int lineCount) throws IOException {
+        String filePath = tempDir.resolve("sql-file-" + codecName + ".json").toString();
+        BlockCodec codec = codecName == null ? null : BlockCodecs.forName(codecName);
+        try (LineFileWriter writer = new LineFileWriter(filePath, codec)) {
+            for (int i = 0; i < lineCount; i++) {
+                writer.writeLine(line(i));
+                if (i % 100 == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        return filePath;
+    }
+
+    private static List<String> readLines(String filePath, long firstLine) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = LineFileReader.open(filePath, firstLine)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static void assertLines(int firstLine, int lastLine, List<String> lines) {
+        assertEquals(lastLine - firstLine, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(line(firstLine + i), lines.get(i));
+        }
+    }
+
+    @Test
+    public void testCompressedRoundTrip() throws IOException {
+        for (String codecName : new String[] {"deflate", "gzip"}) {
+            String filePath = writeLines(codecName, LINE_COUNT);
+            assertLines(0, LINE_COUNT, readLines(filePath, 0));
+        }
+    }
+
+    @Test
+    public void testResumeAtFirstLine() throws IOException {
+        String filePath = writeLines("deflate", LINE_COUNT);
+        for (int firstLine : new int[] {1, 12345, 30000, LINE_COUNT - 1}) {
+            assertLines(firstLine, LINE_COUNT, readLines(filePath, firstLine));
+        }
+        assertEquals(0, readLines(filePath, LINE_COUNT).size());
+        assertEquals(0, readLines(filePath, LINE_COUNT + 10).size());
+    }
+
+    @Test
+    public void testFlushKeepsPartialBlockPending() throws IOException {
+        String filePath = tempDir.resolve("pending.json").toString();
+        LineFileWriter writer = new LineFileWriter(filePath, BlockCodecs.forName("deflate"));
+        for (int i = 0; i < 10; i++) {
+            writer.writeLine(line(i));
+            writer.flush();
+        }
+        // a young partial block is not sealed by flush, the file holds the header only
+        assertEquals(LineFileWriter.HEADER_SIZE, tempDir.resolve("pending.json").toFile().length());
+        assertEquals(0, readLines(filePath, 0).size());
+        writer.close();
+        assertLines(0, 10, readLines(filePath, 0));
+    }
+
+    @Test
+    public void testFlushSealsOldPartialBlock() throws IOException {
+        String filePath = tempDir.resolve("aged.json").toString();
+        try (LineFileWriter writer = new LineFileWriter(new FileOutputStream(filePath),
+                BlockCodecs.forName("deflate"), true, 0L)) {
+            writer.writeLine(line(0));
+            writer.writeLine(line(1));
+            writer.flush();
+            assertLines(0, 2, readLines(filePath, 0));
+            writer.writeLine(line(2));
+        }
+        assertLines(0, 3, readLines(filePath, 0));
+        assertLines(2, 3, readLines(filePath, 2));
+    }
+
+    @Test
+    public void testPartialTrailingBlockIsLeftForNextRead() throws IOException {
+        String filePath = writeLines("deflate", LINE_COUNT);
+        List<String> lines = readLines(filePath, 0);
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+            // cut the last block as if the parser is still writing it
+            file.setLength(file.length() - 10);
+        }
+        List<String> sealedLines = readLines(filePath, 0);
+        assertTrue(sealedLines.size() > 0 && sealedLines.size() < LINE_COUNT);
+        assertEquals(lines.subList(0, sealedLines.size()), sealedLines);
+    }
+
+    @Test
+    public void testAppendToExistingCompressedFile() throws IOException {
+        String filePath = writeLines("deflate", 10);
+        try (LineFileWriter writer = new LineFileWriter(filePath, BlockCodecs.forName("deflate"))) {
+            for (int i = 10; i < 20; i++) {
+                writer.writeLine(line(i));
+            }
+        }
+        assertLines(0, 20, readLines(filePath, 0));
+        assertLines(15, 20, readLines(filePath, 15));
+    }
+
+    @Test
+    public void testPlainTextFallback() throws IOException {
+        String filePath = writeLines(null, 1000);
+        assertLines(0, 1000, readLines(filePath, 0));
+        assertLines(999, 1000, readLines(filePath, 999));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) Huawei Technologies Co., Ltd. 2025-2025. All rights reserved.
+ *
+ * openGauss is licensed under Mulan PSL v2.
+ * You can use this software according to the terms and conditions of the Mulan PSL v2.
+ * You may obtain a copy of Mulan PSL v2 at:
+ *
+ *           http://license.coscl.org.cn/MulanPSL2
+ *
+ * THIS SOFTWARE IS PROVIDED ON AN "AS IS" BASIS, WITHOUT WARRANTIES OF ANY KIND,
+ * EITHER EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FIT FOR A PARTICULAR PURPOSE.
+ * See the Mulan PSL v2 for more details.
+ */
+
+
+package org.opengauss.tool.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opengauss.tool.parse.object.PreparedValue;
+import org.opengauss.tool.parse.object.SqlInfo;
+import org.opengauss.tool.replay.model.ParamModel;
+import org.opengauss.tool.replay.model.SqlModel;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Description: SqlSegmentWriter and SqlSegmentReader test
+ *
+ * @author wangzhengyuan
+ * @since 2025/03/30
+ **/
+public class SqlSegmentTest {
+    private static final int SQL_COUNT = 200;
+    private static final long FIRST_SQL_ID = 1000L;
+    private static final long FIRST_START_TIME = 1_000_000L;
+    private static final List<String> PARAMETER_VALUES = Arrays.asList("42", "-7", "007", "3.14", "1.0E10", "1e10",
+            "9223372036854775808", "NaN", "", "abc", null);
+
+    @TempDir
+    Path tempDir;
+
+    private static long sqlId(int index) {
+        // the ids are sparse, so that a seek may fall between two sql
+        return FIRST_SQL_ID + index * 2L;
+    }
+
+    private static SqlInfo createSql(int index) {
+        SqlInfo sqlInfo = new SqlInfo(sqlId(index), index % 2 == 0, "select * from t where id = ? -- " + index);
+        sqlInfo.setSessionId("session-" + (index % 3));
+        sqlInfo.setUsername(index % 5 == 0 ? null : "user");
+        sqlInfo.setSchema("db");
+        sqlInfo.setStartTime(FIRST_START_TIME + index * 10L);
+        sqlInfo.setEndTime(FIRST_START_TIME + index * 10L + 4);
+        sqlInfo.setExecuteDuration(4);
+        if (sqlInfo.isPbe()) {
+            for (int i = 0; i < PARAMETER_VALUES.size(); i++) {
+                sqlInfo.getParameterList().add(new PreparedValue(i % 2 == 0 ? "int" : "string",
+                        PARAMETER_VALUES.get(i), i));
+            }
+        }
+        return sqlInfo;
+    }
+
+    private String writeSegment() throws IOException {
+        String pathWithoutSuffix = tempDir.resolve("sql-file-1").toString();
+        List<SqlInfo> first = new ArrayList<>();
+        List<SqlInfo> second = new ArrayList<>();
+        for (int i = 0; i < SQL_COUNT; i++) {
+            (i < 150 ? first : second).add(createSql(i));
+        }
+        try (SqlSegmentWriter writer = new SqlSegmentWriter(pathWithoutSuffix, ChannelFileWriter.FSYNC_NONE, 0)) {
+            writer.append(first);
+            writer.append(second);
+        }
+        return pathWithoutSuffix + SqlSegmentWriter.SEGMENT_SUFFIX;
+    }
+
+    private static void assertSql(int index, SqlModel sqlModel) {
+        SqlInfo expected = createSql(index);
+        assertEquals(expected.getSqlId(), sqlModel.getId());
+        assertEquals(expected.getPacketId(), sqlModel.getPacketId());
+        assertEquals(expected.isPbe(), sqlModel.isPrepared());
+        assertEquals(expected.isQuery(), sqlModel.isQuery());
+        assertEquals(expected.getSessionId(), sqlModel.getSession());
+        assertEquals(expected.getUsername(), sqlModel.getUsername());
+        assertEquals(expected.getSchema(), sqlModel.getSchema());
+        assertEquals(expected.getSql(), sqlModel.getSql());
+        assertEquals(expected.getStartTime(), sqlModel.getStartTime());
+        assertEquals(expected.getEndTime(), sqlModel.getEndTime());
+        assertEquals(expected.getExecuteDuration(), sqlModel.getMysqlDuration());
+        assertEquals(expected.getParameterList().size(), sqlModel.getParameters().size());
+        for (int i = 0; i < expected.getParameterList().size(); i++) {
+            PreparedValue parameter = expected.getParameterList().get(i);
+            ParamModel param = sqlModel.getParameters().get(i);
+            assertEquals(i + 1, param.getId());
+            // every value prints back to the very same text, whether it is stored as a number or as text
+            assertEquals(parameter.getValue(), param.getValue());
+            assertEquals(parameter.getValue() == null ? "null" : parameter.getType(), param.getType());
+        }
+    }
+
+    @Test
+    public void testReadAllRoundTrip() throws IOException {
+        SqlSegmentReader reader = new SqlSegmentReader(writeSegment());
+        List<SqlModel> sqlModels = reader.readAll();
+        assertEquals(SQL_COUNT, sqlModels.size());
+        for (int i = 0; i < SQL_COUNT; i++) {
+            assertSql(i, sqlModels.get(i));
+        }
+    }
+
+    @Test
+    public void testDictionaryValuesAreStoredOnceInIndex() throws IOException {
+        String segmentPath = writeSegment();
+        String indexPath = segmentPath.replace(SqlSegmentWriter.SEGMENT_SUFFIX, SqlSegmentWriter.INDEX_SUFFIX);
+        String segment = new String(Files.readAllBytes(Paths.get(segmentPath)), StandardCharsets.ISO_8859_1);
+        String index = new String(Files.readAllBytes(Paths.get(indexPath)), StandardCharsets.ISO_8859_1);
+        for (String value : Arrays.asList("session-0", "session-1", "session-2", "user", "db", "int", "string")) {
+            assertFalse(segment.contains(value), value);
+            assertEquals(index.indexOf(value), index.lastIndexOf(value), value);
+            assertTrue(index.contains(value), value);
+        }
+    }
+
+    @Test
+    public void testSparseIndexBlocks() throws IOException {
+        SqlSegmentReader reader = new SqlSegmentReader(writeSegment());
+        // a block holds up to 64 records and every append closes its last block
+        assertEquals(4, reader.getBlockCount());
+        int[] blockSizes = {64, 64, 22, 50};
+        int index = 0;
+        for (int i = 0; i < blockSizes.length; i++) {
+            List<SqlModel> block = reader.readBlock(i);
+            assertEquals(blockSizes[i], block.size());
+            for (SqlModel sqlModel : block) {
+                assertSql(index++, sqlModel);
+            }
+        }
+    }
+
+    @Test
+    public void testSeekById() throws IOException {
+        SqlSegmentReader reader = new SqlSegmentReader(writeSegment());
+        List<SqlModel> sqlModels = reader.readById(sqlId(100), sqlId(105));
+        assertEquals(6, sqlModels.size());
+        for (int i = 0; i < sqlModels.size(); i++) {
+            assertSql(100 + i, sqlModels.get(i));
+        }
+        // the range bounds fall between two ids and across a block boundary
+        sqlModels = reader.readById(sqlId(63) - 1, sqlId(64) + 1);
+        assertEquals(2, sqlModels.size());
+        assertSql(63, sqlModels.get(0));
+        assertSql(64, sqlModels.get(1));
+        assertTrue(reader.readById(sqlId(SQL_COUNT), Long.MAX_VALUE).isEmpty());
+        assertTrue(reader.readById(Long.MIN_VALUE, FIRST_SQL_ID - 1).isEmpty());
+    }
+
+    @Test
+    public void testSeekByTime() throws IOException {
+        SqlSegmentReader reader = new SqlSegmentReader(writeSegment());
+        List<SqlModel> sqlModels = reader.readByTime(FIRST_START_TIME + 1495, FIRST_START_TIME + 1529);
+        assertEquals(3, sqlModels.size());
+        for (int i = 0; i < sqlModels.size(); i++) {
+            assertSql(150 + i, sqlModels.get(i));
+        }
+        assertTrue(reader.readByTime(0, FIRST_START_TIME - 1).isEmpty());
+        assertNull(reader.readByTime(FIRST_START_TIME, FIRST_START_TIME).get(0).getUsername());
+    }
+}